@@ -0,0 +1,154 @@
+package com.reactiverates.auth.api.grpc;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+import com.reactiverates.auth.application.service.JwtService;
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.grpc.TokenStatus;
+import com.reactiverates.auth.grpc.TokenValidationServiceGrpc;
+import com.reactiverates.auth.grpc.ValidateTokenRequest;
+import com.reactiverates.auth.grpc.ValidateTokenResponse;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * gRPC сервер проверки access токенов для внутренних сервисов.
+ * <p>
+ * Подпись и срок проверяет {@link JwtService}, отзыв — переданная проверка, общая с фильтром аутентификации.
+ * На проверку отзыва каждого токена отводится {@code messageDeadline}; не уложившийся токен возвращается
+ * как {@link TokenStatus#TOKEN_UNKNOWN}, чтобы один медленный запрос к хранилищу не задерживал поток.
+ * <p>
+ * В потоке {@code ValidateTokens} сервер сам запрашивает сообщения у клиента: одновременно обрабатывается
+ * не больше {@code maxInFlight} токенов, и следующее сообщение читается только после того, как ответ
+ * ушел в транспорт. Клиент, который не читает ответы, перестает получать окно на отправку.
+ */
+@Slf4j
+public class TokenValidationGrpcService extends TokenValidationServiceGrpc.TokenValidationServiceImplBase {
+
+    private final JwtService jwtService;
+    private final Function<ParsedToken, Mono<Boolean>> revocationCheck;
+    private final Duration messageDeadline;
+    private final int maxInFlight;
+
+    public TokenValidationGrpcService(JwtService jwtService, Function<ParsedToken, Mono<Boolean>> revocationCheck,
+            Duration messageDeadline, int maxInFlight) {
+        this.jwtService = jwtService;
+        this.revocationCheck = revocationCheck;
+        this.messageDeadline = messageDeadline;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void validateToken(ValidateTokenRequest request, StreamObserver<ValidateTokenResponse> responseObserver) {
+        validate(request).subscribe(response -> {
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }, responseObserver::onError);
+    }
+
+    @Override
+    public StreamObserver<ValidateTokenRequest> validateTokens(StreamObserver<ValidateTokenResponse> responseObserver) {
+        ServerCallStreamObserver<ValidateTokenResponse> serverObserver =
+            (ServerCallStreamObserver<ValidateTokenResponse>) responseObserver;
+        ValidationStream stream = new ValidationStream(serverObserver);
+        serverObserver.disableAutoRequest();
+        serverObserver.setOnReadyHandler(stream::drain);
+        serverObserver.setOnCancelHandler(stream::cancel);
+        serverObserver.request(maxInFlight);
+        return stream;
+    }
+
+    Mono<ValidateTokenResponse> validate(ValidateTokenRequest request) {
+        ValidateTokenResponse.Builder response = ValidateTokenResponse.newBuilder()
+            .setRequestId(request.getRequestId());
+        Optional<ParsedToken> parsed = jwtService.tryParse(request.getToken())
+            .filter(ParsedToken::isAccessToken);
+        if (parsed.isEmpty()) {
+            return Mono.just(response.setStatus(TokenStatus.TOKEN_INVALID).build());
+        }
+        ParsedToken token = parsed.get();
+        return revocationCheck.apply(token)
+            .timeout(messageDeadline)
+            .map(revoked -> revoked
+                ? response.setStatus(TokenStatus.TOKEN_REVOKED).build()
+                : response.setStatus(TokenStatus.TOKEN_ACTIVE)
+                    .setSubject(token.subject())
+                    .addAllRoles(token.roles())
+                    .setExpiresAt(token.expiration().getEpochSecond())
+                    .build())
+            .onErrorResume(e -> {
+                log.warn("Token revocation check failed: {}", e.toString());
+                return Mono.just(response.setStatus(TokenStatus.TOKEN_UNKNOWN).build());
+            });
+    }
+
+    /**
+     * Состояние одного потока {@code ValidateTokens}. Готовые ответы ждут в очереди, пока транспорт
+     * не примет их; {@link #drain()} вызывается и из потоков проверки, и из обработчика готовности.
+     */
+    private final class ValidationStream implements StreamObserver<ValidateTokenRequest> {
+
+        private final ServerCallStreamObserver<ValidateTokenResponse> responseObserver;
+        private final Queue<ValidateTokenResponse> ready = new ConcurrentLinkedQueue<>();
+        private int inFlight;
+        private boolean halfClosed;
+        private boolean done;
+
+        ValidationStream(ServerCallStreamObserver<ValidateTokenResponse> responseObserver) {
+            this.responseObserver = responseObserver;
+        }
+
+        @Override
+        public void onNext(ValidateTokenRequest request) {
+            synchronized (this) {
+                inFlight++;
+            }
+            validate(request).subscribe(response -> {
+                ready.add(response);
+                drain();
+            });
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.debug("ValidateTokens stream closed by client: {}", t.getMessage());
+            cancel();
+        }
+
+        @Override
+        public synchronized void onCompleted() {
+            halfClosed = true;
+            drain();
+        }
+
+        synchronized void cancel() {
+            done = true;
+            ready.clear();
+        }
+
+        synchronized void drain() {
+            if (done) {
+                return;
+            }
+            ValidateTokenResponse response;
+            while (responseObserver.isReady() && (response = ready.poll()) != null) {
+                responseObserver.onNext(response);
+                inFlight--;
+                if (!halfClosed) {
+                    responseObserver.request(1);
+                }
+            }
+            if (halfClosed && inFlight == 0) {
+                done = true;
+                responseObserver.onCompleted();
+            }
+        }
+    }
+}
@@ -1,18 +1,30 @@
 package com.reactiverates.auth.api.rest.controller;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.reactiverates.auth.domain.model.AuthResponse;
+import com.reactiverates.auth.domain.model.IntrospectionRequest;
+import com.reactiverates.auth.domain.model.IntrospectionResponse;
 import com.reactiverates.auth.domain.model.LoginRequest;
 import com.reactiverates.auth.domain.model.LogoutResponse;
 import com.reactiverates.auth.domain.model.RefreshTokenRequest;
 import com.reactiverates.auth.domain.model.RegisterRequest;
+import com.reactiverates.auth.domain.model.SessionMetadata;
+import com.reactiverates.auth.domain.model.SessionPage;
 import com.reactiverates.auth.domain.service.AuthService;
+import com.reactiverates.auth.domain.service.TokenIntrospectionService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -20,15 +32,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 @Tag(name = "Authentication", description = "API для аутентификации и регистрации пользователей")
 public class AuthController {
     private final AuthService authService;
+    private final TokenIntrospectionService tokenIntrospectionService;
 
     @PostMapping("/register")
     @Operation(
@@ -50,8 +65,9 @@ public class AuthController {
             description = "Пользователь с таким именем или email уже существует"
         )
     })
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
-        return ResponseEntity.ok(authService.register(request));
+    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request,
+            HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(authService.register(request, sessionMetadata(null, httpRequest)));
     }
 
     @PostMapping("/login")
@@ -74,8 +90,9 @@ public class AuthController {
             description = "Неверные учетные данные"
         )
     })
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        return ResponseEntity.ok(authService.login(request));
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(authService.login(request, sessionMetadata(request.getDeviceName(), httpRequest)));
     }
 
     @PostMapping("/refresh")
@@ -105,7 +122,8 @@ public class AuthController {
     @DeleteMapping("/logout")
     @Operation(
         summary = "Выход из системы",
-        description = "Удаляет refresh токен пользователя, завершая сессию"
+        description = "Удаляет refresh токен, завершая текущую сессию; остальные сессии пользователя сохраняются. "
+            + "Access токен из заголовка Authorization, если передан, отзывается до истечения"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -122,7 +140,113 @@ public class AuthController {
             description = "Недействительный refresh токен"
         )
     })
-    public ResponseEntity<LogoutResponse> logout(@Valid @RequestBody RefreshTokenRequest request) {
-        return ResponseEntity.ok(authService.logout(request.refreshToken()));
+    public ResponseEntity<LogoutResponse> logout(@Valid @RequestBody RefreshTokenRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return ResponseEntity.ok(authService.logout(request.refreshToken(), bearerToken(authorization)));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/introspect")
+    @Operation(
+        summary = "Проверка пакета токенов",
+        description = "Проверяет подпись, срок действия и отзыв каждого access токена; "
+            + "результаты возвращаются в порядке токенов запроса вместе со временем обработки пакета"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Результаты проверки",
+            content = @Content(schema = @Schema(implementation = IntrospectionResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Пустой список или больше " + IntrospectionRequest.MAX_TOKENS + " токенов"
+        ),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Нет access токена с ролью jwt.introspection.required-authority"
+        )
+    })
+    public ResponseEntity<IntrospectionResponse> introspect(@Valid @RequestBody IntrospectionRequest request) {
+        return ResponseEntity.ok(tokenIntrospectionService.introspect(request.tokens()));
+    }
+
+    @GetMapping("/sessions")
+    @Operation(
+        summary = "Активные сессии",
+        description = "Возвращает сессии текущего пользователя от новых к старым; следующая страница запрашивается по nextCursor"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Страница сессий",
+            content = @Content(schema = @Schema(implementation = SessionPage.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный курсор"
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Требуется access токен"
+        )
+    })
+    public ResponseEntity<SessionPage> listSessions(Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(authService.listSessions(authentication.getName(), cursor, limit));
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    @Operation(
+        summary = "Завершение сессии",
+        description = "Отзывает refresh токен и access токены одной сессии текущего пользователя"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "204",
+            description = "Сессия завершена"
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Требуется access токен"
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Сессия не найдена"
+        )
+    })
+    public ResponseEntity<Void> revokeSession(Authentication authentication, @PathVariable long sessionId) {
+        authService.revokeSession(authentication.getName(), sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/sessions")
+    @Operation(
+        summary = "Завершение всех сессий",
+        description = "Отзывает refresh и access токены всех сессий текущего пользователя"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Сессии завершены",
+            content = @Content(schema = @Schema(implementation = LogoutResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Требуется access токен"
+        )
+    })
+    public ResponseEntity<LogoutResponse> revokeAllSessions(Authentication authentication,
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        return ResponseEntity.ok(authService.revokeAllSessions(authentication.getName(), bearerToken(authorization)));
+    }
+
+    private static String bearerToken(String authorization) {
+        return authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+    }
+
+    private static SessionMetadata sessionMetadata(String deviceName, HttpServletRequest httpRequest) {
+        // Адрес клиента за прокси определяется по server.forward-headers-strategy
+        return SessionMetadata.of(deviceName, httpRequest.getHeader(HttpHeaders.USER_AGENT), httpRequest.getRemoteAddr());
+    }
+}
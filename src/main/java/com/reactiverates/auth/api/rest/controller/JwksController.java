@@ -0,0 +1,62 @@
+package com.reactiverates.auth.api.rest.controller;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.reactiverates.auth.application.service.JwtService;
+import com.reactiverates.auth.domain.model.JwkSet;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Открытые ключи проверки JWT (RFC 7517) для сервлетного и реактивного профилей.
+ * Документ готовится заранее; клиенты кэшируют его по {@code Cache-Control} и перепроверяют по ETag.
+ */
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "JWKS", description = "Открытые ключи для локальной проверки токенов")
+public class JwksController {
+    private final JwtService jwtService;
+
+    @Value("${jwt.jwks.max-age:1h}")
+    private Duration maxAge;
+
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(
+        summary = "Набор открытых ключей",
+        description = "Ключи для проверки подписи access токенов по kid; при подписи HS256 набор пуст"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Набор ключей"),
+        @ApiResponse(responseCode = "304", description = "Набор не изменился с указанного ETag")
+    })
+    public ResponseEntity<String> jwks(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        JwkSet jwkSet = jwtService.jwkSet();
+        CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+        if (jwkSet.etag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(cacheControl)
+                .eTag(jwkSet.etag())
+                .build();
+        }
+        return ResponseEntity.ok()
+            .cacheControl(cacheControl)
+            .eTag(jwkSet.etag())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(jwkSet.json());
+    }
+}
@@ -0,0 +1,115 @@
+package com.reactiverates.auth.api.rest.controller;
+
+import java.net.InetSocketAddress;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.reactiverates.auth.domain.model.AuthResponse;
+import com.reactiverates.auth.domain.model.IntrospectionRequest;
+import com.reactiverates.auth.domain.model.IntrospectionResponse;
+import com.reactiverates.auth.domain.model.LoginRequest;
+import com.reactiverates.auth.domain.model.LogoutResponse;
+import com.reactiverates.auth.domain.model.RefreshTokenRequest;
+import com.reactiverates.auth.domain.model.RegisterRequest;
+import com.reactiverates.auth.domain.model.SessionMetadata;
+import com.reactiverates.auth.domain.model.SessionPage;
+import com.reactiverates.auth.domain.service.ReactiveAuthService;
+import com.reactiverates.auth.domain.service.ReactiveTokenIntrospectionService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux вариант {@link AuthController} для профиля {@code reactive}.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+@Tag(name = "Authentication", description = "API для аутентификации и регистрации пользователей")
+public class ReactiveAuthController {
+    private final ReactiveAuthService authService;
+    private final ReactiveTokenIntrospectionService tokenIntrospectionService;
+
+    @PostMapping("/register")
+    @Operation(summary = "Регистрация нового пользователя")
+    public Mono<AuthResponse> register(@Valid @RequestBody RegisterRequest request, ServerHttpRequest httpRequest) {
+        return authService.register(request, sessionMetadata(null, httpRequest));
+    }
+
+    @PostMapping("/login")
+    @Operation(summary = "Аутентификация пользователя")
+    public Mono<AuthResponse> login(@Valid @RequestBody LoginRequest request, ServerHttpRequest httpRequest) {
+        return authService.login(request, sessionMetadata(request.getDeviceName(), httpRequest));
+    }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Обновление токена")
+    public Mono<AuthResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        return authService.refreshToken(request.refreshToken());
+    }
+
+    @DeleteMapping("/logout")
+    @Operation(summary = "Выход из системы")
+    public Mono<LogoutResponse> logout(@Valid @RequestBody RefreshTokenRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return authService.logout(request.refreshToken(), bearerToken(authorization));
+    }
+
+    @PostMapping("/introspect")
+    @Operation(summary = "Проверка пакета токенов")
+    public Mono<IntrospectionResponse> introspect(@Valid @RequestBody IntrospectionRequest request) {
+        return tokenIntrospectionService.introspect(request.tokens());
+    }
+
+    @GetMapping("/sessions")
+    @Operation(summary = "Активные сессии")
+    public Mono<SessionPage> listSessions(Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return authService.listSessions(authentication.getName(), cursor, limit);
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Завершение сессии")
+    public Mono<Void> revokeSession(Authentication authentication, @PathVariable long sessionId) {
+        return authService.revokeSession(authentication.getName(), sessionId);
+    }
+
+    @DeleteMapping("/sessions")
+    @Operation(summary = "Завершение всех сессий")
+    public Mono<LogoutResponse> revokeAllSessions(Authentication authentication,
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        return authService.revokeAllSessions(authentication.getName(), bearerToken(authorization));
+    }
+
+    private static String bearerToken(String authorization) {
+        return authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+    }
+
+    private static SessionMetadata sessionMetadata(String deviceName, ServerHttpRequest httpRequest) {
+        InetSocketAddress remoteAddress = httpRequest.getRemoteAddress();
+        String ipAddress = remoteAddress != null && remoteAddress.getAddress() != null
+            ? remoteAddress.getAddress().getHostAddress()
+            : null;
+        return SessionMetadata.of(deviceName, httpRequest.getHeaders().getFirst(HttpHeaders.USER_AGENT), ipAddress);
+    }
+}
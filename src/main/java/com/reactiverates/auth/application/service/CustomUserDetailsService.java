@@ -1,11 +1,14 @@
 package com.reactiverates.auth.application.service;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import com.reactiverates.auth.domain.service.UsersService;
+import com.reactiverates.auth.domain.exception.UsersServiceException;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,9 +16,9 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     
-    private final UsersService usersService;
+    private final AsyncUsersService usersService;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -27,9 +30,34 @@ public class CustomUserDetailsService implements UserDetailsService {
         } catch (UsernameNotFoundException e) {
             log.warn("User not found: {}", username);
             throw e;
+        } catch (UsersServiceException e) {
+            // Недоступность users-service не должна выглядеть как неверные учетные данные
+            log.error("Users service unavailable while loading user: {}", username);
+            throw e;
         } catch (Exception e) {
             log.error("Error loading user details for username: {}", username, e);
             throw new UsernameNotFoundException("Error loading user: " + username, e);
         }
     }
+
+    /**
+     * Вызывается после успешного входа, если хеш пароля устарел. Хеш обновляется в users-service
+     * в фоне: ошибка обновления не влияет на вход, попытка повторится при следующем логине.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (!(user instanceof UserDto userDto)) {
+            return user;
+        }
+        usersService.updatePasswordHashAsync(userDto, newPassword).whenComplete((updated, error) -> {
+            if (error != null) {
+                log.warn("Failed to upgrade password hash for user {}: {}", userDto.getUsername(), error.getMessage());
+            } else if (updated) {
+                log.info("Password hash upgraded for user: {}", userDto.getUsername());
+            } else {
+                log.info("Password hash for user {} changed concurrently, upgrade skipped", userDto.getUsername());
+            }
+        });
+        return user;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.reactiverates.auth.application.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.domain.service.AccessTokenRevocationService;
+import com.reactiverates.auth.domain.service.RevokedTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.entity.RevokedAccessToken;
+import com.reactiverates.auth.infrastructure.security.RotatingBloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Список отозванных access токенов: хранилище — источник истины, фильтр Блума в памяти отсекает
+ * обращения к нему для неотозванных токенов. Отзывы с других узлов догружаются в фильтр
+ * каждые {@code jwt.revocation.sync-interval}.
+ * <p>
+ * Кроме отдельных токенов по {@code jti} в списке лежат завершенные сессии по {@code sid}: токен
+ * отклоняется, если отозван он сам или выдавшая его сессия.
+ */
+@Slf4j
+@Service
+@Profile("!reactive")
+public class DefaultAccessTokenRevocationService implements AccessTokenRevocationService {
+
+    /** Запас на расхождение часов узлов и поздний коммит отзыва */
+    static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private final RevokedTokenStore revokedTokenStore;
+    private final RotatingBloomFilter bloomFilter;
+    private final Counter lookupCounter;
+    private final Counter rejectedCounter;
+    private volatile Instant syncedUntil;
+
+    @Value("${jwt.revocation.purge.batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Value("${jwt.access-token.expiration:900000}")
+    private long accessTokenExpiration;
+
+    public DefaultAccessTokenRevocationService(RevokedTokenStore revokedTokenStore, RotatingBloomFilter bloomFilter,
+            MeterRegistry meterRegistry) {
+        this.revokedTokenStore = revokedTokenStore;
+        this.bloomFilter = bloomFilter;
+        this.lookupCounter = Counter.builder("jwt.revocation.lookups")
+            .description("Access token checks that passed the Bloom filter and queried the denylist")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("jwt.revocation.rejected")
+            .description("Requests rejected because the access token was revoked")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public boolean revoke(ParsedToken accessToken) {
+        if (!accessToken.isAccessToken() || accessToken.id() == null || accessToken.expiration() == null
+                || accessToken.isExpired()) {
+            return false;
+        }
+        byte[] key = TokenIdGenerator.storageKey(accessToken.id());
+        boolean revoked = revokedTokenStore.revoke(key, accessToken.expiration(), Instant.now());
+        bloomFilter.put(key, accessToken.expiration());
+        return revoked;
+    }
+
+    @Override
+    public boolean revokeSession(long sessionId) {
+        Instant now = Instant.now();
+        Instant expiresAt = sessionRevocationExpiry(now, accessTokenExpiration);
+        byte[] key = TokenIdGenerator.sessionKey(Long.toString(sessionId));
+        boolean revoked = revokedTokenStore.revoke(key, expiresAt, now);
+        bloomFilter.put(key, now, expiresAt);
+        return revoked;
+    }
+
+    @Override
+    public boolean isRevoked(ParsedToken accessToken) {
+        if (accessToken.expiration() == null) {
+            return false;
+        }
+        byte[] tokenKey = candidate(TokenIdGenerator::storageKey, accessToken.id(), accessToken.expiration());
+        byte[] sessionKey = candidate(TokenIdGenerator::sessionKey, accessToken.sessionId(), accessToken.expiration());
+        if (tokenKey == null && sessionKey == null) {
+            return false;
+        }
+        lookupCounter.increment();
+        boolean revoked;
+        try {
+            Instant now = Instant.now();
+            revoked = (tokenKey != null && revokedTokenStore.isRevoked(tokenKey, now))
+                || (sessionKey != null && revokedTokenStore.isRevoked(sessionKey, now));
+        } catch (RuntimeException e) {
+            // Токен почти наверняка в списке: без хранилища считаем его отозванным
+            log.warn("Failed to check revoked access token, rejecting it: {}", e.getMessage());
+            revoked = true;
+        }
+        if (revoked) {
+            rejectedCounter.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Ключ claim, который может быть в списке отозванных, или {@code null}, если фильтр Блума
+     * точно его не содержит.
+     */
+    private byte[] candidate(Function<String, byte[]> toKey, String claim, Instant expiration) {
+        if (claim == null) {
+            return null;
+        }
+        byte[] key = toKey.apply(claim);
+        return bloomFilter.mightContain(key, expiration) ? key : null;
+    }
+
+    /**
+     * Срок записи об отозванной сессии: последний токен сессии выдан не позже {@code now}
+     * и живет не дольше срока access токена; запас покрывает расхождение часов узлов.
+     */
+    static Instant sessionRevocationExpiry(Instant now, long accessTokenExpiration) {
+        return now.plusMillis(accessTokenExpiration).plus(SYNC_OVERLAP);
+    }
+
+    /**
+     * Догружает в фильтр отзывы, сделанные с прошлой синхронизации; первый запуск загружает
+     * все неистекшие. Заодно удаляет окна фильтра, все токены которых истекли.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:5s}")
+    public void syncRevocations() {
+        Instant now = Instant.now();
+        Instant since = syncedUntil == null ? Instant.EPOCH : syncedUntil.minus(SYNC_OVERLAP);
+        try {
+            List<RevokedAccessToken> revoked = revokedTokenStore.findRevokedSince(since, now);
+            // От времени отзыва: ключ сессии проверяется токенами, истекающими в любой момент до expiresAt
+            revoked.forEach(token -> bloomFilter.put(token.getTokenHash(), token.getRevokedAt(), token.getExpiresAt()));
+            if (syncedUntil == null) {
+                log.info("Loaded {} revoked access tokens", revoked.size());
+            }
+            syncedUntil = now;
+        } catch (RuntimeException e) {
+            log.warn("Failed to sync revoked access tokens: {}", e.getMessage());
+        }
+        bloomFilter.expire(now);
+    }
+
+    @Scheduled(initialDelayString = "${jwt.revocation.purge.interval:5m}",
+            fixedDelayString = "${jwt.revocation.purge.interval:5m}")
+    public void purgeExpired() {
+        try {
+            Instant now = Instant.now();
+            int deleted = 0;
+            int batch;
+            do {
+                batch = revokedTokenStore.deleteExpired(now, purgeBatchSize);
+                deleted += batch;
+            } while (batch == purgeBatchSize);
+            if (deleted > 0) {
+                log.info("Purged {} expired access token revocations", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge expired access token revocations: {}", e.getMessage());
+        }
+    }
+}
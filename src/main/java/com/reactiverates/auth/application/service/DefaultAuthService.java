@@ -1,36 +1,54 @@
 package com.reactiverates.auth.application.service;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import com.reactiverates.auth.domain.exception.SessionNotFoundException;
 import com.reactiverates.auth.domain.exception.TokenException;
 import com.reactiverates.auth.domain.model.AuthResponse;
 import com.reactiverates.auth.domain.model.UserDto;
 import com.reactiverates.auth.domain.model.LoginRequest;
 import com.reactiverates.auth.domain.model.LogoutResponse;
+import com.reactiverates.auth.domain.model.ParsedToken;
 import com.reactiverates.auth.domain.model.RegisterRequest;
+import com.reactiverates.auth.domain.model.SessionMetadata;
+import com.reactiverates.auth.domain.model.SessionPage;
+import com.reactiverates.auth.domain.service.AccessTokenRevocationService;
 import com.reactiverates.auth.domain.service.AuthService;
 import com.reactiverates.auth.domain.service.RefreshTokenService;
-import com.reactiverates.auth.domain.service.UsersService;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
 import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Slf4j
 public class DefaultAuthService implements AuthService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final RefreshTokenService refreshTokenService;
-    private final UsersService usersService;
+    private final AsyncUsersService usersService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+
+    @Value("${refresh-tokens.sessions.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${refresh-tokens.sessions.max-page-size:100}")
+    private int maxPageSize;
 
     @Override
-	public AuthResponse register(RegisterRequest request) {
+	public AuthResponse register(RegisterRequest request, SessionMetadata metadata) {
         Optional<UserDto> existingUser = usersService.getUserByUsername(request.getUsername());
         if (existingUser.isPresent()) {
             throw new TokenException("User already exists");
@@ -50,8 +68,8 @@ public class DefaultAuthService implements AuthService {
             
             log.info("User created successfully via gRPC: {}", request.getUsername());
             
-            var accessToken = jwtService.generateAccessToken(userDto);
-            var refreshTokenEntity = refreshTokenService.createRefreshToken(userDto);
+            var refreshTokenEntity = refreshTokenService.createRefreshToken(userDto, metadata);
+            var accessToken = jwtService.generateAccessToken(userDto, refreshTokenEntity.getId());
             var refreshTokenJwt = refreshTokenService.generateRefreshTokenJwt(userDto, refreshTokenEntity.getToken());
 
             return new AuthResponse(accessToken, refreshTokenJwt, userDto.getUsername(), userDto.getEmail());
@@ -62,19 +80,16 @@ public class DefaultAuthService implements AuthService {
     }
 
     @Override
-	public AuthResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
+	public AuthResponse login(LoginRequest request, SessionMetadata metadata) {
+        // Principal уже содержит пользователя: повторный запрос в users-service не нужен
+        Authentication authentication = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
         );
+        UserDto userDto = (UserDto) authentication.getPrincipal();
 
-        Optional<UserDto> userDtoOptional = usersService.getUserByUsername(request.getUsername());
-        if (userDtoOptional.isEmpty()) {
-            throw new TokenException("User not found: " + request.getUsername());
-        }
-        UserDto userDto = userDtoOptional.get();
-
-        var accessToken = jwtService.generateAccessToken(userDto);
-        var refreshTokenEntity = refreshTokenService.createRefreshToken(userDto);
+        // Сессия создается первой: ее ключ попадает в claim sid access токена
+        var refreshTokenEntity = refreshTokenService.createRefreshToken(userDto, metadata);
+        var accessToken = jwtService.generateAccessToken(userDto, refreshTokenEntity.getId());
         var refreshTokenJwt = refreshTokenService.generateRefreshTokenJwt(userDto, refreshTokenEntity.getToken());
         
         return new AuthResponse(accessToken, refreshTokenJwt, userDto.getUsername(), userDto.getEmail());
@@ -84,12 +99,12 @@ public class DefaultAuthService implements AuthService {
 	public AuthResponse refreshToken(String refreshTokenJwt) {
         log.info("Attempting to refresh token");
         
-        if (!jwtService.isRefreshToken(refreshTokenJwt)) {
-            throw new TokenException("Invalid refresh token type");
-        }
+        ParsedToken parsedToken = parseRefreshToken(refreshTokenJwt);
+        String tokenId = parsedToken.tokenId();
+        String username = parsedToken.subject();
         
-        String tokenId = jwtService.extractTokenId(refreshTokenJwt);
-        String username = jwtService.extractUsername(refreshTokenJwt);
+        // Получаем актуальные данные пользователя из gRPC сервиса параллельно с проверкой токена в БД
+        CompletableFuture<Optional<UserDto>> userLookup = usersService.getUserByUsernameAsync(username);
         
         // Проверяем существование токена в БД
         RefreshToken token = refreshTokenService.findByTokenId(tokenId)
@@ -98,20 +113,17 @@ public class DefaultAuthService implements AuthService {
         // Проверяем срок действия
         token = refreshTokenService.verifyExpiration(token);
         
-        // Получаем актуальные данные пользователя из gRPC сервиса
-        Optional<UserDto> userDtoOptional = usersService.getUserByUsername(username);
-        if (userDtoOptional.isEmpty()) {
-            throw new TokenException("User not found: " + username);
-        }
-        UserDto userDto = userDtoOptional.get();
+        UserDto userDto = await(userLookup)
+            .orElseThrow(() -> new TokenException("User not found: " + username));
         
         // Проверяем, что токен принадлежит правильному пользователю
         if (!token.getUserId().equals(userDto.getId())) {
             throw new TokenException("Token user mismatch");
         }
         
-        var accessToken = jwtService.generateAccessToken(userDto);
-        var newRefreshTokenEntity = refreshTokenService.createRefreshToken(userDto);
+        // Сессия сохраняет свой идентификатор, меняется только токен
+        var newRefreshTokenEntity = refreshTokenService.rotate(token);
+        var accessToken = jwtService.generateAccessToken(userDto, newRefreshTokenEntity.getId());
         var newRefreshTokenJwt = refreshTokenService.generateRefreshTokenJwt(userDto, newRefreshTokenEntity.getToken());
         
         log.info("Token refreshed successfully for user: {}", username);
@@ -120,24 +132,20 @@ public class DefaultAuthService implements AuthService {
     }
 
     @Override
-	public LogoutResponse logout(String refreshTokenJwt) {
+	public LogoutResponse logout(String refreshTokenJwt, String accessTokenJwt) {
         log.info("Attempting logout with refresh token");
         
-        if (!jwtService.isRefreshToken(refreshTokenJwt)) {
-            throw new TokenException("Invalid refresh token type");
-        }
+        ParsedToken parsedToken = parseRefreshToken(refreshTokenJwt);
+        String tokenId = parsedToken.tokenId();
+        String username = parsedToken.subject();
         
-        String tokenId = jwtService.extractTokenId(refreshTokenJwt);
-        String username = jwtService.extractUsername(refreshTokenJwt);
+        CompletableFuture<Optional<UserDto>> userLookup = usersService.getUserByUsernameAsync(username);
         
         RefreshToken token = refreshTokenService.findByTokenId(tokenId)
             .orElseThrow(() -> new TokenException("Refresh token not found or already invalid"));
         
-        Optional<UserDto> userDtoOptional = usersService.getUserByUsername(username);
-        if (userDtoOptional.isEmpty()) {
-            throw new TokenException("User not found: " + username);
-        }
-        UserDto userDto = userDtoOptional.get();
+        UserDto userDto = await(userLookup)
+            .orElseThrow(() -> new TokenException("User not found: " + username));
         
         // Проверяем, что токен принадлежит правильному пользователю
         if (!token.getUserId().equals(userDto.getId())) {
@@ -146,18 +154,94 @@ public class DefaultAuthService implements AuthService {
         
         log.debug("Logging out user: {}", username);
         
-        boolean wasDeleted = refreshTokenService.deleteByUser(userDto);
+        revokeAccessToken(accessTokenJwt, username);
+        accessTokenRevocationService.revokeSession(token.getId());
+        boolean wasDeleted = refreshTokenService.deleteSession(userDto, token.getId());
         
         String message = wasDeleted 
             ? "Successfully logged out" 
             : "User was already logged out";
         
         String details = wasDeleted 
-            ? "All active sessions have been terminated" 
-            : "No active sessions found for this user";
+            ? "Current session has been terminated" 
+            : "Session was already terminated";
         
         log.info("User {} logout completed. Session deleted: {}", username, wasDeleted);
         
         return new LogoutResponse(username, message, details);
     }
+
+    @Override
+	public SessionPage listSessions(String username, String cursor, Integer limit) {
+        UserDto userDto = findUser(username);
+        return refreshTokenService.listSessions(userDto, cursor, pageSize(limit));
+    }
+
+    @Override
+	public void revokeSession(String username, long sessionId) {
+        UserDto userDto = findUser(username);
+        if (!refreshTokenService.deleteSession(userDto, sessionId)) {
+            throw new SessionNotFoundException(sessionId);
+        }
+        // Сессия точно принадлежала пользователю: отзываем все ее access токены
+        accessTokenRevocationService.revokeSession(sessionId);
+        log.info("Session {} of user {} revoked", sessionId, username);
+    }
+
+    @Override
+	public LogoutResponse revokeAllSessions(String username, String accessTokenJwt) {
+        UserDto userDto = findUser(username);
+        revokeAccessToken(accessTokenJwt, username);
+        // Сначала отзыв, потом удаление: при сбое между ними токены уже не принимаются
+        refreshTokenService.findSessionIds(userDto).forEach(accessTokenRevocationService::revokeSession);
+        boolean wasDeleted = refreshTokenService.deleteByUser(userDto);
+        log.info("User {} revoked all sessions. Sessions deleted: {}", username, wasDeleted);
+        return new LogoutResponse(
+            username,
+            wasDeleted ? "Successfully logged out" : "User was already logged out",
+            wasDeleted ? "All active sessions have been terminated" : "No active sessions found for this user");
+    }
+
+    /**
+     * Отзывает access токен, только если он выдан тому же пользователю: чужой токен в заголовке игнорируется.
+     */
+    private void revokeAccessToken(String accessTokenJwt, String username) {
+        if (accessTokenJwt == null) {
+            return;
+        }
+        jwtService.tryParse(accessTokenJwt)
+            .filter(ParsedToken::isAccessToken)
+            .filter(token -> username.equals(token.subject()))
+            .filter(accessTokenRevocationService::revoke)
+            .ifPresent(token -> log.debug("Access token of user {} revoked", username));
+    }
+
+    private UserDto findUser(String username) {
+        return usersService.getUserByUsername(username)
+            .orElseThrow(() -> new TokenException("User not found: " + username));
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private ParsedToken parseRefreshToken(String refreshTokenJwt) {
+        return jwtService.tryParse(refreshTokenJwt)
+            .filter(ParsedToken::isRefreshToken)
+            .orElseThrow(() -> new TokenException("Invalid refresh token type"));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 }
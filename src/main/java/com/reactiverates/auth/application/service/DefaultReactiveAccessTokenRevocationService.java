@@ -0,0 +1,156 @@
+package com.reactiverates.auth.application.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.domain.service.ReactiveAccessTokenRevocationService;
+import com.reactiverates.auth.infrastructure.persistance.reactive.R2dbcRevokedTokenStore;
+import com.reactiverates.auth.infrastructure.security.RotatingBloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Реактивный вариант {@link DefaultAccessTokenRevocationService}: та же схема
+ * "фильтр Блума в памяти, таблица — источник истины" поверх R2DBC.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class DefaultReactiveAccessTokenRevocationService implements ReactiveAccessTokenRevocationService {
+
+    private final R2dbcRevokedTokenStore revokedTokenStore;
+    private final RotatingBloomFilter bloomFilter;
+    private final Counter lookupCounter;
+    private final Counter rejectedCounter;
+    private volatile Instant syncedUntil;
+
+    @Value("${jwt.revocation.purge.batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Value("${jwt.revocation.sync-interval:5s}")
+    private Duration syncInterval;
+
+    @Value("${jwt.access-token.expiration:900000}")
+    private long accessTokenExpiration;
+
+    public DefaultReactiveAccessTokenRevocationService(R2dbcRevokedTokenStore revokedTokenStore,
+            RotatingBloomFilter bloomFilter, MeterRegistry meterRegistry) {
+        this.revokedTokenStore = revokedTokenStore;
+        this.bloomFilter = bloomFilter;
+        this.lookupCounter = Counter.builder("jwt.revocation.lookups")
+            .description("Access token checks that passed the Bloom filter and queried the denylist")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("jwt.revocation.rejected")
+            .description("Requests rejected because the access token was revoked")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Boolean> revoke(ParsedToken accessToken) {
+        if (!accessToken.isAccessToken() || accessToken.id() == null || accessToken.expiration() == null
+                || accessToken.isExpired()) {
+            return Mono.just(false);
+        }
+        byte[] key = TokenIdGenerator.storageKey(accessToken.id());
+        return revokedTokenStore.revoke(key, accessToken.expiration(), Instant.now())
+            .doOnSuccess(inserted -> bloomFilter.put(key, accessToken.expiration()))
+            .map(inserted -> inserted > 0);
+    }
+
+    @Override
+    public Mono<Boolean> revokeSession(long sessionId) {
+        Instant now = Instant.now();
+        Instant expiresAt = DefaultAccessTokenRevocationService.sessionRevocationExpiry(now, accessTokenExpiration);
+        byte[] key = TokenIdGenerator.sessionKey(Long.toString(sessionId));
+        return revokedTokenStore.revoke(key, expiresAt, now)
+            .doOnSuccess(inserted -> bloomFilter.put(key, now, expiresAt))
+            .map(inserted -> inserted > 0);
+    }
+
+    @Override
+    public Mono<Boolean> isRevoked(ParsedToken accessToken) {
+        if (accessToken.expiration() == null) {
+            return Mono.just(false);
+        }
+        byte[] tokenKey = candidate(TokenIdGenerator::storageKey, accessToken.id(), accessToken.expiration());
+        byte[] sessionKey = candidate(TokenIdGenerator::sessionKey, accessToken.sessionId(), accessToken.expiration());
+        if (tokenKey == null && sessionKey == null) {
+            return Mono.just(false);
+        }
+        lookupCounter.increment();
+        Instant now = Instant.now();
+        Mono<Boolean> tokenRevoked = tokenKey != null ? revokedTokenStore.isRevoked(tokenKey, now) : Mono.just(false);
+        return tokenRevoked
+            .flatMap(revoked -> revoked || sessionKey == null
+                ? Mono.just(revoked)
+                : revokedTokenStore.isRevoked(sessionKey, now))
+            .onErrorResume(e -> {
+                log.warn("Failed to check revoked access token, rejecting it: {}", e.getMessage());
+                return Mono.just(true);
+            })
+            .doOnNext(revoked -> {
+                if (revoked) {
+                    rejectedCounter.increment();
+                }
+            });
+    }
+
+    private byte[] candidate(Function<String, byte[]> toKey, String claim, Instant expiration) {
+        if (claim == null) {
+            return null;
+        }
+        byte[] key = toKey.apply(claim);
+        return bloomFilter.mightContain(key, expiration) ? key : null;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:5s}")
+    public void syncRevocations() {
+        Instant now = Instant.now();
+        Instant since = syncedUntil == null
+            ? Instant.EPOCH
+            : syncedUntil.minus(DefaultAccessTokenRevocationService.SYNC_OVERLAP);
+        try {
+            // Планировщик не поток event loop: ожидание держит fixedDelay между синхронизациями
+            Long loaded = revokedTokenStore.findRevokedSince(since, now)
+                .doOnNext(token -> bloomFilter.put(token.getTokenHash(), token.getRevokedAt(), token.getExpiresAt()))
+                .count()
+                .block(syncInterval);
+            if (syncedUntil == null) {
+                log.info("Loaded {} revoked access tokens", loaded);
+            }
+            syncedUntil = now;
+        } catch (RuntimeException e) {
+            log.warn("Failed to sync revoked access tokens: {}", e.getMessage());
+        }
+        bloomFilter.expire(now);
+    }
+
+    @Scheduled(initialDelayString = "${jwt.revocation.purge.interval:5m}",
+            fixedDelayString = "${jwt.revocation.purge.interval:5m}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        revokedTokenStore.deleteExpired(now, purgeBatchSize)
+            .expand(deleted -> deleted == purgeBatchSize
+                ? revokedTokenStore.deleteExpired(now, purgeBatchSize)
+                : Mono.empty())
+            .reduce(0L, Long::sum)
+            .doOnNext(deleted -> {
+                if (deleted > 0) {
+                    log.info("Purged {} expired access token revocations", deleted);
+                }
+            })
+            .doOnError(e -> log.warn("Failed to purge expired access token revocations: {}", e.getMessage()))
+            .onErrorComplete()
+            .subscribe();
+    }
+}
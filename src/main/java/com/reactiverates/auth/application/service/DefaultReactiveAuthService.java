@@ -0,0 +1,278 @@
+package com.reactiverates.auth.application.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Service;
+
+import com.reactiverates.auth.domain.exception.SessionNotFoundException;
+import com.reactiverates.auth.domain.exception.TokenException;
+import com.reactiverates.auth.domain.model.AuthResponse;
+import com.reactiverates.auth.domain.model.LoginRequest;
+import com.reactiverates.auth.domain.model.LogoutResponse;
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.domain.model.RegisterRequest;
+import com.reactiverates.auth.domain.model.SessionCursor;
+import com.reactiverates.auth.domain.model.SessionMetadata;
+import com.reactiverates.auth.domain.model.SessionPage;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.domain.service.ReactiveAccessTokenRevocationService;
+import com.reactiverates.auth.domain.service.ReactiveAuthService;
+import com.reactiverates.auth.domain.service.ReactiveUsersService;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+import com.reactiverates.auth.infrastructure.persistance.reactive.R2dbcRefreshTokenStore;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class DefaultReactiveAuthService implements ReactiveAuthService {
+    private final JwtService jwtService;
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final R2dbcRefreshTokenStore refreshTokenStore;
+    private final ReactiveUsersService usersService;
+    private final TokenIdGenerator tokenIdGenerator;
+    private final ReactiveAccessTokenRevocationService accessTokenRevocationService;
+
+    @Value("${jwt.refresh-token.expiration:604800000}")
+    private Long refreshTokenExpiration;
+
+    @Value("${refresh-tokens.sessions.max-per-user:10}")
+    private int maxSessionsPerUser;
+
+    @Value("${refresh-tokens.sessions.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${refresh-tokens.sessions.max-page-size:100}")
+    private int maxPageSize;
+
+    @Override
+    public Mono<AuthResponse> register(RegisterRequest request, SessionMetadata metadata) {
+        return usersService.getUserByUsername(request.getUsername())
+            .flatMap(existing -> Mono.<UserDto>error(new TokenException("User already exists")))
+            .switchIfEmpty(Mono.defer(() -> {
+                log.info("User not found in gRPC service, proceeding with registration: {}", request.getUsername());
+                return usersService.createUser(
+                        request.getUsername(),
+                        request.getEmail(),
+                        request.getPassword(),
+                        request.getFirstName() != null ? request.getFirstName() : "",
+                        request.getLastName() != null ? request.getLastName() : "",
+                        request.getPhoneNumber() != null ? request.getPhoneNumber() : "")
+                    .onErrorMap(e -> !(e instanceof TokenException),
+                        e -> new TokenException("Failed to create user: " + e.getMessage()));
+            }))
+            .flatMap(userDto -> issueTokens(userDto, metadata));
+    }
+
+    @Override
+    public Mono<AuthResponse> login(LoginRequest request, SessionMetadata metadata) {
+        // Пароль проверяет users-service (или BCrypt на boundedElastic в режиме local), а не event loop
+        return authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()))
+            .map(authentication -> (UserDto) authentication.getPrincipal())
+            .flatMap(userDto -> issueTokens(userDto, metadata));
+    }
+
+    @Override
+    public Mono<AuthResponse> refreshToken(String refreshTokenJwt) {
+        return Mono.fromCallable(() -> parseRefreshToken(refreshTokenJwt))
+            .flatMap(parsedToken -> Mono.zip(
+                    findByTokenId(parsedToken.tokenId())
+                        .switchIfEmpty(Mono.error(() -> new TokenException("Refresh token not found in database")))
+                        .flatMap(this::verifyExpiration),
+                    findUser(parsedToken.subject()))
+                .flatMap(tokenAndUser -> {
+                    RefreshToken token = tokenAndUser.getT1();
+                    UserDto userDto = tokenAndUser.getT2();
+                    if (!token.getUserId().equals(userDto.getId())) {
+                        return Mono.error(new TokenException("Token user mismatch"));
+                    }
+                    return rotate(token)
+                        .map(rotated -> toAuthResponse(userDto, rotated));
+                }))
+            .doOnNext(response -> log.info("Token refreshed successfully for user: {}", response.username()));
+    }
+
+    @Override
+    public Mono<LogoutResponse> logout(String refreshTokenJwt, String accessTokenJwt) {
+        return Mono.fromCallable(() -> parseRefreshToken(refreshTokenJwt))
+            .flatMap(parsedToken -> Mono.zip(
+                    findByTokenId(parsedToken.tokenId())
+                        .switchIfEmpty(Mono.error(() -> new TokenException("Refresh token not found or already invalid"))),
+                    findUser(parsedToken.subject())))
+            .flatMap(tokenAndUser -> {
+                RefreshToken token = tokenAndUser.getT1();
+                UserDto userDto = tokenAndUser.getT2();
+                if (!token.getUserId().equals(userDto.getId())) {
+                    return Mono.error(new TokenException("Token user mismatch"));
+                }
+                return revokeAccessToken(accessTokenJwt, userDto.getUsername())
+                    .then(accessTokenRevocationService.revokeSession(token.getId()))
+                    .then(refreshTokenStore.deleteByIdAndUserId(token.getId(), userDto.getId()))
+                    .map(deleted -> {
+                        boolean wasDeleted = deleted > 0;
+                        log.info("User {} logout completed. Session deleted: {}", userDto.getUsername(), wasDeleted);
+                        return new LogoutResponse(
+                            userDto.getUsername(),
+                            wasDeleted ? "Successfully logged out" : "User was already logged out",
+                            wasDeleted ? "Current session has been terminated" : "Session was already terminated");
+                    });
+            });
+    }
+
+    @Override
+    public Mono<SessionPage> listSessions(String username, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        return findUser(username)
+            .flatMap(userDto -> refreshTokenStore
+                .findSessions(userDto.getId(), cursor == null ? null : SessionCursor.decode(cursor), pageSize + 1)
+                .collectList())
+            .map(rows -> DefaultRefreshTokenService.toSessionPage(rows, pageSize));
+    }
+
+    @Override
+    public Mono<Void> revokeSession(String username, long sessionId) {
+        return findUser(username)
+            .flatMap(userDto -> refreshTokenStore.deleteByIdAndUserId(sessionId, userDto.getId()))
+            .flatMap(deleted -> deleted > 0
+                // Сессия точно принадлежала пользователю: отзываем все ее access токены
+                ? accessTokenRevocationService.revokeSession(sessionId).then()
+                : Mono.error(new SessionNotFoundException(sessionId)))
+            .doOnSuccess(ignored -> log.info("Session {} of user {} revoked", sessionId, username));
+    }
+
+    @Override
+    public Mono<LogoutResponse> revokeAllSessions(String username, String accessTokenJwt) {
+        return findUser(username)
+            .flatMap(userDto -> revokeAccessToken(accessTokenJwt, username)
+                // Сначала отзыв, потом удаление: при сбое между ними токены уже не принимаются
+                .thenMany(findSessionIds(userDto.getId()))
+                .concatMap(accessTokenRevocationService::revokeSession)
+                .then(refreshTokenStore.deleteByUserId(userDto.getId())))
+            .map(deleted -> {
+                boolean wasDeleted = deleted > 0;
+                log.info("User {} revoked all sessions. Sessions deleted: {}", username, wasDeleted);
+                return new LogoutResponse(
+                    username,
+                    wasDeleted ? "Successfully logged out" : "User was already logged out",
+                    wasDeleted ? "All active sessions have been terminated" : "No active sessions found for this user");
+            });
+    }
+
+    /**
+     * Отзывает access токен, только если он выдан тому же пользователю.
+     */
+    private Mono<Void> revokeAccessToken(String accessTokenJwt, String username) {
+        if (accessTokenJwt == null) {
+            return Mono.empty();
+        }
+        return Mono.justOrEmpty(jwtService.tryParse(accessTokenJwt))
+            .filter(ParsedToken::isAccessToken)
+            .filter(token -> username.equals(token.subject()))
+            .flatMap(accessTokenRevocationService::revoke)
+            .then();
+    }
+
+    /**
+     * Первичные ключи всех сессий пользователя; обычно хватает одной страницы.
+     */
+    private Flux<Long> findSessionIds(Long userId) {
+        return refreshTokenStore.findSessions(userId, null, maxSessionsPerUser).collectList()
+            .expand(rows -> rows.size() < maxSessionsPerUser
+                ? Mono.empty()
+                : refreshTokenStore.findSessions(userId, cursorAfter(rows), maxSessionsPerUser).collectList())
+            .flatMapIterable(rows -> rows)
+            .map(RefreshToken::getId);
+    }
+
+    private static SessionCursor cursorAfter(List<RefreshToken> rows) {
+        RefreshToken last = rows.get(rows.size() - 1);
+        return new SessionCursor(last.getCreatedAt(), last.getId());
+    }
+
+    private Mono<AuthResponse> issueTokens(UserDto userDto, SessionMetadata metadata) {
+        Instant now = Instant.now();
+        String tokenId = tokenIdGenerator.newTokenId();
+        RefreshToken refreshToken = RefreshToken.builder()
+            .userId(userDto.getId())
+            .token(tokenId)
+            .tokenHash(TokenIdGenerator.storageKey(tokenId))
+            .expiryDate(now.plusMillis(refreshTokenExpiration))
+            .deviceName(metadata.deviceName())
+            .userAgent(metadata.userAgent())
+            .ipAddress(metadata.ipAddress())
+            .createdAt(now)
+            .lastUsedAt(now)
+            .build();
+        return refreshTokenStore.insert(refreshToken, maxSessionsPerUser)
+            .map(inserted -> toAuthResponse(userDto, inserted));
+    }
+
+    private Mono<RefreshToken> rotate(RefreshToken token) {
+        Instant now = Instant.now();
+        String newTokenId = tokenIdGenerator.newTokenId();
+        Instant expiryDate = now.plusMillis(refreshTokenExpiration);
+        byte[] newTokenHash = TokenIdGenerator.storageKey(newTokenId);
+        return refreshTokenStore.rotate(token.getId(), token.getTokenHash(), newTokenHash, expiryDate, now)
+            .flatMap(updated -> {
+                if (updated == 0) {
+                    return Mono.error(new TokenException("Refresh token has already been used"));
+                }
+                token.setToken(newTokenId);
+                token.setTokenHash(newTokenHash);
+                token.setExpiryDate(expiryDate);
+                token.setLastUsedAt(now);
+                return Mono.just(token);
+            });
+    }
+
+    private AuthResponse toAuthResponse(UserDto userDto, RefreshToken refreshToken) {
+        return new AuthResponse(
+            jwtService.generateAccessToken(userDto, refreshToken.getId()),
+            jwtService.generateRefreshToken(userDto, refreshToken.getToken()),
+            userDto.getUsername(),
+            userDto.getEmail());
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private Mono<RefreshToken> findByTokenId(String tokenId) {
+        return Mono.fromCallable(() -> TokenIdGenerator.storageKey(tokenId))
+            .flatMap(refreshTokenStore::findByTokenHash)
+            .doOnNext(token -> token.setToken(tokenId));
+    }
+
+    private Mono<UserDto> findUser(String username) {
+        return usersService.getUserByUsername(username)
+            .switchIfEmpty(Mono.error(() -> new TokenException("User not found: " + username)));
+    }
+
+    private Mono<RefreshToken> verifyExpiration(RefreshToken token) {
+        if (token.getExpiryDate().isBefore(Instant.now())) {
+            return refreshTokenStore.deleteById(token.getId())
+                .then(Mono.error(new TokenException("Refresh token was expired. Please make a new signin request")));
+        }
+        return Mono.just(token);
+    }
+
+    private ParsedToken parseRefreshToken(String refreshTokenJwt) {
+        return jwtService.tryParse(refreshTokenJwt)
+            .filter(ParsedToken::isRefreshToken)
+            .orElseThrow(() -> new TokenException("Invalid refresh token type"));
+    }
+}
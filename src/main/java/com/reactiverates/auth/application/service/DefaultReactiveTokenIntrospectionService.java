@@ -0,0 +1,90 @@
+package com.reactiverates.auth.application.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.reactiverates.auth.domain.model.IntrospectionResponse;
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.domain.model.TokenIntrospection;
+import com.reactiverates.auth.domain.service.ReactiveAccessTokenRevocationService;
+import com.reactiverates.auth.domain.service.ReactiveTokenIntrospectionService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Реактивный вариант {@link DefaultTokenIntrospectionService}: большие пакеты делятся на части,
+ * которые проверяются на {@link Schedulers#parallel()}, а не на потоке event loop.
+ */
+@Service
+@Profile("reactive")
+public class DefaultReactiveTokenIntrospectionService implements ReactiveTokenIntrospectionService {
+
+    private final JwtService jwtService;
+    private final ReactiveAccessTokenRevocationService accessTokenRevocationService;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+
+    @Value("${jwt.introspection.parallel-threshold:64}")
+    private int parallelThreshold;
+
+    public DefaultReactiveTokenIntrospectionService(JwtService jwtService,
+            ReactiveAccessTokenRevocationService accessTokenRevocationService, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.accessTokenRevocationService = accessTokenRevocationService;
+        this.batchTimer = Timer.builder("jwt.introspection.batch")
+            .description("Time to introspect one batch of tokens")
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("jwt.introspection.batch.size")
+            .description("Tokens per introspection request")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<IntrospectionResponse> introspect(List<String> tokens) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return parseAll(tokens)
+                .flatMapSequential(parsed -> parsed
+                    .map(token -> accessTokenRevocationService.isRevoked(token)
+                        .map(revoked -> TokenIntrospection.of(token, revoked)))
+                    .orElseGet(() -> Mono.just(TokenIntrospection.inactive())))
+                .collectList()
+                .map(results -> {
+                    long elapsed = System.nanoTime() - start;
+                    batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                    batchSize.record(tokens.size());
+                    return new IntrospectionResponse(results, TimeUnit.NANOSECONDS.toMicros(elapsed));
+                });
+        });
+    }
+
+    private Flux<Optional<ParsedToken>> parseAll(List<String> tokens) {
+        if (tokens.size() < parallelThreshold) {
+            return Flux.fromIterable(tokens).map(this::parse);
+        }
+        int chunkSize = Math.max(parallelThreshold / 2,
+            (tokens.size() + Schedulers.DEFAULT_POOL_SIZE - 1) / Schedulers.DEFAULT_POOL_SIZE);
+        return Flux.range(0, (tokens.size() + chunkSize - 1) / chunkSize)
+            .flatMapSequential(chunk -> Mono.fromCallable(() -> tokens
+                    .subList(chunk * chunkSize, Math.min(tokens.size(), (chunk + 1) * chunkSize))
+                    .stream()
+                    .map(this::parse)
+                    .toList())
+                .subscribeOn(Schedulers.parallel()))
+            .flatMapIterable(chunk -> chunk);
+    }
+
+    private Optional<ParsedToken> parse(String token) {
+        return token == null ? Optional.empty() : jwtService.tryParse(token).filter(ParsedToken::isAccessToken);
+    }
+}
@@ -1,47 +1,73 @@
 package com.reactiverates.auth.application.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import com.reactiverates.auth.domain.exception.TokenException;
+import com.reactiverates.auth.domain.model.SessionCursor;
+import com.reactiverates.auth.domain.model.SessionInfo;
+import com.reactiverates.auth.domain.model.SessionMetadata;
+import com.reactiverates.auth.domain.model.SessionPage;
 import com.reactiverates.auth.domain.model.UserDto;
 import com.reactiverates.auth.domain.service.RefreshTokenService;
+import com.reactiverates.auth.domain.service.RefreshTokenStore;
 import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
-import com.reactiverates.auth.infrastructure.persistance.repository.RefreshTokenRepository;
 
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class DefaultRefreshTokenService implements RefreshTokenService {
     
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final JwtService jwtService;
+    private final TokenIdGenerator tokenIdGenerator;
 
     @Value("${jwt.refresh-token.expiration:604800000}")
     private Long refreshTokenExpiration;
+
+    @Value("${refresh-tokens.sessions.max-per-user:10}")
+    private int maxSessionsPerUser;
     
     @Override
-	public RefreshToken createRefreshToken(UserDto userDto) {
-        // Удаляем старый refresh token если существует
-        refreshTokenRepository.findByUserId(userDto.getId()).ifPresent(oldToken -> {
-            refreshTokenRepository.delete(oldToken);
-        });
-        
-        // Генерируем уникальный UUID для БД
-        String tokenId = UUID.randomUUID().toString();
-        
+	public RefreshToken createRefreshToken(UserDto userDto, SessionMetadata metadata) {
+        Instant now = Instant.now();
+        String tokenId = tokenIdGenerator.newTokenId();
         RefreshToken refreshToken = RefreshToken.builder()
             .userId(userDto.getId()) // Храним только ID пользователя
-            .token(tokenId) // UUID в БД
-            .expiryDate(Instant.now().plusMillis(refreshTokenExpiration))
+            .token(tokenId)
+            .tokenHash(TokenIdGenerator.storageKey(tokenId)) // В БД только ключ хранения
+            .expiryDate(now.plusMillis(refreshTokenExpiration))
+            .deviceName(metadata.deviceName())
+            .userAgent(metadata.userAgent())
+            .ipAddress(metadata.ipAddress())
+            .createdAt(now)
+            .lastUsedAt(now)
             .build();
-        
-        return refreshTokenRepository.save(refreshToken);
+        return refreshTokenStore.insert(refreshToken, maxSessionsPerUser);
+    }
+
+    @Override
+	public RefreshToken rotate(RefreshToken token) {
+        Instant now = Instant.now();
+        String newTokenId = tokenIdGenerator.newTokenId();
+        Instant expiryDate = now.plusMillis(refreshTokenExpiration);
+        byte[] newTokenHash = TokenIdGenerator.storageKey(newTokenId);
+        if (!refreshTokenStore.rotate(token.getId(), token.getTokenHash(), newTokenHash, expiryDate, now)) {
+            throw new TokenException("Refresh token has already been used");
+        }
+        token.setToken(newTokenId);
+        token.setTokenHash(newTokenHash);
+        token.setExpiryDate(expiryDate);
+        token.setLastUsedAt(now);
+        return token;
     }
     
     @Override
@@ -51,30 +77,77 @@ public class DefaultRefreshTokenService implements RefreshTokenService {
     
     @Override
 	public Optional<RefreshToken> findByTokenId(String tokenId) {
-        return refreshTokenRepository.findByToken(tokenId);
+        return refreshTokenStore.findByTokenHash(TokenIdGenerator.storageKey(tokenId))
+            .map(token -> {
+                token.setToken(tokenId);
+                return token;
+            });
     }
     
     @Override
 	public RefreshToken verifyExpiration(RefreshToken token) {
         if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
-            refreshTokenRepository.delete(token);
+            refreshTokenStore.deleteSession(token.getId(), token.getUserId());
             throw new TokenException("Refresh token was expired. Please make a new signin request");
         }
         return token;
     }
     
+    @Override
+	public SessionPage listSessions(UserDto userDto, String cursor, int limit) {
+        // Читаем на одну строку больше, чтобы узнать, есть ли следующая страница
+        SessionCursor after = cursor == null ? null : SessionCursor.decode(cursor);
+        List<RefreshToken> rows = refreshTokenStore.findSessions(userDto.getId(), after, limit + 1);
+        return toSessionPage(rows, limit);
+    }
+
+    @Override
+	public boolean deleteSession(UserDto userDto, long sessionId) {
+        return refreshTokenStore.deleteSession(sessionId, userDto.getId());
+    }
+    
     @Override
 	public boolean deleteByUser(UserDto userDto) {
-        Optional<RefreshToken> existingToken = refreshTokenRepository.findByUserId(userDto.getId());
-        if (existingToken.isPresent()) {
-            refreshTokenRepository.deleteByUserId(userDto.getId());
-            return true;
-        }
-        return false;
+        return refreshTokenStore.deleteByUserId(userDto.getId()) > 0;
     }
     
     @Override
-	public void deleteExpiredTokens() {
-        refreshTokenRepository.deleteExpiredTokens(Instant.now());
+	public List<Long> findSessionIds(UserDto userDto) {
+        // Обычно сессий не больше лимита на пользователя, и хватает одного запроса
+        List<Long> ids = new ArrayList<>();
+        SessionCursor after = null;
+        List<RefreshToken> rows;
+        do {
+            rows = refreshTokenStore.findSessions(userDto.getId(), after, maxSessionsPerUser);
+            rows.forEach(token -> ids.add(token.getId()));
+            if (!rows.isEmpty()) {
+                RefreshToken last = rows.get(rows.size() - 1);
+                after = new SessionCursor(last.getCreatedAt(), last.getId());
+            }
+        } while (rows.size() == maxSessionsPerUser);
+        return ids;
+    }
+
+    @Override
+	public int deleteExpiredTokens(int limit) {
+        return refreshTokenStore.deleteExpired(Instant.now(), limit);
+    }
+
+    @Override
+	public long countExpiredTokens() {
+        return refreshTokenStore.countExpired(Instant.now());
+    }
+
+    static SessionPage toSessionPage(List<RefreshToken> rows, int limit) {
+        List<RefreshToken> page = rows.size() > limit ? rows.subList(0, limit) : rows;
+        String nextCursor = rows.size() > limit
+            ? new SessionCursor(page.get(limit - 1).getCreatedAt(), page.get(limit - 1).getId()).encode()
+            : null;
+        return new SessionPage(page.stream().map(DefaultRefreshTokenService::toSessionInfo).toList(), nextCursor);
+    }
+
+    static SessionInfo toSessionInfo(RefreshToken token) {
+        return new SessionInfo(token.getId(), token.getDeviceName(), token.getUserAgent(), token.getIpAddress(),
+            token.getCreatedAt(), token.getLastUsedAt(), token.getExpiryDate());
     }
-} 
\ No newline at end of file
+}
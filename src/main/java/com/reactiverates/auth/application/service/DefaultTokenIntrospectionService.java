@@ -0,0 +1,85 @@
+package com.reactiverates.auth.application.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.reactiverates.auth.domain.model.IntrospectionResponse;
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.domain.model.TokenIntrospection;
+import com.reactiverates.auth.domain.service.AccessTokenRevocationService;
+import com.reactiverates.auth.domain.service.TokenIntrospectionService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Пакетная проверка токенов. Все токены проверяет один парсер {@link JwtService} с ключами,
+ * разобранными при загрузке; пакеты больше {@code jwt.introspection.parallel-threshold}
+ * обрабатываются параллельно в собственном пуле по числу ядер, чтобы не занимать общий ForkJoinPool.
+ */
+@Service
+@Profile("!reactive")
+public class DefaultTokenIntrospectionService implements TokenIntrospectionService, AutoCloseable {
+
+    private final JwtService jwtService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final ForkJoinPool pool;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+
+    @Value("${jwt.introspection.parallel-threshold:64}")
+    private int parallelThreshold;
+
+    public DefaultTokenIntrospectionService(JwtService jwtService,
+            AccessTokenRevocationService accessTokenRevocationService, MeterRegistry meterRegistry,
+            @Value("${jwt.introspection.parallelism:0}") int parallelism) {
+        this.jwtService = jwtService;
+        this.accessTokenRevocationService = accessTokenRevocationService;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.batchTimer = Timer.builder("jwt.introspection.batch")
+            .description("Time to introspect one batch of tokens")
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("jwt.introspection.batch.size")
+            .description("Tokens per introspection request")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public IntrospectionResponse introspect(List<String> tokens) {
+        long start = System.nanoTime();
+        List<TokenIntrospection> results = tokens.size() < parallelThreshold
+            ? tokens.stream().map(this::introspect).toList()
+            // Параллельный стрим, запущенный из задачи пула, выполняется в этом пуле
+            : pool.submit(() -> IntStream.range(0, tokens.size())
+                    .parallel()
+                    .mapToObj(i -> introspect(tokens.get(i)))
+                    .toList())
+                .join();
+        long elapsed = System.nanoTime() - start;
+        batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        batchSize.record(tokens.size());
+        return new IntrospectionResponse(results, TimeUnit.NANOSECONDS.toMicros(elapsed));
+    }
+
+    private TokenIntrospection introspect(String token) {
+        Optional<ParsedToken> parsed = token == null
+            ? Optional.empty()
+            : jwtService.tryParse(token).filter(ParsedToken::isAccessToken);
+        return parsed
+            .map(accessToken -> TokenIntrospection.of(accessToken, accessTokenRevocationService.isRevoked(accessToken)))
+            .orElse(TokenIntrospection.inactive());
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -1,32 +1,42 @@
 package com.reactiverates.auth.application.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import jakarta.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
+import com.reactiverates.auth.domain.model.JwkSet;
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.infrastructure.security.HmacJwtCodec;
+import com.reactiverates.auth.infrastructure.security.JwtKeyRingManager;
+
 import lombok.RequiredArgsConstructor;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class JwtService {
     private final UserDetailsService userDetailsService;
-
-    @Value("${jwt.secret:mySecretKeymySecretKeymySecretKeymySecretKey}")
-    private String secret;
+    private final TokenIdGenerator tokenIdGenerator;
+    private final JwtKeyRingManager keyRing;
 
     @Value("${jwt.access-token.expiration:900000}")
     private Long accessTokenExpiration;
@@ -34,31 +44,78 @@ public class JwtService {
     @Value("${jwt.refresh-token.expiration:604800000}")
     private Long refreshTokenExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.authentication.user-lookup:false}")
+    private boolean userLookup;
+
+    @Value("${jwt.fast-path.enabled:true}")
+    private boolean fastPath;
+
+    // Парсер неизменяем и потокобезопасен, поэтому строится один раз; ключ он берет
+    // по kid из текущего снимка набора ключей, так что смена ключей не требует нового парсера
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        this.parser = Jwts.parser()
+            .keyLocator(header -> {
+                String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+                Key key = keyRing.current().verificationKey(kid);
+                if (key == null) {
+                    throw new UnsupportedJwtException("Unknown or retired signing key: " + kid);
+                }
+                return key;
+            })
+            .build();
     }
-    
+
+    /**
+     * Открытые ключи для проверки токенов другими сервисами. Секреты HMAC не публикуются.
+     */
+    public JwkSet jwkSet() {
+        return keyRing.current().jwkSet();
+    }
+
+    /**
+     * Проверяет подпись и срок действия токена и разбирает claims за один проход.
+     *
+     * @throws JwtException если токен поврежден, подделан или истек
+     */
+    public ParsedToken parse(String token) {
+        if (fastPath) {
+            // Токены ключей HMAC с нашим набором claims проверяются без jjwt; остальные и все отказы — через jjwt
+            ParsedToken parsed = keyRing.current().verifyHmac(token, System.currentTimeMillis());
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        return toParsedToken(extractAllClaims(token));
+    }
+
+    /**
+     * То же, что {@link #parse(String)}, но вместо исключения возвращает пустой результат.
+     */
+    public Optional<ParsedToken> tryParse(String token) {
+        try {
+            return Optional.of(parse(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parse(token).subject();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(parse(token).expiration());
     }
     
     public String extractTokenId(String token) {
-        return extractClaim(token, claims -> claims.get("tokenId", String.class));
+        return parse(token).tokenId();
     }
     
-    @SuppressWarnings("unchecked")
     public List<String> extractRoles(String token) {
-        return extractClaim(token, claims -> {
-            Object rolesObj = claims.get("roles");
-            if (rolesObj instanceof List) {
-                return (List<String>) rolesObj;
-            }
-            return List.of();
-        });
+        return parse(token).roles();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -67,64 +124,123 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    private ParsedToken toParsedToken(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return new ParsedToken(
+            claims.get("type", String.class),
+            claims.getSubject(),
+            claims.getId(),
+            claims.get("tokenId", String.class),
+            claims.get("sid", String.class),
+            extractRoles(claims),
+            expiration != null ? expiration.toInstant() : null
+        );
     }
 
-    private boolean isTokenExpired(String token) { 
-        return extractExpiration(token).before(new Date());
+    private List<String> extractRoles(Claims claims) {
+        Object rolesObj = claims.get("roles");
+        if (rolesObj instanceof List<?> roles) {
+            return roles.stream()
+                .map(String::valueOf)
+                .toList();
+        }
+        return List.of();
     }
 
     public String generateAccessToken(UserDetails userDetails) {
+        return generateAccessToken(userDetails, null);
+    }
+
+    /**
+     * @param sessionId первичный ключ сессии refresh токена; claim {@code sid} позволяет отозвать
+     *                  все access токены сессии при ее завершении
+     */
+    public String generateAccessToken(UserDetails userDetails, Long sessionId) {
+        String sid = sessionId != null ? sessionId.toString() : null;
+        HmacJwtCodec codec = fastPathCodec();
+        if (codec != null) {
+            long now = System.currentTimeMillis();
+            return codec.sign(ParsedToken.ACCESS_TYPE, userDetails.getUsername(), tokenIdGenerator.newTokenId(), null,
+                sid, userDetails.getAuthorities(), now, now + accessTokenExpiration);
+        }
         Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "access");
+        claims.put("type", ParsedToken.ACCESS_TYPE);
         claims.put("roles", userDetails.getAuthorities().stream()
             .map(authority -> authority.getAuthority())
             .toList());
+        // jti адресует токен в списке отозванных
+        claims.put(Claims.ID, tokenIdGenerator.newTokenId());
+        if (sid != null) {
+            claims.put("sid", sid);
+        }
         return createToken(claims, userDetails.getUsername(), accessTokenExpiration);
     }
     
     public String generateRefreshToken(UserDetails userDetails, String tokenId) {
+        HmacJwtCodec codec = fastPathCodec();
+        if (codec != null) {
+            long now = System.currentTimeMillis();
+            return codec.sign(ParsedToken.REFRESH_TYPE, userDetails.getUsername(), null, tokenId, null, null,
+                now, now + refreshTokenExpiration);
+        }
         Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "refresh");
+        claims.put("type", ParsedToken.REFRESH_TYPE);
         claims.put("tokenId", tokenId);
         return createToken(claims, userDetails.getUsername(), refreshTokenExpiration);
     }
 
+    private HmacJwtCodec fastPathCodec() {
+        return fastPath ? keyRing.current().active().hmacCodec() : null;
+    }
+
     private String createToken(Map<String, Object> claims, String username, Long expiration) {
-        return Jwts.builder()
-            .claims(claims)
-            .subject(username)
-            .issuedAt(new Date(System.currentTimeMillis()))
-            .expiration(new Date(System.currentTimeMillis() + expiration))
-            .signWith(getSigningKey(), Jwts.SIG.HS256)
+        long now = System.currentTimeMillis();
+        return keyRing.current().active().sign(Jwts.builder()
+                .claims(claims)
+                .subject(username)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration)))
             .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return tryParse(token)
+            .map(parsed -> parsed.subject().equals(userDetails.getUsername()) && !parsed.isExpired())
+            .orElse(false);
     }
 
     public boolean isAccessToken(String token) {
-        try {
-            String tokenType = extractClaim(token, claims -> claims.get("type", String.class));
-            return "access".equals(tokenType);
-        } catch (Exception e) {
-            return false;
-        }
+        return tryParse(token).map(ParsedToken::isAccessToken).orElse(false);
     }
 
     public boolean isRefreshToken(String token) {
-        try {
-            String tokenType = extractClaim(token, claims -> claims.get("type", String.class));
-            return "refresh".equals(tokenType);
-        } catch (Exception e) {
-            return false;
+        return tryParse(token).map(ParsedToken::isRefreshToken).orElse(false);
+    }
+
+    /**
+     * Аутентифицирует запрос по проверенному access токену.
+     * По умолчанию Authentication строится из claims без обращения к users-service;
+     * при {@code jwt.authentication.user-lookup=true} пользователь загружается через {@link UserDetailsService}.
+     */
+    public void setAuthentication(ParsedToken token) {
+        if (userLookup) {
+            setAuthentication(token.subject());
+            return;
         }
+        SecurityContextHolder.getContext().setAuthentication(toAuthentication(token));
+    }
+
+    /**
+     * Строит Authentication из claims проверенного access токена без обращения к users-service.
+     */
+    public UsernamePasswordAuthenticationToken toAuthentication(ParsedToken token) {
+        List<SimpleGrantedAuthority> authorities = token.roles().stream()
+            .map(SimpleGrantedAuthority::new)
+            .toList();
+        return UsernamePasswordAuthenticationToken.authenticated(token.subject(), null, authorities);
     }
 
     public void setAuthentication(String username) {
@@ -133,4 +249,4 @@ public class JwtService {
             new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(authToken);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.reactiverates.auth.application.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.reactiverates.auth.domain.service.RefreshTokenService;
+import com.reactiverates.auth.infrastructure.persistance.RefreshTokenPartitionManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Фоновая очистка истекших refresh токенов порциями по {@code batch-size} строк
+ * с паузой между порциями, чтобы не держать долгих блокировок.
+ * При секционированной схеме истекшие дни сначала удаляются целиком.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "refresh-tokens.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshTokenPurger {
+
+    private final RefreshTokenService refreshTokenService;
+    private final ObjectProvider<RefreshTokenPartitionManager> partitionManager;
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter purgedCounter;
+    private final Counter droppedPartitionsCounter;
+    private final Timer runTimer;
+
+    @Value("${refresh-tokens.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${refresh-tokens.purge.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${refresh-tokens.purge.pause-between-batches:100ms}")
+    private Duration pauseBetweenBatches;
+
+    public RefreshTokenPurger(RefreshTokenService refreshTokenService,
+            ObjectProvider<RefreshTokenPartitionManager> partitionManager, MeterRegistry meterRegistry) {
+        this.refreshTokenService = refreshTokenService;
+        this.partitionManager = partitionManager;
+        this.purgedCounter = Counter.builder("refresh-tokens.purge.deleted")
+            .description("Expired refresh tokens deleted by the purger")
+            .register(meterRegistry);
+        this.droppedPartitionsCounter = Counter.builder("refresh-tokens.purge.dropped-partitions")
+            .description("Expired refresh token partitions dropped")
+            .register(meterRegistry);
+        this.runTimer = Timer.builder("refresh-tokens.purge.duration")
+            .description("Duration of one purge run")
+            .register(meterRegistry);
+        Gauge.builder("refresh-tokens.purge.backlog", backlog, AtomicLong::get)
+            .description("Expired refresh tokens left after the last purge run")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${refresh-tokens.purge.initial-delay:1m}",
+            fixedDelayString = "${refresh-tokens.purge.interval:5m}")
+    public void purgeExpiredTokens() {
+        runTimer.record(() -> {
+            try {
+                maintainPartitions();
+                int deleted = deleteInBatches();
+                backlog.set(refreshTokenService.countExpiredTokens());
+                if (deleted > 0) {
+                    log.info("Purged {} expired refresh tokens, {} left", deleted, backlog.get());
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to purge expired refresh tokens: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    private void maintainPartitions() {
+        RefreshTokenPartitionManager manager = partitionManager.getIfAvailable();
+        if (manager == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        droppedPartitionsCounter.increment(manager.dropExpiredPartitions(today));
+        try {
+            manager.createUpcomingPartitions(today);
+        } catch (IllegalStateException e) {
+            // Построчная очистка продолжает работать и без секции дня
+            log.error("Refresh token partitions are missing: {}", e.getMessage(), e);
+        }
+    }
+
+    private int deleteInBatches() {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = refreshTokenService.deleteExpiredTokens(batchSize);
+            total += deleted;
+            purgedCounter.increment(deleted);
+            if (deleted < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseBetweenBatches.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,129 @@
+package com.reactiverates.auth.application.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Генератор идентификаторов refresh токенов.
+ * {@link UUID#randomUUID()} читает общий NativePRNG под монитором, что сериализует потоки
+ * и закрепляет виртуальный поток на carrier-потоке на время чтения /dev/urandom.
+ * Здесь используется набор независимых DRBG, каждый защищен {@link ReentrantLock}.
+ * <p>
+ * Идентификатор — UUIDv7: 48 бит времени в миллисекундах и 74 случайных бита.
+ * В базе хранится не сам идентификатор, а 16-байтный ключ {@link #storageKey(String)}.
+ */
+@Component
+public class TokenIdGenerator {
+
+    /** Байт времени UUIDv7 в начале ключа хранения */
+    static final int TIMESTAMP_BYTES = 6;
+    public static final int STORAGE_KEY_BYTES = 16;
+
+    private final SecureRandom[] randoms;
+    private final ReentrantLock[] locks;
+
+    public TokenIdGenerator() {
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2);
+        this.randoms = new SecureRandom[stripes];
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            randoms[i] = newDrbg();
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    private static SecureRandom newDrbg() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    public String newTokenId() {
+        return newTokenId(System.currentTimeMillis());
+    }
+
+    String newTokenId(long epochMillis) {
+        byte[] bytes = new byte[16];
+        nextBytes(bytes);
+        for (int i = 0; i < TIMESTAMP_BYTES; i++) {
+            bytes[i] = (byte) (epochMillis >>> (8 * (TIMESTAMP_BYTES - 1 - i)));
+        }
+        bytes[6] = (byte) ((bytes[6] & 0x0f) | 0x70); // версия 7
+        bytes[8] = (byte) ((bytes[8] & 0x3f) | 0x80); // вариант IETF
+        return toUuid(bytes).toString();
+    }
+
+    /**
+     * Ключ хранения идентификатора: 6 байт времени UUIDv7 и первые 10 байт SHA-256 от 16 байт UUID.
+     * Время в начале ключа дает вставки в правую часть B-tree индекса, хеш не позволяет
+     * восстановить идентификатор из базы. У старых UUIDv4 идентификаторов время заменено нулями,
+     * как и в {@code db/refresh_tokens_token_hash.sql}.
+     */
+    public static byte[] storageKey(String tokenId) {
+        UUID uuid = UUID.fromString(tokenId);
+        byte[] uuidBytes = ByteBuffer.allocate(16)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
+        byte[] digest = sha256(uuidBytes);
+
+        byte[] key = new byte[STORAGE_KEY_BYTES];
+        if (uuid.version() == 7) {
+            System.arraycopy(uuidBytes, 0, key, 0, TIMESTAMP_BYTES);
+        }
+        System.arraycopy(digest, 0, key, TIMESTAMP_BYTES, STORAGE_KEY_BYTES - TIMESTAMP_BYTES);
+        return key;
+    }
+
+    /**
+     * Ключ отзыва сессии по claim {@code sid} access токена. Лежит в том же списке отозванных, что и
+     * ключи {@code jti}: байты времени нулевые, как у UUIDv4, остальное — SHA-256 от {@code "sid:" + id}.
+     */
+    public static byte[] sessionKey(String sessionId) {
+        byte[] digest = sha256(("sid:" + sessionId).getBytes(StandardCharsets.UTF_8));
+        byte[] key = new byte[STORAGE_KEY_BYTES];
+        System.arraycopy(digest, 0, key, TIMESTAMP_BYTES, STORAGE_KEY_BYTES - TIMESTAMP_BYTES);
+        return key;
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    void nextBytes(byte[] bytes) {
+        int stripe = ThreadLocalRandom.current().nextInt(randoms.length);
+        ReentrantLock lock = locks[stripe];
+        lock.lock();
+        try {
+            randoms[stripe].nextBytes(bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static UUID toUuid(byte[] bytes) {
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (bytes[i] & 0xff);
+        }
+        for (int i = 8; i < 16; i++) {
+            lsb = (lsb << 8) | (bytes[i] & 0xff);
+        }
+        return new UUID(msb, lsb);
+    }
+}
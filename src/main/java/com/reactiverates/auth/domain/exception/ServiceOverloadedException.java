@@ -0,0 +1,20 @@
+package com.reactiverates.auth.domain.exception;
+
+import java.time.Duration;
+
+/**
+ * Запрос отклонен из-за перегрузки; клиенту стоит повторить его через {@link #getRetryAfter()}.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
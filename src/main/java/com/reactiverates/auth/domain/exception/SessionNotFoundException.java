@@ -0,0 +1,8 @@
+package com.reactiverates.auth.domain.exception;
+
+public class SessionNotFoundException extends RuntimeException {
+
+    public SessionNotFoundException(long sessionId) {
+        super("Session not found: " + sessionId);
+    }
+}
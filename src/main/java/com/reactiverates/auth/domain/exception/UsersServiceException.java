@@ -0,0 +1,15 @@
+package com.reactiverates.auth.domain.exception;
+
+/**
+ * users-service недоступен, не ответил в срок или отклонен circuit breaker'ом.
+ */
+public class UsersServiceException extends RuntimeException {
+
+    public UsersServiceException(String message) {
+        super(message);
+    }
+
+    public UsersServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,19 @@
+package com.reactiverates.auth.domain.model;
+
+/**
+ * Результат проверки логина и пароля в users-service.
+ * {@code user} заполнен только для {@link Status#VALID} и не содержит хеша пароля.
+ */
+public record CredentialsVerification(Status status, UserDto user) {
+
+    public enum Status {
+        VALID,
+        /** Неверный пароль или неизвестный пользователь — не различаются намеренно */
+        INVALID,
+        DISABLED
+    }
+
+    public boolean isValid() {
+        return status == Status.VALID;
+    }
+}
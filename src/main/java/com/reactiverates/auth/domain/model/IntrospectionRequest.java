@@ -0,0 +1,18 @@
+package com.reactiverates.auth.domain.model;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "Запрос на проверку пакета токенов")
+public record IntrospectionRequest(
+    @Schema(description = "Access токены; результаты возвращаются в том же порядке")
+    @NotEmpty(message = "Список токенов не может быть пустым")
+    @Size(max = IntrospectionRequest.MAX_TOKENS, message = "Не более " + IntrospectionRequest.MAX_TOKENS + " токенов за запрос")
+    List<String> tokens
+) {
+
+    public static final int MAX_TOKENS = 1000;
+}
@@ -0,0 +1,14 @@
+package com.reactiverates.auth.domain.model;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Результаты проверки пакета токенов")
+public record IntrospectionResponse(
+    @Schema(description = "Результаты в порядке токенов запроса")
+    List<TokenIntrospection> results,
+
+    @Schema(description = "Время обработки пакета в микросекундах", example = "850")
+    long elapsedMicros
+) { }
@@ -0,0 +1,7 @@
+package com.reactiverates.auth.domain.model;
+
+/**
+ * Опубликованные открытые ключи проверки JWT: готовый JSON документа JWKS и его ETag.
+ */
+public record JwkSet(String json, String etag) {
+}
@@ -2,6 +2,7 @@ package com.reactiverates.auth.domain.model;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 @Data
@@ -14,4 +15,8 @@ public class LoginRequest {
     @NotBlank(message = "Password is required")
     @Schema(description = "Пароль пользователя", example = "password123")
     private String password;
+
+    @Size(max = 100, message = "Device name must not exceed 100 characters")
+    @Schema(description = "Имя устройства для списка сессий (необязательно)", example = "Pixel 8")
+    private String deviceName;
 }
@@ -0,0 +1,35 @@
+package com.reactiverates.auth.domain.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Проверенный JWT: подпись валидирована один раз, claims разобраны в поля.
+ * {@code id} — claim {@code jti} access токена, {@code tokenId} — идентификатор сессии refresh токена,
+ * {@code sessionId} — claim {@code sid} access токена: первичный ключ сессии, выдавшей токен.
+ */
+public record ParsedToken(
+    String type,
+    String subject,
+    String id,
+    String tokenId,
+    String sessionId,
+    List<String> roles,
+    Instant expiration
+) {
+
+    public static final String ACCESS_TYPE = "access";
+    public static final String REFRESH_TYPE = "refresh";
+
+    public boolean isAccessToken() {
+        return ACCESS_TYPE.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return REFRESH_TYPE.equals(type);
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.isBefore(Instant.now());
+    }
+}
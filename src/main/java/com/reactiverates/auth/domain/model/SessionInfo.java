@@ -0,0 +1,29 @@
+package com.reactiverates.auth.domain.model;
+
+import java.time.Instant;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Активная сессия пользователя")
+public record SessionInfo(
+    @Schema(description = "Идентификатор сессии", example = "42")
+    long id,
+
+    @Schema(description = "Имя устройства, переданное при входе", example = "Pixel 8")
+    String deviceName,
+
+    @Schema(description = "User-Agent клиента")
+    String userAgent,
+
+    @Schema(description = "IP адрес клиента при входе", example = "203.0.113.7")
+    String ipAddress,
+
+    @Schema(description = "Время входа")
+    Instant createdAt,
+
+    @Schema(description = "Время последнего обновления токена")
+    Instant lastUsedAt,
+
+    @Schema(description = "Срок действия refresh токена")
+    Instant expiresAt
+) { }
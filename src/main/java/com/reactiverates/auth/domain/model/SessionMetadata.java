@@ -0,0 +1,22 @@
+package com.reactiverates.auth.domain.model;
+
+/**
+ * Сведения об устройстве, с которого открыта сессия.
+ * Значения обрезаются до размеров колонок {@code refresh_tokens}.
+ */
+public record SessionMetadata(String deviceName, String userAgent, String ipAddress) {
+
+    public static final SessionMetadata UNKNOWN = new SessionMetadata(null, null, null);
+
+    public static SessionMetadata of(String deviceName, String userAgent, String ipAddress) {
+        return new SessionMetadata(truncate(deviceName, 100), truncate(userAgent, 512), truncate(ipAddress, 45));
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.strip();
+        return trimmed.length() > maxLength ? trimmed.substring(0, maxLength) : trimmed;
+    }
+}
@@ -0,0 +1,13 @@
+package com.reactiverates.auth.domain.model;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Страница активных сессий, от новых к старым")
+public record SessionPage(
+    List<SessionInfo> sessions,
+
+    @Schema(description = "Курсор следующей страницы; null, если страница последняя")
+    String nextCursor
+) { }
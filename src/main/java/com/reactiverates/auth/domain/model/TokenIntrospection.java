@@ -0,0 +1,42 @@
+package com.reactiverates.auth.domain.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Результат проверки одного токена. Как в RFC 7662, подробности возвращаются только для действующего токена.
+ */
+@Schema(description = "Результат проверки токена")
+public record TokenIntrospection(
+    @Schema(description = "Токен подписан известным ключом, не истек, не отозван и является access токеном")
+    boolean active,
+
+    @Schema(description = "Токен отозван до истечения")
+    boolean revoked,
+
+    @Schema(description = "Имя пользователя", example = "john_doe")
+    String subject,
+
+    @Schema(description = "Роли пользователя", example = "[\"ROLE_USER\"]")
+    List<String> roles,
+
+    @Schema(description = "Срок действия токена")
+    Instant expiresAt
+) {
+
+    private static final TokenIntrospection INACTIVE = new TokenIntrospection(false, false, null, null, null);
+    private static final TokenIntrospection REVOKED = new TokenIntrospection(false, true, null, null, null);
+
+    public static TokenIntrospection inactive() {
+        return INACTIVE;
+    }
+
+    public static TokenIntrospection of(ParsedToken token, boolean revoked) {
+        if (revoked) {
+            return REVOKED;
+        }
+        return new TokenIntrospection(true, false, token.subject(), token.roles(), token.expiration());
+    }
+}
@@ -0,0 +1,31 @@
+package com.reactiverates.auth.domain.service;
+
+import com.reactiverates.auth.domain.model.ParsedToken;
+
+/**
+ * Отзыв access токенов до истечения по claim {@code jti} или по сессии из claim {@code sid}.
+ */
+public interface AccessTokenRevocationService {
+
+    /**
+     * Отзывает токен до его {@code exp}. Токены без {@code jti} и уже истекшие не записываются.
+     *
+     * @return {@code true}, если токен отозван этим вызовом
+     */
+    boolean revoke(ParsedToken accessToken);
+
+    /**
+     * Отзывает все access токены сессии по claim {@code sid}, включая выданные при прошлых обновлениях.
+     * Запись живет один срок access токена: более поздних токенов сессии после ее удаления не бывает.
+     *
+     * @return {@code true}, если сессия отозвана этим вызовом
+     */
+    boolean revokeSession(long sessionId);
+
+    /**
+     * Проверяет проверенный access токен. Токены, которых точно нет в фильтре Блума,
+     * проверяются без обращения к хранилищу.
+     */
+    boolean isRevoked(ParsedToken accessToken);
+
+}
@@ -0,0 +1,30 @@
+package com.reactiverates.auth.domain.service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.reactiverates.auth.domain.model.CredentialsVerification;
+import com.reactiverates.auth.domain.model.UserDto;
+
+/**
+ * Асинхронный вариант {@link UsersService}: поиск пользователя не блокирует вызывающий поток,
+ * что позволяет совмещать его с другой работой запроса.
+ */
+public interface AsyncUsersService extends UsersService {
+
+    CompletableFuture<UserDto> createUserAsync(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber);
+
+    CompletableFuture<Optional<UserDto>> getUserByIdAsync(Long userId);
+
+    CompletableFuture<Optional<UserDto>> getUserByUsernameAsync(String username);
+
+    CompletableFuture<CredentialsVerification> verifyCredentialsAsync(String username, String rawPassword);
+
+    /**
+     * Заменяет хеш пароля пользователя, если он не изменился с момента загрузки {@code user}.
+     *
+     * @return true, если хеш обновлен
+     */
+    CompletableFuture<Boolean> updatePasswordHashAsync(UserDto user, String newPasswordHash);
+}
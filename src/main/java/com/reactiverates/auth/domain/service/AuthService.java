@@ -4,15 +4,30 @@ import com.reactiverates.auth.domain.model.AuthResponse;
 import com.reactiverates.auth.domain.model.LoginRequest;
 import com.reactiverates.auth.domain.model.LogoutResponse;
 import com.reactiverates.auth.domain.model.RegisterRequest;
+import com.reactiverates.auth.domain.model.SessionMetadata;
+import com.reactiverates.auth.domain.model.SessionPage;
 
 public interface AuthService {
 
-    AuthResponse register(RegisterRequest request);
+    AuthResponse register(RegisterRequest request, SessionMetadata metadata);
 
-    AuthResponse login(LoginRequest request);
+    AuthResponse login(LoginRequest request, SessionMetadata metadata);
 
     AuthResponse refreshToken(String refreshTokenJwt);
 
-    LogoutResponse logout(String refreshTokenJwt);
+    /**
+     * Завершает сессию, к которой относится refresh токен; остальные сессии пользователя сохраняются.
+     * Access токен того же пользователя, если передан, отзывается до истечения.
+     */
+    LogoutResponse logout(String refreshTokenJwt, String accessTokenJwt);
 
-}
\ No newline at end of file
+    SessionPage listSessions(String username, String cursor, Integer limit);
+
+    void revokeSession(String username, long sessionId);
+
+    /**
+     * Завершает все сессии пользователя и отзывает переданный access токен.
+     */
+    LogoutResponse revokeAllSessions(String username, String accessTokenJwt);
+
+}
@@ -0,0 +1,18 @@
+package com.reactiverates.auth.domain.service;
+
+import com.reactiverates.auth.domain.model.ParsedToken;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Реактивный вариант {@link AccessTokenRevocationService}.
+ */
+public interface ReactiveAccessTokenRevocationService {
+
+    Mono<Boolean> revoke(ParsedToken accessToken);
+
+    Mono<Boolean> revokeSession(long sessionId);
+
+    Mono<Boolean> isRevoked(ParsedToken accessToken);
+
+}
@@ -0,0 +1,28 @@
+package com.reactiverates.auth.domain.service;
+
+import com.reactiverates.auth.domain.model.AuthResponse;
+import com.reactiverates.auth.domain.model.LoginRequest;
+import com.reactiverates.auth.domain.model.LogoutResponse;
+import com.reactiverates.auth.domain.model.RegisterRequest;
+import com.reactiverates.auth.domain.model.SessionMetadata;
+import com.reactiverates.auth.domain.model.SessionPage;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveAuthService {
+
+    Mono<AuthResponse> register(RegisterRequest request, SessionMetadata metadata);
+
+    Mono<AuthResponse> login(LoginRequest request, SessionMetadata metadata);
+
+    Mono<AuthResponse> refreshToken(String refreshTokenJwt);
+
+    Mono<LogoutResponse> logout(String refreshTokenJwt, String accessTokenJwt);
+
+    Mono<SessionPage> listSessions(String username, String cursor, Integer limit);
+
+    Mono<Void> revokeSession(String username, long sessionId);
+
+    Mono<LogoutResponse> revokeAllSessions(String username, String accessTokenJwt);
+
+}
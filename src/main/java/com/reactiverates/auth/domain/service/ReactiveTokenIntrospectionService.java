@@ -0,0 +1,16 @@
+package com.reactiverates.auth.domain.service;
+
+import java.util.List;
+
+import com.reactiverates.auth.domain.model.IntrospectionResponse;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Реактивный вариант {@link TokenIntrospectionService}.
+ */
+public interface ReactiveTokenIntrospectionService {
+
+    Mono<IntrospectionResponse> introspect(List<String> tokens);
+
+}
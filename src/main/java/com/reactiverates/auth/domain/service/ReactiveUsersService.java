@@ -0,0 +1,21 @@
+package com.reactiverates.auth.domain.service;
+
+import com.reactiverates.auth.domain.model.UserDto;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUsersService {
+
+    Mono<UserDto> createUser(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber);
+
+    /**
+     * @return пользователь или пустой Mono, если пользователь не найден
+     */
+    Mono<UserDto> getUserById(Long userId);
+
+    /**
+     * @return пользователь или пустой Mono, если пользователь не найден
+     */
+    Mono<UserDto> getUserByUsername(String username);
+}
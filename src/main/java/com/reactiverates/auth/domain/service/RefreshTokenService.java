@@ -1,13 +1,26 @@
 package com.reactiverates.auth.domain.service;
 
+import java.util.List;
 import java.util.Optional;
 
+import com.reactiverates.auth.domain.model.SessionMetadata;
+import com.reactiverates.auth.domain.model.SessionPage;
 import com.reactiverates.auth.domain.model.UserDto;
 import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
 
 public interface RefreshTokenService {
 
-    RefreshToken createRefreshToken(UserDto userDto);
+    /**
+     * Открывает новую сессию пользователя. Сессии сверх лимита на пользователя удаляются, начиная со старых.
+     */
+    RefreshToken createRefreshToken(UserDto userDto, SessionMetadata metadata);
+
+    /**
+     * Заменяет токен сессии новым, сохраняя идентификатор сессии.
+     *
+     * @throws com.reactiverates.auth.domain.exception.TokenException если токен уже заменен параллельным запросом
+     */
+    RefreshToken rotate(RefreshToken token);
 
     String generateRefreshTokenJwt(UserDto userDto, String tokenId);
 
@@ -15,8 +28,29 @@ public interface RefreshTokenService {
 
     RefreshToken verifyExpiration(RefreshToken token);
 
+    SessionPage listSessions(UserDto userDto, String cursor, int limit);
+
+    /**
+     * Удаляет одну сессию пользователя по первичному ключу.
+     *
+     * @return {@code false}, если сессии нет или она принадлежит другому пользователю
+     */
+    boolean deleteSession(UserDto userDto, long sessionId);
+
     boolean deleteByUser(UserDto userDto);
 
-    void deleteExpiredTokens();
+    /**
+     * Первичные ключи всех сессий пользователя: по ним отзываются access токены при выходе отовсюду.
+     */
+    List<Long> findSessionIds(UserDto userDto);
+
+    /**
+     * Удаляет не более {@code limit} истекших токенов.
+     *
+     * @return число удаленных токенов
+     */
+    int deleteExpiredTokens(int limit);
+
+    long countExpiredTokens();
 
-}
\ No newline at end of file
+}
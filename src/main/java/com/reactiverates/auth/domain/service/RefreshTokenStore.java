@@ -0,0 +1,50 @@
+package com.reactiverates.auth.domain.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import com.reactiverates.auth.domain.model.SessionCursor;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+
+/**
+ * Хранилище refresh токенов (сессий) для сервлетного профиля.
+ * Реализация выбирается настройкой {@code refresh-tokens.store}: {@code jpa} (PostgreSQL, по умолчанию)
+ * или {@code embedded} (журнал в отображаемых в память файлах, без базы данных).
+ * Токены адресуются ключом хранения {@link RefreshToken#getTokenHash()}, а не самим идентификатором.
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Сохраняет новую сессию, присваивая ей идентификатор, и удаляет сессии пользователя
+     * сверх {@code maxSessionsPerUser} самых новых.
+     */
+    RefreshToken insert(RefreshToken token, int maxSessionsPerUser);
+
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    Optional<RefreshToken> findById(long id);
+
+    /**
+     * Заменяет ключ токена сессии, только если текущий ключ равен {@code oldHash}.
+     *
+     * @return {@code false}, если сессии нет или токен уже заменен
+     */
+    boolean rotate(long id, byte[] oldHash, byte[] newHash, Instant expiryDate, Instant lastUsedAt);
+
+    /**
+     * Сессии пользователя от новых к старым, строго после курсора {@code after} (или с начала, если он {@code null}).
+     */
+    List<RefreshToken> findSessions(Long userId, SessionCursor after, int limit);
+
+    boolean deleteSession(long id, Long userId);
+
+    int deleteByUserId(Long userId);
+
+    /**
+     * Удаляет не более {@code limit} токенов, истекших к {@code now}.
+     */
+    int deleteExpired(Instant now, int limit);
+
+    long countExpired(Instant now);
+}
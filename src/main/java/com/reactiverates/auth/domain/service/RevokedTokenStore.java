@@ -0,0 +1,28 @@
+package com.reactiverates.auth.domain.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.reactiverates.auth.infrastructure.persistance.entity.RevokedAccessToken;
+
+/**
+ * Хранилище отозванных access токенов для сервлетного профиля.
+ * Реализация следует {@code refresh-tokens.store}: {@code jpa} — таблица {@code revoked_access_tokens},
+ * {@code embedded} — память процесса. Токены адресуются ключом хранения {@code jti}.
+ */
+public interface RevokedTokenStore {
+
+    /**
+     * @return {@code false}, если токен уже был отозван
+     */
+    boolean revoke(byte[] tokenHash, Instant expiresAt, Instant revokedAt);
+
+    boolean isRevoked(byte[] tokenHash, Instant now);
+
+    /**
+     * Еще не истекшие отзывы, сделанные начиная с {@code revokedSince}, — в том числе другими узлами.
+     */
+    List<RevokedAccessToken> findRevokedSince(Instant revokedSince, Instant now);
+
+    int deleteExpired(Instant now, int limit);
+}
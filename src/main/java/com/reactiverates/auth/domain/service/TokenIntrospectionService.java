@@ -0,0 +1,14 @@
+package com.reactiverates.auth.domain.service;
+
+import java.util.List;
+
+import com.reactiverates.auth.domain.model.IntrospectionResponse;
+
+/**
+ * Пакетная проверка access токенов для API gateway и сервисов Rates.
+ */
+public interface TokenIntrospectionService {
+
+    IntrospectionResponse introspect(List<String> tokens);
+
+}
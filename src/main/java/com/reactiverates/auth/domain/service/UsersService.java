@@ -5,6 +5,7 @@ import java.util.Optional;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import com.reactiverates.auth.domain.model.CredentialsVerification;
 import com.reactiverates.auth.domain.model.UserDto;
 
 public interface UsersService {
@@ -16,7 +17,17 @@ public interface UsersService {
 
     Optional<UserDto> getUserByUsername(String username);
 
-    UserDetails loadUserByUsername(String username) throws UsernameNotFoundException;
-
-    boolean authenticateUser(String username, String rawPassword);
+    default UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDto userDto = getUserByUsername(username)
+            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        if (!userDto.isActive()) {
+            throw new UsernameNotFoundException("User account is disabled: " + username);
+        }
+        return userDto;
+    }
+
+    /**
+     * Проверяет пароль на стороне users-service, хеш пароля не передается.
+     */
+    CredentialsVerification verifyCredentials(String username, String rawPassword);
 }
\ No newline at end of file
@@ -0,0 +1,261 @@
+package com.reactiverates.auth.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.reactiverates.auth.domain.exception.UsersServiceException;
+import com.reactiverates.auth.domain.model.CredentialsVerification;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+import com.reactiverates.auth.domain.service.UsersService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Кэширующий декоратор {@link UsersService}.
+ * Размер ограничен (вытеснение W-TinyLFU), найденные и ненайденные пользователи живут разное время,
+ * статистика попаданий/промахов/вытеснений публикуется в Micrometer.
+ * Если users-service недоступен, отдается последняя известная запись пользователя
+ * из отдельного устаревающего кэша (не старше {@code staleTtl}).
+ * <p>
+ * Загрузка запоминает номер последней записи и кладет результат в кэш, только если записей с тех пор
+ * не было: иначе поиск, начатый до регистрации, мог бы закэшировать "не найден" уже после нее.
+ */
+@Slf4j
+public class CachingUsersService implements AsyncUsersService {
+
+    private final AsyncUsersService delegate;
+    private final Cache<String, Optional<UserDto>> byUsername;
+    private final Cache<Long, Optional<UserDto>> byId;
+    private final Cache<String, UserDto> staleByUsername;
+    private final Cache<Long, UserDto> staleById;
+    private final AtomicLong staleServed = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    public CachingUsersService(AsyncUsersService delegate, long maximumSize, Duration ttl, Duration negativeTtl,
+            Duration staleTtl) {
+        this(delegate, maximumSize, ttl, negativeTtl, staleTtl, Ticker.systemTicker());
+    }
+
+    CachingUsersService(AsyncUsersService delegate, long maximumSize, Duration ttl, Duration negativeTtl,
+            Duration staleTtl, Ticker ticker) {
+        this.delegate = delegate;
+        this.byUsername = newCache(maximumSize, ttl, negativeTtl, ticker);
+        this.byId = newCache(maximumSize, ttl, negativeTtl, ticker);
+        this.staleByUsername = newStaleCache(maximumSize, staleTtl, ticker);
+        this.staleById = newStaleCache(maximumSize, staleTtl, ticker);
+    }
+
+    private static <K> Cache<K, Optional<UserDto>> newCache(long maximumSize, Duration ttl, Duration negativeTtl,
+            Ticker ticker) {
+        return Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new PresenceAwareExpiry<K>(ttl, negativeTtl))
+            .ticker(ticker)
+            .recordStats()
+            .build();
+    }
+
+    private static <K> Cache<K, UserDto> newStaleCache(long maximumSize, Duration staleTtl, Ticker ticker) {
+        return Caffeine.newBuilder()
+            .maximumSize(staleTtl.isZero() ? 0 : maximumSize)
+            .expireAfterWrite(staleTtl)
+            .ticker(ticker)
+            .build();
+    }
+
+    public void bindMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byUsername, "users.by-username");
+        CaffeineCacheMetrics.monitor(registry, byId, "users.by-id");
+        FunctionCounter.builder("users.cache.stale-served", staleServed, AtomicLong::get)
+            .description("Lookups answered from the stale cache while users-service was unavailable")
+            .register(registry);
+    }
+
+    @Override
+    public UserDto createUser(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber) {
+        // Сбрасываем отрицательный результат, закэшированный проверкой при регистрации
+        invalidate(username, null);
+        UserDto created = delegate.createUser(username, email, password, firstName, lastName, phoneNumber);
+        invalidate(username, created.getId());
+        return created;
+    }
+
+    @Override
+    public Optional<UserDto> getUserById(Long userId) {
+        Optional<UserDto> cached = byId.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = writes.get();
+        try {
+            Optional<UserDto> loaded = delegate.getUserById(userId);
+            rememberById(userId, loaded, version);
+            return loaded;
+        } catch (UsersServiceException e) {
+            return staleOrThrow(staleById, userId, e);
+        }
+    }
+
+    @Override
+    public Optional<UserDto> getUserByUsername(String username) {
+        Optional<UserDto> cached = byUsername.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        long version = writes.get();
+        try {
+            Optional<UserDto> loaded = delegate.getUserByUsername(username);
+            rememberByUsername(username, loaded, version);
+            return loaded;
+        } catch (UsersServiceException e) {
+            return staleOrThrow(staleByUsername, username, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<UserDto> createUserAsync(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber) {
+        invalidate(username, null);
+        return delegate.createUserAsync(username, email, password, firstName, lastName, phoneNumber)
+            .thenApply(created -> {
+                invalidate(username, created.getId());
+                return created;
+            });
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserDto>> getUserByIdAsync(Long userId) {
+        Optional<UserDto> cached = byId.getIfPresent(userId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long version = writes.get();
+        return delegate.getUserByIdAsync(userId).handle((loaded, error) -> {
+            if (error == null) {
+                rememberById(userId, loaded, version);
+                return loaded;
+            }
+            return staleOrThrow(staleById, userId, unwrap(error));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserDto>> getUserByUsernameAsync(String username) {
+        Optional<UserDto> cached = byUsername.getIfPresent(username);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long version = writes.get();
+        return delegate.getUserByUsernameAsync(username).handle((loaded, error) -> {
+            if (error == null) {
+                rememberByUsername(username, loaded, version);
+                return loaded;
+            }
+            return staleOrThrow(staleByUsername, username, unwrap(error));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updatePasswordHashAsync(UserDto user, String newPasswordHash) {
+        return delegate.updatePasswordHashAsync(user, newPasswordHash)
+            .whenComplete((updated, error) -> invalidate(user.getUsername(), user.getId()));
+    }
+
+    @Override
+    public CredentialsVerification verifyCredentials(String username, String rawPassword) {
+        // Проверка пароля не кэшируется
+        return delegate.verifyCredentials(username, rawPassword);
+    }
+
+    @Override
+    public CompletableFuture<CredentialsVerification> verifyCredentialsAsync(String username, String rawPassword) {
+        return delegate.verifyCredentialsAsync(username, rawPassword);
+    }
+
+    private void invalidate(String username, Long userId) {
+        // Сначала номер записи: загрузка, завершившаяся после этой строки, свой результат уже не положит
+        writes.incrementAndGet();
+        byUsername.invalidate(username);
+        if (userId != null) {
+            byId.invalidate(userId);
+        }
+    }
+
+    private void rememberByUsername(String username, Optional<UserDto> loaded, long version) {
+        putIfUnchanged(byUsername, username, loaded, version);
+        loaded.ifPresent(user -> {
+            putIfUnchanged(byId, user.getId(), loaded, version);
+            rememberStale(user);
+        });
+    }
+
+    private void rememberById(Long userId, Optional<UserDto> loaded, long version) {
+        putIfUnchanged(byId, userId, loaded, version);
+        loaded.ifPresent(user -> {
+            putIfUnchanged(byUsername, user.getUsername(), loaded, version);
+            rememberStale(user);
+        });
+    }
+
+    /**
+     * Проверка номера и запись выполняются под блокировкой ключа, поэтому {@code invalidate}
+     * того же ключа не может проскочить между ними.
+     */
+    private <K> void putIfUnchanged(Cache<K, Optional<UserDto>> cache, K key, Optional<UserDto> loaded,
+            long version) {
+        cache.asMap().compute(key, (k, current) -> writes.get() == version ? loaded : current);
+    }
+
+    private void rememberStale(UserDto user) {
+        staleByUsername.put(user.getUsername(), user);
+        staleById.put(user.getId(), user);
+    }
+
+    private <K> Optional<UserDto> staleOrThrow(Cache<K, UserDto> staleCache, K key, Throwable error) {
+        if (!(error instanceof UsersServiceException usersServiceException)) {
+            throw error instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(error);
+        }
+        UserDto stale = staleCache.getIfPresent(key);
+        if (stale == null) {
+            throw usersServiceException;
+        }
+        staleServed.incrementAndGet();
+        log.warn("Users service unavailable, serving stale cache entry for {}", key);
+        return Optional.of(stale);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private record PresenceAwareExpiry<K>(Duration ttl, Duration negativeTtl)
+            implements Expiry<K, Optional<UserDto>> {
+
+        @Override
+        public long expireAfterCreate(K key, Optional<UserDto> value, long currentTime) {
+            return (value.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, Optional<UserDto> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, Optional<UserDto> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.reactiverates.auth.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.reactiverates.auth.infrastructure.security.RotatingBloomFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Фильтр Блума отозванных access токенов. Окно фильтра равно сроку жизни access токена,
+ * поэтому одновременно живут не больше двух окон.
+ */
+@Configuration
+public class AccessTokenRevocationConfig {
+
+    @Value("${jwt.access-token.expiration:900000}")
+    private long accessTokenExpiration;
+
+    @Value("${jwt.revocation.bloom.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    @Value("${jwt.revocation.bloom.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Bean
+    public RotatingBloomFilter revokedAccessTokenFilter(MeterRegistry meterRegistry) {
+        RotatingBloomFilter filter = new RotatingBloomFilter(
+            Duration.ofMillis(accessTokenExpiration), expectedInsertions, falsePositiveRate);
+        Gauge.builder("jwt.revocation.bloom.bytes", filter, f -> f.windowCount() * f.windowBytes())
+            .description("Memory held by the revoked access token Bloom filter")
+            .register(meterRegistry);
+        return filter;
+    }
+}
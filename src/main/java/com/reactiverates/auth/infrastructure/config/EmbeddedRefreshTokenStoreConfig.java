@@ -0,0 +1,56 @@
+package com.reactiverates.auth.infrastructure.config;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.unit.DataSize;
+
+import com.reactiverates.auth.infrastructure.persistance.embedded.MappedRefreshTokenStore;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Встроенное хранилище refresh токенов ({@code refresh-tokens.store: embedded}) для установок
+ * из одного узла и тестов без PostgreSQL.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "refresh-tokens.store", havingValue = "embedded")
+public class EmbeddedRefreshTokenStoreConfig {
+
+    @Value("${refresh-tokens.embedded.directory:./data/refresh-tokens}")
+    private Path directory;
+
+    @Value("${refresh-tokens.embedded.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${refresh-tokens.embedded.initial-capacity:65536}")
+    private int initialCapacity;
+
+    @Value("${refresh-tokens.embedded.compaction-threshold:0.5}")
+    private double compactionThreshold;
+
+    @Value("${refresh-tokens.embedded.sync-on-write:false}")
+    private boolean syncOnWrite;
+
+    @Bean(destroyMethod = "close")
+    public MappedRefreshTokenStore refreshTokenStore(MeterRegistry meterRegistry) {
+        MappedRefreshTokenStore store = new MappedRefreshTokenStore(
+            directory, Math.toIntExact(segmentSize.toBytes()), initialCapacity, compactionThreshold, syncOnWrite);
+        Gauge.builder("refresh-tokens.embedded.sessions", store, MappedRefreshTokenStore::size)
+            .description("Live sessions in the embedded refresh token store")
+            .register(meterRegistry);
+        Gauge.builder("refresh-tokens.embedded.log.bytes", store, MappedRefreshTokenStore::totalBytes)
+            .description("Bytes written to the embedded refresh token log")
+            .register(meterRegistry);
+        Gauge.builder("refresh-tokens.embedded.log.obsolete-bytes", store, MappedRefreshTokenStore::deadBytes)
+            .description("Log bytes held by superseded or deleted records, reclaimed by compaction")
+            .register(meterRegistry);
+        return store;
+    }
+}
@@ -1,15 +1,154 @@
 package com.reactiverates.auth.infrastructure.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.reactiverates.auth.infrastructure.grpc.DiscoveryNameResolverProvider;
+import com.reactiverates.auth.infrastructure.grpc.PooledManagedChannel;
 import com.reactiverates.users.grpc.UsersServiceGrpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.NameResolverRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.grpc.client.ChannelBuilderOptions;
 import org.springframework.grpc.client.GrpcChannelFactory;
 
+@Slf4j
 @Configuration
 public class GrpcClientConfiguration {
 
+    @Value("${users.grpc.discovery.port-metadata-key:gRPC_port}")
+    private String discoveryPortMetadataKey;
+
+    @Value("${users.grpc.pool-size:1}")
+    private int poolSize;
+
+    @Value("${users.grpc.warm-up.enabled:true}")
+    private boolean warmUpEnabled;
+
+    @Value("${users.grpc.warm-up.timeout:3s}")
+    private Duration warmUpTimeout;
+
+    /**
+     * Политика повторов для чтений GetUserById/GetUserByUsername: none, retry или hedge.
+     * Hedge отправляет дублирующий запрос, если первый не ответил за {@code hedging-delay}.
+     */
+    @Value("${users.grpc.read-policy.type:none}")
+    private String readPolicy;
+
+    @Value("${users.grpc.read-policy.max-attempts:3}")
+    private int readMaxAttempts;
+
+    @Value("${users.grpc.read-policy.hedging-delay:50ms}")
+    private Duration readHedgingDelay;
+
+    @Value("${users.grpc.read-policy.initial-backoff:20ms}")
+    private Duration readInitialBackoff;
+
+    @Value("${users.grpc.read-policy.max-backoff:200ms}")
+    private Duration readMaxBackoff;
+
+    /**
+     * Регистрирует схему {@code discovery:///<service-id>} для адресов каналов.
+     */
     @Bean
-    public UsersServiceGrpc.UsersServiceBlockingStub usersServiceStub(GrpcChannelFactory channelFactory) {
-        return UsersServiceGrpc.newBlockingStub(channelFactory.createChannel("users-service"));
+    public DiscoveryNameResolverProvider discoveryNameResolverProvider(DiscoveryClient discoveryClient) {
+        DiscoveryNameResolverProvider provider =
+            new DiscoveryNameResolverProvider(discoveryClient, discoveryPortMetadataKey);
+        NameResolverRegistry.getDefaultRegistry().register(provider);
+        return provider;
+    }
+
+    @Bean
+    @DependsOn("discoveryNameResolverProvider")
+    public ManagedChannel usersServiceChannel(GrpcChannelFactory channelFactory, Environment environment) {
+        ChannelBuilderOptions options = ChannelBuilderOptions.defaults();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Колбэки future stub выполняются на виртуальных потоках вместо общего кэширующего пула
+            VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("grpc-users-service-");
+            options = options.withCustomizer((authority, builder) -> builder.executor(executor));
+        }
+        Map<String, ?> serviceConfig = readServiceConfig();
+        if (serviceConfig != null) {
+            options = options.withCustomizer((authority, builder) -> builder
+                .defaultServiceConfig(serviceConfig)
+                .enableRetry());
+        }
+        ChannelBuilderOptions channelOptions = options;
+        PooledManagedChannel channel = new PooledManagedChannel(IntStream.range(0, Math.max(poolSize, 1))
+            .mapToObj(i -> channelFactory.createChannel("users-service", channelOptions))
+            .toList());
+        if (warmUpEnabled) {
+            warmUp(channel);
+        }
+        return channel;
+    }
+
+    @Bean
+    public UsersServiceGrpc.UsersServiceBlockingStub usersServiceStub(ManagedChannel usersServiceChannel) {
+        return UsersServiceGrpc.newBlockingStub(usersServiceChannel);
+    }
+
+    @Bean
+    public UsersServiceGrpc.UsersServiceFutureStub usersServiceFutureStub(ManagedChannel usersServiceChannel) {
+        return UsersServiceGrpc.newFutureStub(usersServiceChannel);
+    }
+
+    private void warmUp(PooledManagedChannel channel) {
+        try {
+            if (channel.warmUp(warmUpTimeout)) {
+                log.info("Users service channel is ready");
+            } else {
+                log.warn("Users service channel is not ready after {}, continuing startup", warmUpTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, ?> readServiceConfig() {
+        Map<String, Object> policy;
+        switch (readPolicy) {
+            case "none":
+                return null;
+            case "retry":
+                policy = Map.of("retryPolicy", Map.of(
+                    "maxAttempts", (double) readMaxAttempts,
+                    "initialBackoff", seconds(readInitialBackoff),
+                    "maxBackoff", seconds(readMaxBackoff),
+                    "backoffMultiplier", 2.0,
+                    "retryableStatusCodes", List.of("UNAVAILABLE")));
+                break;
+            case "hedge":
+                // Только для идемпотентных чтений; CreateUser никогда не дублируется
+                policy = Map.of("hedgingPolicy", Map.of(
+                    "maxAttempts", (double) readMaxAttempts,
+                    "hedgingDelay", seconds(readHedgingDelay),
+                    "nonFatalStatusCodes", List.of("UNAVAILABLE")));
+                break;
+            default:
+                throw new IllegalStateException("Unknown users.grpc.read-policy.type: " + readPolicy);
+        }
+        Map<String, Object> methodConfig = new HashMap<>(policy);
+        methodConfig.put("name", List.of(
+            Map.of("service", UsersServiceGrpc.SERVICE_NAME, "method", "GetUserById"),
+            Map.of("service", UsersServiceGrpc.SERVICE_NAME, "method", "GetUserByUsername")));
+        return Map.of("methodConfig", List.of(methodConfig));
+    }
+
+    private static String seconds(Duration duration) {
+        return duration.toMillis() / 1000.0 + "s";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package com.reactiverates.auth.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.reactiverates.auth.api.grpc.TokenValidationGrpcService;
+import com.reactiverates.auth.application.service.JwtService;
+import com.reactiverates.auth.domain.service.AccessTokenRevocationService;
+import com.reactiverates.auth.domain.service.ReactiveAccessTokenRevocationService;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * gRPC сервер auth-service: spring-grpc поднимает его на {@code spring.grpc.server.port}
+ * и регистрирует найденные сервисы.
+ */
+@Configuration
+public class GrpcServerConfiguration {
+
+    @Value("${jwt.grpc.message-deadline:200ms}")
+    private Duration messageDeadline;
+
+    @Value("${jwt.grpc.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Bean
+    @Profile("!reactive")
+    public TokenValidationGrpcService tokenValidationGrpcService(JwtService jwtService,
+            AccessTokenRevocationService accessTokenRevocationService) {
+        // Обращение к хранилищу блокирующее: выносится из потока gRPC, чтобы на него действовал срок сообщения
+        return new TokenValidationGrpcService(jwtService,
+            token -> Mono.fromCallable(() -> accessTokenRevocationService.isRevoked(token))
+                .subscribeOn(Schedulers.boundedElastic()),
+            messageDeadline, maxInFlight);
+    }
+
+    @Bean
+    @Profile("reactive")
+    public TokenValidationGrpcService reactiveTokenValidationGrpcService(JwtService jwtService,
+            ReactiveAccessTokenRevocationService accessTokenRevocationService) {
+        return new TokenValidationGrpcService(jwtService, accessTokenRevocationService::isRevoked,
+            messageDeadline, maxInFlight);
+    }
+}
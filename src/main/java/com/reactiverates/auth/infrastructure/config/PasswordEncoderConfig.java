@@ -1,15 +1,68 @@
 package com.reactiverates.auth.infrastructure.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.reactiverates.auth.infrastructure.security.BoundedPasswordEncoder;
+import com.reactiverates.auth.infrastructure.security.PasswordHashCalibrator;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class PasswordEncoderConfig {
-    
+
+    /**
+     * Размер пула хеширования; по умолчанию число ядер, чтобы BCrypt не вытеснял остальные запросы.
+     */
+    @Value("${password-encoder.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int poolSize;
+
+    @Value("${password-encoder.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${password-encoder.queue-timeout:200ms}")
+    private Duration queueTimeout;
+
+    @Value("${password-encoder.retry-after:1s}")
+    private Duration retryAfter;
+
+    @Value("${password-encoder.strength:10}")
+    private int strength;
+
+    @Value("${password-encoder.calibration.enabled:true}")
+    private boolean calibrationEnabled;
+
+    @Value("${password-encoder.calibration.target-time:100ms}")
+    private Duration calibrationTargetTime;
+
+    @Value("${password-encoder.calibration.min-strength:10}")
+    private int calibrationMinStrength;
+
+    @Value("${password-encoder.calibration.max-strength:14}")
+    private int calibrationMaxStrength;
+
+    /**
+     * Хеши в формате users-service ({@code $2a$...} без префикса) с откалиброванной стоимостью.
+     * {@link PasswordEncoder#upgradeEncoding} помечает для перехеширования только хеши с меньшей стоимостью.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int bcryptStrength = calibrationEnabled
+            ? PasswordHashCalibrator.calibrate(calibrationTargetTime, calibrationMinStrength, calibrationMaxStrength)
+            : strength;
+        Gauge.builder("password.encoder.strength", () -> bcryptStrength)
+            .description("BCrypt work factor used for new hashes")
+            .register(meterRegistry);
+
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(bcryptStrength), poolSize, queueCapacity, queueTimeout, retryAfter);
+        passwordEncoder.bindMetrics(meterRegistry);
+        return passwordEncoder;
     }
 }
@@ -0,0 +1,138 @@
+package com.reactiverates.auth.infrastructure.config;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.server.WebFilter;
+
+import com.reactiverates.auth.application.service.JwtService;
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+import com.reactiverates.auth.domain.service.ReactiveAccessTokenRevocationService;
+import com.reactiverates.auth.infrastructure.security.UsersServiceAuthenticationProvider;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Цепочка фильтров безопасности для профиля {@code reactive}.
+ * Access токены проверяются по claims; в список отозванных запрос идет, только если токен есть в фильтре Блума.
+ * При {@code jwt.authentication.user-lookup=true} пользователь загружается через {@link ReactiveUserDetailsService},
+ * как в сервлетном фильтре.
+ */
+@Configuration
+@Profile("reactive")
+@EnableWebFluxSecurity
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+    private final JwtService jwtService;
+    private final ReactiveAccessTokenRevocationService accessTokenRevocationService;
+    private final ReactiveUserDetailsService userDetailsService;
+
+    @Value("${users.credentials.verification:local}")
+    private String credentialsVerification;
+
+    @Value("${jwt.authentication.user-lookup:false}")
+    private boolean userLookup;
+
+    @Value("${jwt.introspection.required-authority:ADMIN}")
+    private String introspectionAuthority;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange(exchange -> exchange
+                .pathMatchers("/api/auth/sessions/**").authenticated()
+                // Как в сервлетном профиле: проверять токены может только сервис с этой ролью
+                .pathMatchers(HttpMethod.POST, "/api/auth/introspect").hasAuthority(introspectionAuthority)
+                .pathMatchers("/api/auth/**").permitAll()
+                .pathMatchers("/api/public/**").permitAll()
+                .pathMatchers("/.well-known/**").permitAll()
+                .pathMatchers(
+                    "/swagger-ui/**",
+                    "/swagger-ui.html",
+                    "/api-docs/**",
+                    "/v3/api-docs/**",
+                    "/webjars/**",
+                    "/actuator/**"
+                ).permitAll()
+                .anyExchange().authenticated()
+            )
+            .addFilterAt(jwtAuthWebFilter(), SecurityWebFiltersOrder.AUTHENTICATION)
+            .build();
+    }
+
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(PasswordEncoder passwordEncoder,
+            UserDetailsPasswordService userDetailsPasswordService, AsyncUsersService usersService) {
+        if ("remote".equals(credentialsVerification)) {
+            UsersServiceAuthenticationProvider provider = new UsersServiceAuthenticationProvider(usersService);
+            return authentication -> Mono.fromFuture(() -> provider.authenticateAsync(authentication));
+        }
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+            new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        // Обновление хеша только запускает асинхронный вызов users-service и не блокирует
+        authenticationManager.setUserDetailsPasswordService((user, newPassword) ->
+            Mono.fromSupplier(() -> userDetailsPasswordService.updatePassword(user, newPassword)));
+        return authenticationManager;
+    }
+
+    private WebFilter jwtAuthWebFilter() {
+        return (exchange, chain) -> {
+            String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                return chain.filter(exchange);
+            }
+            return jwtService.tryParse(authHeader.substring(7))
+                .filter(ParsedToken::isAccessToken)
+                .filter(token -> token.subject() != null)
+                .map(token -> accessTokenRevocationService.isRevoked(token)
+                    .flatMap(revoked -> revoked ? Mono.<Authentication>empty() : authenticate(token))
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(authentication -> authentication
+                        .map(value -> chain.filter(exchange)
+                            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(value)))
+                        .orElseGet(() -> chain.filter(exchange))))
+                .orElseGet(() -> chain.filter(exchange));
+        };
+    }
+
+    /**
+     * Пустой результат — запрос остается неаутентифицированным: пользователь удален или отключен.
+     */
+    private Mono<Authentication> authenticate(ParsedToken token) {
+        if (!userLookup) {
+            return Mono.just(jwtService.toAuthentication(token));
+        }
+        return userDetailsService.findByUsername(token.subject())
+            .filter(UserDetails::isEnabled)
+            .<Authentication>map(user -> new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()))
+            .onErrorResume(UsernameNotFoundException.class, e -> Mono.empty());
+    }
+}
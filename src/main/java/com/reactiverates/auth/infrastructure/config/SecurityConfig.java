@@ -2,8 +2,11 @@ package com.reactiverates.auth.infrastructure.config;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -12,12 +15,18 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.reactiverates.auth.application.service.JwtService;
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.domain.service.AccessTokenRevocationService;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+import com.reactiverates.auth.infrastructure.security.UsersServiceAuthenticationProvider;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -26,20 +35,41 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 @Configuration
+@Profile("!reactive")
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final UserDetailsService userDetailsService;
     private final JwtService jwtService;
-    private final PasswordEncoderConfig passwordEncoderConfig;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final PasswordEncoder passwordEncoder;
+    private final AsyncUsersService usersService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+
+    /**
+     * local — auth-service по полученному хешу, remote — пароль проверяет users-service (VerifyCredentials;
+     * включается, когда users-service его реализует).
+     */
+    @Value("${users.credentials.verification:local}")
+    private String credentialsVerification;
+
+    /**
+     * Роль вызывающего сервиса для проверки токенов (RFC 7662, 2.1): без нее эндпоинт позволял бы
+     * перебирать чужие токены.
+     */
+    @Value("${jwt.introspection.required-authority:ADMIN}")
+    private String introspectionAuthority;
     
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/api/auth/sessions/**").authenticated()
+                .requestMatchers(HttpMethod.POST, "/api/auth/introspect").hasAuthority(introspectionAuthority)
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
+                .requestMatchers("/.well-known/**").permitAll()
                 .requestMatchers(
                     "/swagger-ui/**", 
                     "/swagger-ui.html", 
@@ -69,8 +99,12 @@ public class SecurityConfig {
 
     @Bean
     public AuthenticationProvider authenticationProvider() {
+        if ("remote".equals(credentialsVerification)) {
+            return new UsersServiceAuthenticationProvider(usersService);
+        }
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoderConfig.passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
@@ -98,20 +132,18 @@ public class SecurityConfig {
                 }
                 
                 final String authHeader = request.getHeader("Authorization");
-                final String jwt;
-                final String username;
 
                 if (authHeader == null || !authHeader.startsWith("Bearer ")) {
                     filterChain.doFilter(request, response);
                     return;
                 }
 
-                jwt = authHeader.substring(7);
-                username = jwtService.extractUsername(jwt);
-
-                if (username != null && jwtService.isAccessToken(jwt)) {
-                    jwtService.setAuthentication(username);
-                }
+                // Одна проверка подписи на запрос; список отозванных — после фильтра Блума в памяти
+                jwtService.tryParse(authHeader.substring(7))
+                    .filter(ParsedToken::isAccessToken)
+                    .filter(token -> token.subject() != null)
+                    .filter(token -> !accessTokenRevocationService.isRevoked(token))
+                    .ifPresent(jwtService::setAuthentication);
 
                 filterChain.doFilter(request, response);
             }
@@ -0,0 +1,156 @@
+package com.reactiverates.auth.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.reactiverates.auth.domain.exception.UsersServiceException;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+import com.reactiverates.auth.domain.service.UsersService;
+import com.reactiverates.auth.infrastructure.cache.CachingUsersService;
+import com.reactiverates.auth.infrastructure.grpc.BatchingUsersGrpcClient;
+import com.reactiverates.auth.infrastructure.grpc.CircuitBreakerUsersService;
+import com.reactiverates.auth.infrastructure.grpc.SingleFlightUsersService;
+import com.reactiverates.auth.infrastructure.grpc.UsersGrpcClient;
+import com.reactiverates.users.grpc.UsersServiceGrpc;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Собирает цепочку декораторов вокруг gRPC клиента users-service.
+ * Остальной код получает {@link UsersService} и {@link AsyncUsersService} через этот бин.
+ */
+@Slf4j
+@Configuration
+public class UsersServiceConfiguration {
+
+    @Value("${users.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${users.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${users.cache.ttl:30s}")
+    private Duration cacheTtl;
+
+    @Value("${users.cache.negative-ttl:5s}")
+    private Duration cacheNegativeTtl;
+
+    @Value("${users.cache.stale-ttl:10m}")
+    private Duration cacheStaleTtl;
+
+    @Value("${users.circuit-breaker.enabled:true}")
+    private boolean circuitBreakerEnabled;
+
+    @Value("${users.circuit-breaker.failure-rate-threshold:50}")
+    private float circuitBreakerFailureRateThreshold;
+
+    @Value("${users.circuit-breaker.slow-call-duration-threshold:1s}")
+    private Duration circuitBreakerSlowCallDurationThreshold;
+
+    @Value("${users.circuit-breaker.sliding-window-size:50}")
+    private int circuitBreakerSlidingWindowSize;
+
+    @Value("${users.circuit-breaker.minimum-number-of-calls:20}")
+    private int circuitBreakerMinimumNumberOfCalls;
+
+    @Value("${users.circuit-breaker.wait-duration-in-open-state:10s}")
+    private Duration circuitBreakerWaitDurationInOpenState;
+
+    @Value("${users.circuit-breaker.permitted-calls-in-half-open-state:5}")
+    private int circuitBreakerPermittedCallsInHalfOpenState;
+
+    @Value("${users.single-flight.enabled:true}")
+    private boolean singleFlightEnabled;
+
+    @Value("${users.single-flight.timeout:5s}")
+    private Duration singleFlightTimeout;
+
+    @Value("${users.grpc.batching.window:2ms}")
+    private Duration batchingWindow;
+
+    @Value("${users.grpc.batching.max-batch-size:100}")
+    private int batchingMaxBatchSize;
+
+    @Value("${users.grpc.batching.timeout:2s}")
+    private Duration batchingTimeout;
+
+    @Bean
+    @ConditionalOnProperty(name = "users.grpc.batching.enabled", havingValue = "true")
+    public BatchingUsersGrpcClient batchingUsersGrpcClient(UsersServiceGrpc.UsersServiceFutureStub usersServiceFutureStub,
+            UsersGrpcClient usersGrpcClient, MeterRegistry meterRegistry) {
+        BatchingUsersGrpcClient client = new BatchingUsersGrpcClient(
+            usersServiceFutureStub, usersGrpcClient, batchingWindow, batchingMaxBatchSize, batchingTimeout);
+        client.bindMetrics(meterRegistry);
+        return client;
+    }
+
+    @Bean
+    @Primary
+    public AsyncUsersService usersService(UsersGrpcClient usersGrpcClient,
+            ObjectProvider<BatchingUsersGrpcClient> batchingUsersGrpcClient, MeterRegistry meterRegistry) {
+        AsyncUsersService usersService = batchingUsersGrpcClient.getIfAvailable();
+        if (usersService == null) {
+            usersService = usersGrpcClient;
+        }
+
+        if (singleFlightEnabled) {
+            SingleFlightUsersService singleFlightUsersService =
+                new SingleFlightUsersService(usersService, singleFlightTimeout);
+            singleFlightUsersService.bindMetrics(meterRegistry);
+            usersService = singleFlightUsersService;
+        }
+
+        if (circuitBreakerEnabled) {
+            usersService = new CircuitBreakerUsersService(usersService, usersServiceCircuitBreaker(meterRegistry));
+        }
+
+        if (cacheEnabled) {
+            CachingUsersService cachingUsersService = new CachingUsersService(
+                usersService, cacheMaximumSize, cacheTtl, cacheNegativeTtl, cacheStaleTtl);
+            cachingUsersService.bindMetrics(meterRegistry);
+            usersService = cachingUsersService;
+        }
+
+        return usersService;
+    }
+
+    private CircuitBreaker usersServiceCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .failureRateThreshold(circuitBreakerFailureRateThreshold)
+            .slowCallRateThreshold(circuitBreakerFailureRateThreshold)
+            .slowCallDurationThreshold(circuitBreakerSlowCallDurationThreshold)
+            .slidingWindowSize(circuitBreakerSlidingWindowSize)
+            .minimumNumberOfCalls(circuitBreakerMinimumNumberOfCalls)
+            .waitDurationInOpenState(circuitBreakerWaitDurationInOpenState)
+            .permittedNumberOfCallsInHalfOpenState(circuitBreakerPermittedCallsInHalfOpenState)
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            // "Не найден" и ошибки валидации не говорят о здоровье users-service
+            .recordExceptions(UsersServiceException.class)
+            .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        CircuitBreaker circuitBreaker = registry.circuitBreaker("users-service");
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Users service circuit breaker: {}", event.getStateTransition());
+            Counter.builder("users.circuit-breaker.transitions")
+                .tag("from", event.getStateTransition().getFromState().name())
+                .tag("to", event.getStateTransition().getToState().name())
+                .register(meterRegistry)
+                .increment();
+        });
+        return circuitBreaker;
+    }
+}
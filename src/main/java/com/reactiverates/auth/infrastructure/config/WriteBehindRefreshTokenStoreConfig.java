@@ -0,0 +1,52 @@
+package com.reactiverates.auth.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reactiverates.auth.infrastructure.persistance.JpaRefreshTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.WriteBehindRefreshTokenStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Отложенная пакетная запись refresh токенов в PostgreSQL
+ * ({@code refresh-tokens.write-behind.enabled: true}), см. {@link WriteBehindRefreshTokenStore}.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnExpression("${refresh-tokens.write-behind.enabled:false} and '${refresh-tokens.store:jpa}' == 'jpa'")
+public class WriteBehindRefreshTokenStoreConfig {
+
+    @Value("${refresh-tokens.write-behind.flush-interval:50ms}")
+    private Duration flushInterval;
+
+    @Value("${refresh-tokens.write-behind.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${refresh-tokens.write-behind.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${refresh-tokens.write-behind.id-block-size:100}")
+    private int idBlockSize;
+
+    @Value("${refresh-tokens.write-behind.sync-deletes:true}")
+    private boolean syncDeletes;
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public WriteBehindRefreshTokenStore writeBehindRefreshTokenStore(JpaRefreshTokenStore jpaRefreshTokenStore,
+            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        return new WriteBehindRefreshTokenStore(jpaRefreshTokenStore, jdbcTemplate,
+            new TransactionTemplate(transactionManager), flushInterval, maxBatchSize, maxPending, idBlockSize,
+            syncDeletes, meterRegistry);
+    }
+}
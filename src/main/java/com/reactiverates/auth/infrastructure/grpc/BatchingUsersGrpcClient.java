@@ -0,0 +1,250 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.reactiverates.auth.domain.exception.UsersServiceException;
+import com.reactiverates.auth.domain.model.CredentialsVerification;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+import com.reactiverates.users.grpc.BatchGetUsersRequest;
+import com.reactiverates.users.grpc.BatchGetUsersResponse;
+import com.reactiverates.users.grpc.UserResponse;
+import com.reactiverates.users.grpc.UsersServiceGrpc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Клиент users-service, собирающий одиночные запросы пользователей в пакеты {@code BatchGetUsers}.
+ * Пакет отправляется по истечении окна {@code window} или при достижении {@code maxBatchSize}.
+ * Каждый вызывающий ждет свой результат не дольше {@code timeout} от момента вызова;
+ * дедлайн пакетного RPC равен самому раннему дедлайну среди его участников.
+ * Остальные операции делегируются обычному клиенту.
+ */
+@Slf4j
+public class BatchingUsersGrpcClient implements AsyncUsersService, AutoCloseable {
+
+    private final UsersServiceGrpc.UsersServiceFutureStub stub;
+    private final AsyncUsersService delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch current = new Batch();
+
+    private DistributionSummary batchSizes;
+
+    public BatchingUsersGrpcClient(UsersServiceGrpc.UsersServiceFutureStub stub, AsyncUsersService delegate,
+            Duration window, int maxBatchSize, Duration timeout) {
+        this.stub = stub;
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutNanos = timeout.toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "users-batch-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void bindMetrics(MeterRegistry registry) {
+        this.batchSizes = DistributionSummary.builder("users.grpc.batch.size")
+            .description("Number of distinct lookups sent in one BatchGetUsers call")
+            .register(registry);
+    }
+
+    @Override
+    public UserDto createUser(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber) {
+        return delegate.createUser(username, email, password, firstName, lastName, phoneNumber);
+    }
+
+    @Override
+    public Optional<UserDto> getUserById(Long userId) {
+        return await(userId, enqueue(userId, batch -> batch.byId));
+    }
+
+    @Override
+    public Optional<UserDto> getUserByUsername(String username) {
+        return await(username, enqueue(username, batch -> batch.byUsername));
+    }
+
+    @Override
+    public CompletableFuture<UserDto> createUserAsync(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber) {
+        return delegate.createUserAsync(username, email, password, firstName, lastName, phoneNumber);
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserDto>> getUserByIdAsync(Long userId) {
+        return enqueue(userId, batch -> batch.byId).result().copy();
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserDto>> getUserByUsernameAsync(String username) {
+        return enqueue(username, batch -> batch.byUsername).result().copy();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updatePasswordHashAsync(UserDto user, String newPasswordHash) {
+        return delegate.updatePasswordHashAsync(user, newPasswordHash);
+    }
+
+    @Override
+    public CredentialsVerification verifyCredentials(String username, String rawPassword) {
+        return delegate.verifyCredentials(username, rawPassword);
+    }
+
+    @Override
+    public CompletableFuture<CredentialsVerification> verifyCredentialsAsync(String username, String rawPassword) {
+        return delegate.verifyCredentialsAsync(username, rawPassword);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private <K> Lookup enqueue(K key, Function<Batch, Map<K, List<CompletableFuture<Optional<UserDto>>>>> slot) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        CompletableFuture<Optional<UserDto>> result = new CompletableFuture<>();
+        Batch full = null;
+
+        lock.lock();
+        try {
+            Batch batch = current;
+            slot.apply(batch).computeIfAbsent(key, k -> new ArrayList<>()).add(result);
+            batch.earliestDeadline = Math.min(batch.earliestDeadline, deadline);
+            if (batch.size() >= maxBatchSize) {
+                full = batch;
+                current = new Batch();
+            } else if (!batch.scheduled) {
+                batch.scheduled = true;
+                scheduler.schedule(() -> flushIfCurrent(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            send(full);
+        }
+        return new Lookup(result, deadline);
+    }
+
+    private void flushIfCurrent(Batch batch) {
+        lock.lock();
+        try {
+            if (current != batch) {
+                // Уже отправлен по размеру
+                return;
+            }
+            current = new Batch();
+        } finally {
+            lock.unlock();
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        long remaining = batch.earliestDeadline - System.nanoTime();
+        if (remaining <= 0) {
+            batch.failAll(new UsersServiceException("Latency budget exhausted before batch was sent"));
+            return;
+        }
+        if (batchSizes != null) {
+            batchSizes.record(batch.size());
+        }
+
+        BatchGetUsersRequest request = BatchGetUsersRequest.newBuilder()
+            .addAllUserIds(batch.byId.keySet())
+            .addAllUsernames(batch.byUsername.keySet())
+            .build();
+
+        log.debug("Sending BatchGetUsers with {} ids and {} usernames", request.getUserIdsCount(), request.getUsernamesCount());
+        ListenableFuture<BatchGetUsersResponse> call = stub
+            .withDeadlineAfter(remaining, TimeUnit.NANOSECONDS)
+            .batchGetUsers(request);
+
+        Futures.addCallback(call, new FutureCallback<>() {
+            @Override
+            public void onSuccess(BatchGetUsersResponse response) {
+                complete(batch.byId, response.getUsersByIdList());
+                complete(batch.byUsername, response.getUsersByUsernameList());
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                batch.failAll(new UsersServiceException("Failed to get users via batched gRPC", t));
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private static <K> void complete(Map<K, List<CompletableFuture<Optional<UserDto>>>> waiters, List<UserResponse> responses) {
+        Iterator<UserResponse> responseIterator = responses.iterator();
+        for (Map.Entry<K, List<CompletableFuture<Optional<UserDto>>>> entry : waiters.entrySet()) {
+            if (!responseIterator.hasNext()) {
+                IllegalStateException missing = new IllegalStateException("No BatchGetUsers result for key: " + entry.getKey());
+                entry.getValue().forEach(waiter -> waiter.completeExceptionally(missing));
+                continue;
+            }
+            UserResponse response = responseIterator.next();
+            Optional<UserDto> user = response.getFound() ? Optional.of(new UserDto(response)) : Optional.empty();
+            entry.getValue().forEach(waiter -> waiter.complete(user));
+        }
+    }
+
+    private Optional<UserDto> await(Object key, Lookup lookup) {
+        try {
+            return lookup.result().get(Math.max(0, lookup.deadline() - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            log.error("Error getting user {} via batched gRPC: {}", key, e.getCause().getMessage());
+            throw new UsersServiceException("Failed to get user via batched gRPC", e.getCause());
+        } catch (TimeoutException e) {
+            throw new UsersServiceException("Timed out getting user via batched gRPC: " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UsersServiceException("Interrupted while getting user via batched gRPC: " + key, e);
+        }
+    }
+
+    private record Lookup(CompletableFuture<Optional<UserDto>> result, long deadline) {}
+
+    private static final class Batch {
+        final Map<Long, List<CompletableFuture<Optional<UserDto>>>> byId = new LinkedHashMap<>();
+        final Map<String, List<CompletableFuture<Optional<UserDto>>>> byUsername = new LinkedHashMap<>();
+        long earliestDeadline = Long.MAX_VALUE;
+        boolean scheduled;
+
+        int size() {
+            return byId.size() + byUsername.size();
+        }
+
+        void failAll(Throwable t) {
+            byId.values().forEach(waiters -> waiters.forEach(waiter -> waiter.completeExceptionally(t)));
+            byUsername.values().forEach(waiters -> waiters.forEach(waiter -> waiter.completeExceptionally(t)));
+        }
+    }
+}
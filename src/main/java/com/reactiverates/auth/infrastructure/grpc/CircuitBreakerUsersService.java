@@ -0,0 +1,105 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import com.reactiverates.auth.domain.exception.UsersServiceException;
+import com.reactiverates.auth.domain.model.CredentialsVerification;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Декоратор users-service с circuit breaker'ом: при серии ошибок или медленных ответов
+ * вызовы сразу отклоняются с {@link UsersServiceException}, не занимая потоки запросов.
+ * Ошибкой считается только {@link UsersServiceException}; "пользователь не найден" — успешный ответ.
+ */
+@Slf4j
+public class CircuitBreakerUsersService implements AsyncUsersService {
+
+    private final AsyncUsersService delegate;
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakerUsersService(AsyncUsersService delegate, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public UserDto createUser(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber) {
+        return call(() -> delegate.createUser(username, email, password, firstName, lastName, phoneNumber));
+    }
+
+    @Override
+    public Optional<UserDto> getUserById(Long userId) {
+        return call(() -> delegate.getUserById(userId));
+    }
+
+    @Override
+    public Optional<UserDto> getUserByUsername(String username) {
+        return call(() -> delegate.getUserByUsername(username));
+    }
+
+    @Override
+    public CompletableFuture<UserDto> createUserAsync(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber) {
+        return callAsync(() -> delegate.createUserAsync(username, email, password, firstName, lastName, phoneNumber));
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserDto>> getUserByIdAsync(Long userId) {
+        return callAsync(() -> delegate.getUserByIdAsync(userId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserDto>> getUserByUsernameAsync(String username) {
+        return callAsync(() -> delegate.getUserByUsernameAsync(username));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updatePasswordHashAsync(UserDto user, String newPasswordHash) {
+        return callAsync(() -> delegate.updatePasswordHashAsync(user, newPasswordHash));
+    }
+
+    @Override
+    public CredentialsVerification verifyCredentials(String username, String rawPassword) {
+        return call(() -> delegate.verifyCredentials(username, rawPassword));
+    }
+
+    @Override
+    public CompletableFuture<CredentialsVerification> verifyCredentialsAsync(String username, String rawPassword) {
+        return callAsync(() -> delegate.verifyCredentialsAsync(username, rawPassword));
+    }
+
+    private <T> T call(Supplier<T> supplier) {
+        try {
+            return circuitBreaker.executeSupplier(supplier);
+        } catch (CallNotPermittedException e) {
+            throw rejected(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> supplier) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        circuitBreaker.executeCompletionStage(supplier::get).whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            result.completeExceptionally(cause instanceof CallNotPermittedException notPermitted ? rejected(notPermitted) : cause);
+        });
+        return result;
+    }
+
+    private UsersServiceException rejected(CallNotPermittedException e) {
+        log.warn("Users service call rejected, circuit breaker '{}' is {}", circuitBreaker.getName(), circuitBreaker.getState());
+        return new UsersServiceException("Users service circuit breaker is open", e);
+    }
+}
@@ -0,0 +1,194 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.ApplicationListener;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import io.grpc.NameResolverRegistry;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Резолвер адресов вида {@code discovery:///users-service} по реестру сервисов (Eureka).
+ * Все экземпляры сервиса отдаются балансировщику канала (round_robin и т.п.).
+ * Список обновляется при каждом обновлении локального кэша реестра ({@link HeartbeatEvent})
+ * и по запросу gRPC после сбоев соединений.
+ */
+@Slf4j
+public class DiscoveryNameResolverProvider extends NameResolverProvider
+        implements ApplicationListener<HeartbeatEvent>, AutoCloseable {
+
+    public static final String SCHEME = "discovery";
+
+    private final DiscoveryClient discoveryClient;
+    private final Class<? extends SocketAddress> addressType;
+    private final Function<ServiceInstance, SocketAddress> addressMapper;
+    private final Set<DiscoveryNameResolver> resolvers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param portMetadataKey ключ метаданных экземпляра с gRPC портом; если его нет, используется порт экземпляра
+     */
+    public DiscoveryNameResolverProvider(DiscoveryClient discoveryClient, String portMetadataKey) {
+        this(discoveryClient, InetSocketAddress.class, instance -> new InetSocketAddress(instance.getHost(), grpcPort(instance, portMetadataKey)));
+    }
+
+    public DiscoveryNameResolverProvider(DiscoveryClient discoveryClient, Class<? extends SocketAddress> addressType,
+            Function<ServiceInstance, SocketAddress> addressMapper) {
+        this.discoveryClient = discoveryClient;
+        this.addressType = addressType;
+        this.addressMapper = addressMapper;
+    }
+
+    private static int grpcPort(ServiceInstance instance, String portMetadataKey) {
+        String port = instance.getMetadata().get(portMetadataKey);
+        return port != null ? Integer.parseInt(port) : instance.getPort();
+    }
+
+    @Override
+    protected boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Ниже стандартного DNS резолвера, чтобы не стать схемой по умолчанию для адресов без схемы.
+     */
+    @Override
+    protected int priority() {
+        return 4;
+    }
+
+    @Override
+    public String getDefaultScheme() {
+        return SCHEME;
+    }
+
+    @Override
+    public Collection<Class<? extends SocketAddress>> getProducedSocketAddressTypes() {
+        return List.of(addressType);
+    }
+
+    @Override
+    public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+        if (!SCHEME.equals(targetUri.getScheme())) {
+            return null;
+        }
+        String serviceId = targetUri.getAuthority() != null && !targetUri.getAuthority().isEmpty()
+            ? targetUri.getAuthority()
+            : targetUri.getPath().replaceFirst("^/", "");
+        if (serviceId.isEmpty()) {
+            throw new IllegalArgumentException("Service id is missing in target: " + targetUri);
+        }
+        return new DiscoveryNameResolver(serviceId, args);
+    }
+
+    @Override
+    public void onApplicationEvent(HeartbeatEvent event) {
+        refreshAll();
+    }
+
+    public void refreshAll() {
+        resolvers.forEach(DiscoveryNameResolver::refresh);
+    }
+
+    @Override
+    public void close() {
+        NameResolverRegistry.getDefaultRegistry().deregister(this);
+    }
+
+    private final class DiscoveryNameResolver extends NameResolver {
+
+        private final String serviceId;
+        private final SynchronizationContext syncContext;
+        private final Executor executor;
+        private Listener2 listener;
+        private List<EquivalentAddressGroup> addresses;
+
+        DiscoveryNameResolver(String serviceId, Args args) {
+            this.serviceId = serviceId;
+            this.syncContext = args.getSynchronizationContext();
+            this.executor = args.getOffloadExecutor() != null ? args.getOffloadExecutor() : Runnable::run;
+        }
+
+        @Override
+        public String getServiceAuthority() {
+            return serviceId;
+        }
+
+        @Override
+        public void start(Listener2 listener) {
+            this.listener = listener;
+            resolvers.add(this);
+            resolve();
+        }
+
+        @Override
+        public void refresh() {
+            resolve();
+        }
+
+        private void resolve() {
+            executor.execute(() -> {
+                List<EquivalentAddressGroup> resolved;
+                try {
+                    resolved = discoveryClient.getInstances(serviceId).stream()
+                        .map(instance -> new EquivalentAddressGroup(addressMapper.apply(instance)))
+                        .toList();
+                } catch (RuntimeException e) {
+                    syncContext.execute(() -> reportError(Status.UNAVAILABLE
+                        .withDescription("Failed to resolve " + serviceId + " from discovery registry")
+                        .withCause(e)));
+                    return;
+                }
+                syncContext.execute(() -> report(resolved));
+            });
+        }
+
+        private void report(List<EquivalentAddressGroup> resolved) {
+            if (listener == null) {
+                return;
+            }
+            if (resolved.isEmpty()) {
+                reportError(Status.UNAVAILABLE.withDescription("No instances of " + serviceId + " in discovery registry"));
+                return;
+            }
+            if (resolved.equals(addresses)) {
+                return;
+            }
+            log.info("Resolved {} instance(s) of {}: {}", resolved.size(), serviceId, resolved);
+            addresses = resolved;
+            listener.onResult(ResolutionResult.newBuilder().setAddresses(resolved).build());
+        }
+
+        private void reportError(Status status) {
+            if (listener == null) {
+                return;
+            }
+            if (addresses != null) {
+                log.warn("Failed to resolve {}: {}", serviceId, status.getDescription());
+            }
+            addresses = null;
+            listener.onError(status);
+        }
+
+        @Override
+        public void shutdown() {
+            resolvers.remove(this);
+            listener = null;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+/**
+ * Пул каналов к одному сервису. Каждый канал держит собственные соединения со всеми экземплярами,
+ * поэтому пул снимает ограничение на число одновременных потоков HTTP/2 в одном соединении.
+ * Новый вызов уходит в канал с наименьшим числом незавершенных вызовов.
+ */
+public class PooledManagedChannel extends ManagedChannel {
+
+    private static final List<ConnectivityState> STATE_PRIORITY = List.of(
+        ConnectivityState.READY, ConnectivityState.CONNECTING, ConnectivityState.IDLE, ConnectivityState.TRANSIENT_FAILURE);
+
+    private final List<ManagedChannel> channels;
+    private final AtomicInteger[] inFlight;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public PooledManagedChannel(List<ManagedChannel> channels) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("Channel pool must not be empty");
+        }
+        this.channels = List.copyOf(channels);
+        this.inFlight = new AtomicInteger[channels.size()];
+        for (int i = 0; i < inFlight.length; i++) {
+            inFlight[i] = new AtomicInteger();
+        }
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        int index = leastBusy();
+        AtomicInteger counter = inFlight[index];
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(channels.get(index).newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                AtomicBoolean closed = new AtomicBoolean();
+                counter.incrementAndGet();
+                try {
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            if (closed.compareAndSet(false, true)) {
+                                counter.decrementAndGet();
+                            }
+                            super.onClose(status, trailers);
+                        }
+                    }, headers);
+                } catch (RuntimeException e) {
+                    if (closed.compareAndSet(false, true)) {
+                        counter.decrementAndGet();
+                    }
+                    throw e;
+                }
+            }
+        };
+    }
+
+    private int leastBusy() {
+        int size = channels.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        int best = start;
+        for (int i = 1; i < size; i++) {
+            int candidate = (start + i) % size;
+            if (inFlight[candidate].get() < inFlight[best].get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Инициирует подключение всех каналов и ждет их готовности не дольше {@code timeout}.
+     *
+     * @return true, если все каналы перешли в READY
+     */
+    public boolean warmUp(Duration timeout) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(channels.size());
+        AtomicBoolean done = new AtomicBoolean();
+        for (ManagedChannel channel : channels) {
+            awaitReady(channel, ready, done);
+        }
+        try {
+            return ready.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            done.set(true);
+        }
+    }
+
+    private static void awaitReady(ManagedChannel channel, CountDownLatch ready, AtomicBoolean done) {
+        if (done.get()) {
+            return;
+        }
+        ConnectivityState state = channel.getState(true);
+        if (state == ConnectivityState.READY) {
+            ready.countDown();
+            return;
+        }
+        channel.notifyWhenStateChanged(state, () -> awaitReady(channel, ready, done));
+    }
+
+    /**
+     * Состояние самого "живого" канала пула: достаточно одного готового канала, чтобы обслуживать вызовы.
+     */
+    @Override
+    public ConnectivityState getState(boolean requestConnection) {
+        List<ConnectivityState> states = channels.stream()
+            .map(channel -> channel.getState(requestConnection))
+            .toList();
+        for (ConnectivityState candidate : STATE_PRIORITY) {
+            if (states.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return ConnectivityState.SHUTDOWN;
+    }
+
+    @Override
+    public String authority() {
+        return channels.get(0).authority();
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        channels.forEach(ManagedChannel::shutdown);
+        return this;
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        channels.forEach(ManagedChannel::shutdownNow);
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return channels.stream().allMatch(ManagedChannel::isShutdown);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return channels.stream().allMatch(ManagedChannel::isTerminated);
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ManagedChannel channel : channels) {
+            long remaining = deadline - System.nanoTime();
+            if (!channel.awaitTermination(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
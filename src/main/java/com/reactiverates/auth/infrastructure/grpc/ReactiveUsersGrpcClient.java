@@ -0,0 +1,51 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+import com.reactiverates.auth.domain.service.ReactiveUsersService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Реактивный клиент users-service поверх асинхронной цепочки (кэш, single-flight, future stub).
+ * Ни один вызов не блокирует event loop.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUsersGrpcClient implements ReactiveUsersService, ReactiveUserDetailsService {
+
+    private final AsyncUsersService usersService;
+
+    @Override
+    public Mono<UserDto> createUser(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber) {
+        return Mono.fromFuture(() -> usersService.createUserAsync(username, email, password, firstName, lastName, phoneNumber));
+    }
+
+    @Override
+    public Mono<UserDto> getUserById(Long userId) {
+        return Mono.fromFuture(() -> usersService.getUserByIdAsync(userId))
+            .flatMap(Mono::justOrEmpty);
+    }
+
+    @Override
+    public Mono<UserDto> getUserByUsername(String username) {
+        return Mono.fromFuture(() -> usersService.getUserByUsernameAsync(username))
+            .flatMap(Mono::justOrEmpty);
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return getUserByUsername(username)
+            .switchIfEmpty(Mono.error(() -> new UsernameNotFoundException("User not found: " + username)))
+            .cast(UserDetails.class);
+    }
+}
@@ -0,0 +1,94 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.reactiverates.auth.domain.model.CredentialsVerification;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+import com.reactiverates.auth.domain.service.UsersService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Декоратор {@link UsersService}: одновременные запросы одного и того же пользователя
+ * (по username или id) разделяют один gRPC вызов и его результат.
+ */
+public class SingleFlightUsersService implements AsyncUsersService {
+
+    private final AsyncUsersService delegate;
+    private final SingleFlight<String, Optional<UserDto>> byUsername;
+    private final SingleFlight<Long, Optional<UserDto>> byId;
+
+    public SingleFlightUsersService(AsyncUsersService delegate, Duration timeout) {
+        this.delegate = delegate;
+        this.byUsername = new SingleFlight<>(timeout);
+        this.byId = new SingleFlight<>(timeout);
+    }
+
+    public void bindMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("users.single-flight.coalesced", byUsername, SingleFlight::coalescedCount)
+            .tag("key", "username")
+            .register(registry);
+        FunctionCounter.builder("users.single-flight.coalesced", byId, SingleFlight::coalescedCount)
+            .tag("key", "id")
+            .register(registry);
+        Gauge.builder("users.single-flight.in-flight", byUsername, SingleFlight::inFlightCount)
+            .tag("key", "username")
+            .register(registry);
+        Gauge.builder("users.single-flight.in-flight", byId, SingleFlight::inFlightCount)
+            .tag("key", "id")
+            .register(registry);
+    }
+
+    @Override
+    public UserDto createUser(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber) {
+        return delegate.createUser(username, email, password, firstName, lastName, phoneNumber);
+    }
+
+    @Override
+    public Optional<UserDto> getUserById(Long userId) {
+        return byId.execute(userId, () -> delegate.getUserById(userId));
+    }
+
+    @Override
+    public Optional<UserDto> getUserByUsername(String username) {
+        return byUsername.execute(username, () -> delegate.getUserByUsername(username));
+    }
+
+    @Override
+    public CompletableFuture<UserDto> createUserAsync(String username, String email, String password,
+            String firstName, String lastName, String phoneNumber) {
+        return delegate.createUserAsync(username, email, password, firstName, lastName, phoneNumber);
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserDto>> getUserByIdAsync(Long userId) {
+        return byId.executeAsync(userId, () -> delegate.getUserByIdAsync(userId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserDto>> getUserByUsernameAsync(String username) {
+        return byUsername.executeAsync(username, () -> delegate.getUserByUsernameAsync(username));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updatePasswordHashAsync(UserDto user, String newPasswordHash) {
+        return delegate.updatePasswordHashAsync(user, newPasswordHash);
+    }
+
+    @Override
+    public CredentialsVerification verifyCredentials(String username, String rawPassword) {
+        // Проверки пароля не объединяются: у каждого вызова свой пароль
+        return delegate.verifyCredentials(username, rawPassword);
+    }
+
+    @Override
+    public CompletableFuture<CredentialsVerification> verifyCredentialsAsync(String username, String rawPassword) {
+        return delegate.verifyCredentialsAsync(username, rawPassword);
+    }
+}
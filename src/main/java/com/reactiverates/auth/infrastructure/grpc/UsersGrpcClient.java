@@ -1,29 +1,52 @@
 package com.reactiverates.auth.infrastructure.grpc;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.reactiverates.auth.domain.exception.UsersServiceException;
+import com.reactiverates.auth.domain.model.CredentialsVerification;
 import com.reactiverates.auth.domain.model.UserDto;
-import com.reactiverates.auth.domain.service.UsersService;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
 import com.reactiverates.users.grpc.CreateUserRequest;
 import com.reactiverates.users.grpc.GetUserByIdRequest;
 import com.reactiverates.users.grpc.GetUserByUsernameRequest;
+import com.reactiverates.users.grpc.UpdatePasswordHashRequest;
+import com.reactiverates.users.grpc.UpdatePasswordHashResponse;
 import com.reactiverates.users.grpc.UserResponse;
 import com.reactiverates.users.grpc.UsersServiceGrpc;
 import com.reactiverates.users.grpc.UserRole;
+import com.reactiverates.users.grpc.VerifyCredentialsRequest;
+import com.reactiverates.users.grpc.VerifyCredentialsResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class UsersGrpcClient implements UsersService {
+public class UsersGrpcClient implements AsyncUsersService {
     
     private final UsersServiceGrpc.UsersServiceBlockingStub stub;
-    private final PasswordEncoder passwordEncoder;
+    private final UsersServiceGrpc.UsersServiceFutureStub futureStub;
+
+    @Value("${users.grpc.deadline.read:500ms}")
+    private Duration readDeadline = Duration.ofMillis(500);
+
+    @Value("${users.grpc.deadline.write:3s}")
+    private Duration writeDeadline = Duration.ofSeconds(3);
+
+    /** Проверка пароля включает хеширование на стороне users-service */
+    @Value("${users.grpc.deadline.credentials:2s}")
+    private Duration credentialsDeadline = Duration.ofSeconds(2);
     
     @Override
     public UserDto createUser(String username, String email, String password, 
@@ -40,13 +63,13 @@ public class UsersGrpcClient implements UsersService {
                 .build();
             
             log.info("Creating user via gRPC: {}", username);
-            UserResponse response = stub.createUser(request);
+            UserResponse response = writeStub().createUser(request);
             log.info("User created successfully: {}", response.getUsername());
             
             return new UserDto(response);
         } catch (Exception e) {
             log.error("Error creating user via gRPC: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to create user via gRPC", e);
+            throw new UsersServiceException("Failed to create user via gRPC", e);
         }
     }
     
@@ -58,7 +81,7 @@ public class UsersGrpcClient implements UsersService {
                 .build();
             
             log.info("Getting user by ID via gRPC: {}", userId);
-            UserResponse response = stub.getUserById(request);
+            UserResponse response = readStub().getUserById(request);
             
             if (response.getFound() == false) {
                 log.warn("User not found: {}", userId);
@@ -69,7 +92,7 @@ public class UsersGrpcClient implements UsersService {
             return Optional.of(new UserDto(response));
         } catch (Exception e) {
             log.error("Error getting user by ID via gRPC: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to get user by ID via gRPC", e);
+            throw new UsersServiceException("Failed to get user by ID via gRPC", e);
         }
     }
     
@@ -81,7 +104,7 @@ public class UsersGrpcClient implements UsersService {
                 .build();
             
             log.info("Getting user by username via gRPC: {}", username);
-            UserResponse response = stub.getUserByUsername(request);
+            UserResponse response = readStub().getUserByUsername(request);
             
             if (response.getFound() == false) {
                 log.warn("User not found: {}", username);
@@ -92,10 +115,120 @@ public class UsersGrpcClient implements UsersService {
             return Optional.of(new UserDto(response));
         } catch (Exception e) {
             log.error("Error getting user by username via gRPC: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to get user by username via gRPC", e);
+            throw new UsersServiceException("Failed to get user by username via gRPC", e);
         }
     }
     
+    @Override
+    public CompletableFuture<UserDto> createUserAsync(String username, String email, String password,
+                                 String firstName, String lastName, String phoneNumber) {
+        CreateUserRequest request = CreateUserRequest.newBuilder()
+            .setUsername(username)
+            .setEmail(email)
+            .setPassword(password)
+            .setFirstName(firstName)
+            .setLastName(lastName)
+            .setPhoneNumber(phoneNumber)
+            .setRole(UserRole.USER)
+            .build();
+
+        log.info("Creating user via async gRPC: {}", username);
+        CompletableFuture<UserDto> result = new CompletableFuture<>();
+        Futures.addCallback(futureStub.withDeadlineAfter(writeDeadline.toMillis(), TimeUnit.MILLISECONDS).createUser(request), new FutureCallback<>() {
+            @Override
+            public void onSuccess(UserResponse response) {
+                log.info("User created successfully: {}", response.getUsername());
+                result.complete(new UserDto(response));
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("Error creating user via async gRPC: {}", t.getMessage());
+                result.completeExceptionally(new UsersServiceException("Failed to create user via gRPC", t));
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserDto>> getUserByIdAsync(Long userId) {
+        GetUserByIdRequest request = GetUserByIdRequest.newBuilder()
+            .setUserId(userId)
+            .build();
+
+        log.info("Getting user by ID via async gRPC: {}", userId);
+        return toUser(readFutureStub().getUserById(request), userId);
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserDto>> getUserByUsernameAsync(String username) {
+        GetUserByUsernameRequest request = GetUserByUsernameRequest.newBuilder()
+            .setUsername(username)
+            .build();
+
+        log.info("Getting user by username via async gRPC: {}", username);
+        return toUser(readFutureStub().getUserByUsername(request), username);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updatePasswordHashAsync(UserDto user, String newPasswordHash) {
+        UpdatePasswordHashRequest request = UpdatePasswordHashRequest.newBuilder()
+            .setUserId(user.getId())
+            .setExpectedPasswordHash(user.getPassword())
+            .setPasswordHash(newPasswordHash)
+            .build();
+
+        log.info("Updating password hash via async gRPC: {}", user.getUsername());
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Futures.addCallback(futureStub.withDeadlineAfter(writeDeadline.toMillis(), TimeUnit.MILLISECONDS).updatePasswordHash(request), new FutureCallback<>() {
+            @Override
+            public void onSuccess(UpdatePasswordHashResponse response) {
+                result.complete(response.getUpdated());
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("Error updating password hash via async gRPC: {}", t.getMessage());
+                result.completeExceptionally(new UsersServiceException("Failed to update password hash via gRPC", t));
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    private CompletableFuture<Optional<UserDto>> toUser(ListenableFuture<UserResponse> call, Object key) {
+        CompletableFuture<Optional<UserDto>> result = new CompletableFuture<>();
+        Futures.addCallback(call, new FutureCallback<>() {
+            @Override
+            public void onSuccess(UserResponse response) {
+                if (!response.getFound()) {
+                    log.warn("User not found: {}", key);
+                    result.complete(Optional.empty());
+                    return;
+                }
+                result.complete(Optional.of(new UserDto(response)));
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("Error getting user {} via async gRPC: {}", key, t.getMessage());
+                result.completeExceptionally(new UsersServiceException("Failed to get user via async gRPC", t));
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    private UsersServiceGrpc.UsersServiceBlockingStub readStub() {
+        return stub.withDeadlineAfter(readDeadline.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private UsersServiceGrpc.UsersServiceBlockingStub writeStub() {
+        return stub.withDeadlineAfter(writeDeadline.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private UsersServiceGrpc.UsersServiceFutureStub readFutureStub() {
+        return futureStub.withDeadlineAfter(readDeadline.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         try {
@@ -113,6 +246,8 @@ public class UsersGrpcClient implements UsersService {
             }
             
             return userDto;
+        } catch (UsernameNotFoundException | UsersServiceException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error loading user by username via gRPC: {}", e.getMessage(), e);
             throw new UsernameNotFoundException("Error loading user: " + username, e);
@@ -120,41 +255,53 @@ public class UsersGrpcClient implements UsersService {
     }
     
     @Override
-    public boolean authenticateUser(String username, String rawPassword) {
+    public CredentialsVerification verifyCredentials(String username, String rawPassword) {
         try {
-            Optional<UserDto> userDtoOptional = getUserByUsername(username);
-            
-            if (userDtoOptional.isEmpty()) {
-                log.warn("User not found during authentication: {}", username);
-                return false;
-            }
-            
-            UserDto userDto = userDtoOptional.get();
-            
-            if (!userDto.isActive()) {
-                log.warn("User account is disabled: {}", username);
-                return false;
-            }
-            
-            String storedPasswordHash = userDto.getPassword();
-            if (storedPasswordHash == null || storedPasswordHash.isEmpty()) {
-                log.warn("Password hash is null or empty for user: {}", username);
-                return false;
-            }
-            
-            boolean passwordMatches = passwordEncoder.matches(rawPassword, storedPasswordHash);
-            
-            if (passwordMatches) {
-                log.info("User authentication successful: {}", username);
-            } else {
-                log.warn("Password mismatch for user: {}", username);
-            }
-            
-            return passwordMatches;
-            
+            log.info("Verifying credentials via gRPC: {}", username);
+            return toVerification(credentialsStub().verifyCredentials(verifyCredentialsRequest(username, rawPassword)));
         } catch (Exception e) {
-            log.error("Error authenticating user via gRPC: {}", e.getMessage(), e);
-            return false;
+            log.error("Error verifying credentials via gRPC: {}", e.getMessage(), e);
+            throw new UsersServiceException("Failed to verify credentials via gRPC", e);
         }
     }
+
+    @Override
+    public CompletableFuture<CredentialsVerification> verifyCredentialsAsync(String username, String rawPassword) {
+        log.info("Verifying credentials via async gRPC: {}", username);
+        CompletableFuture<CredentialsVerification> result = new CompletableFuture<>();
+        Futures.addCallback(futureStub.withDeadlineAfter(credentialsDeadline.toMillis(), TimeUnit.MILLISECONDS)
+                .verifyCredentials(verifyCredentialsRequest(username, rawPassword)), new FutureCallback<>() {
+            @Override
+            public void onSuccess(VerifyCredentialsResponse response) {
+                result.complete(toVerification(response));
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("Error verifying credentials via async gRPC: {}", t.getMessage());
+                result.completeExceptionally(new UsersServiceException("Failed to verify credentials via gRPC", t));
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    private static VerifyCredentialsRequest verifyCredentialsRequest(String username, String rawPassword) {
+        return VerifyCredentialsRequest.newBuilder()
+            .setUsername(username)
+            .setPassword(rawPassword)
+            .build();
+    }
+
+    private static CredentialsVerification toVerification(VerifyCredentialsResponse response) {
+        return switch (response.getStatus()) {
+            case CREDENTIALS_VALID -> new CredentialsVerification(
+                CredentialsVerification.Status.VALID, new UserDto(response.getUser()));
+            case CREDENTIALS_DISABLED -> new CredentialsVerification(CredentialsVerification.Status.DISABLED, null);
+            default -> new CredentialsVerification(CredentialsVerification.Status.INVALID, null);
+        };
+    }
+
+    private UsersServiceGrpc.UsersServiceBlockingStub credentialsStub() {
+        return stub.withDeadlineAfter(credentialsDeadline.toMillis(), TimeUnit.MILLISECONDS);
+    }
 }
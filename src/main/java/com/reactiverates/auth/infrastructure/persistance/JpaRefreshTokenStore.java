@@ -0,0 +1,81 @@
+package com.reactiverates.auth.infrastructure.persistance;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reactiverates.auth.domain.model.SessionCursor;
+import com.reactiverates.auth.domain.service.RefreshTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+import com.reactiverates.auth.infrastructure.persistance.repository.RefreshTokenRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link RefreshTokenStore} поверх таблицы {@code refresh_tokens} в PostgreSQL.
+ */
+@Repository
+@Profile("!reactive")
+@ConditionalOnProperty(name = "refresh-tokens.store", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Override
+    @Transactional
+    public RefreshToken insert(RefreshToken token, int maxSessionsPerUser) {
+        RefreshToken saved = refreshTokenRepository.save(token);
+        // Новая сессия уже вставлена, поэтому лимит вытесняет только более старые
+        refreshTokenRepository.deleteOldestSessions(token.getUserId(), maxSessionsPerUser);
+        saved.setToken(token.getToken());
+        return saved;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(byte[] tokenHash) {
+        return refreshTokenRepository.findByTokenHash(tokenHash);
+    }
+
+    @Override
+    public Optional<RefreshToken> findById(long id) {
+        return refreshTokenRepository.findById(id);
+    }
+
+    @Override
+    public boolean rotate(long id, byte[] oldHash, byte[] newHash, Instant expiryDate, Instant lastUsedAt) {
+        return refreshTokenRepository.rotate(id, oldHash, newHash, expiryDate, lastUsedAt) > 0;
+    }
+
+    @Override
+    public List<RefreshToken> findSessions(Long userId, SessionCursor after, int limit) {
+        return after == null
+            ? refreshTokenRepository.findSessions(userId, limit)
+            : refreshTokenRepository.findSessionsAfter(userId, after.createdAt(), after.id(), limit);
+    }
+
+    @Override
+    public boolean deleteSession(long id, Long userId) {
+        return refreshTokenRepository.deleteByIdAndUserId(id, userId) > 0;
+    }
+
+    @Override
+    public int deleteByUserId(Long userId) {
+        return refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    @Override
+    public int deleteExpired(Instant now, int limit) {
+        return refreshTokenRepository.deleteExpiredBatch(now, limit);
+    }
+
+    @Override
+    public long countExpired(Instant now) {
+        return refreshTokenRepository.countByExpiryDateBefore(now);
+    }
+}
@@ -0,0 +1,46 @@
+package com.reactiverates.auth.infrastructure.persistance;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import com.reactiverates.auth.domain.service.RevokedTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.entity.RevokedAccessToken;
+import com.reactiverates.auth.infrastructure.persistance.repository.RevokedAccessTokenRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link RevokedTokenStore} поверх таблицы {@code revoked_access_tokens} в PostgreSQL.
+ */
+@Repository
+@Profile("!reactive")
+@ConditionalOnProperty(name = "refresh-tokens.store", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaRevokedTokenStore implements RevokedTokenStore {
+
+    private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+
+    @Override
+    public boolean revoke(byte[] tokenHash, Instant expiresAt, Instant revokedAt) {
+        return revokedAccessTokenRepository.insertIfAbsent(tokenHash, expiresAt, revokedAt) > 0;
+    }
+
+    @Override
+    public boolean isRevoked(byte[] tokenHash, Instant now) {
+        return revokedAccessTokenRepository.existsByTokenHashAndExpiresAtAfter(tokenHash, now);
+    }
+
+    @Override
+    public List<RevokedAccessToken> findRevokedSince(Instant revokedSince, Instant now) {
+        return revokedAccessTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(revokedSince, now);
+    }
+
+    @Override
+    public int deleteExpired(Instant now, int limit) {
+        return revokedAccessTokenRepository.deleteExpiredBatch(now, limit);
+    }
+}
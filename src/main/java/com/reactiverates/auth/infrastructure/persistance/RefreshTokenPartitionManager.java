@@ -0,0 +1,113 @@
+package com.reactiverates.auth.infrastructure.persistance;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Обслуживает дневные секции таблицы {@code refresh_tokens} (см. {@code db/refresh_tokens_partitioned.sql}):
+ * создает секции на {@code partitions-ahead} дней вперед и удаляет секции, все токены которых истекли.
+ * Границы секций — полночь UTC.
+ * <p>
+ * Первые секции создаются при старте, до того как веб-сервер начнет принимать запросы: токен, выданный
+ * раньше, попал бы в секцию по умолчанию, и секцию его дня уже нельзя было бы создать.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "refresh-tokens.storage.layout", havingValue = "partitioned")
+@RequiredArgsConstructor
+public class RefreshTokenPartitionManager {
+
+    private static final String PARTITION_PREFIX = "refresh_tokens_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Должно покрывать срок жизни refresh токена, иначе новые токены попадут в секцию по умолчанию */
+    @Value("${refresh-tokens.storage.partitions-ahead:8}")
+    private int partitionsAhead;
+
+    /**
+     * Исключение здесь останавливает запуск приложения.
+     */
+    @PostConstruct
+    void createPartitionsOnStartup() {
+        createUpcomingPartitions(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * @throws IllegalStateException если секцию хотя бы одного дня создать не удалось; остальные дни
+     *                               при этом все равно создаются
+     */
+    public void createUpcomingPartitions(LocalDate today) {
+        List<LocalDate> failed = new ArrayList<>();
+        DataAccessException lastError = null;
+        for (int i = 0; i <= partitionsAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day)
+                    + " PARTITION OF refresh_tokens FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+            } catch (DataAccessException e) {
+                failed.add(day);
+                lastError = e;
+            }
+        }
+        if (!failed.isEmpty()) {
+            // Обычно в секции по умолчанию уже есть строки за эти дни: их нужно перенести вручную
+            throw new IllegalStateException("Failed to create refresh token partitions for " + failed
+                + "; rows for these days stay in refresh_tokens_default until moved out of it", lastError);
+        }
+    }
+
+    /**
+     * @return число удаленных секций
+     */
+    public int dropExpiredPartitions(LocalDate today) {
+        List<String> partitions = jdbcTemplate.queryForList("""
+            SELECT child.relname
+            FROM pg_inherits
+            JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+            JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = 'refresh_tokens' AND child.relname LIKE 'refresh\\_tokens\\_p%'
+            """, String.class);
+
+        int dropped = 0;
+        for (String partition : partitions) {
+            LocalDate day = partitionDay(partition);
+            // Секция дня D содержит токены, истекающие до полуночи D+1 <= today
+            if (day != null && day.isBefore(today)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped expired refresh token partition {}", partition);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+    }
+
+    private static LocalDate partitionDay(String partition) {
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package com.reactiverates.auth.infrastructure.persistance;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reactiverates.auth.domain.model.SessionCursor;
+import com.reactiverates.auth.domain.service.RefreshTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Отложенная запись refresh токенов поверх {@link JpaRefreshTokenStore}.
+ * <p>
+ * Выдача и удаление токена меняют только состояние в памяти; фоновый поток раз в
+ * {@code flush-interval} записывает накопленные изменения пакетами JDBC в одной транзакции,
+ * так что всплеск входов дает один коммит на интервал вместо коммита на запрос.
+ * Замена токена уже записанной сессии — сразу условный UPDATE в базе: повторное использование
+ * токена отклоняется одинаково на всех экземплярах сервиса. В памяти заменяется только токен
+ * еще не записанной сессии, которую другие экземпляры не видят.
+ * Чтение сначала смотрит в несброшенные изменения, затем в базу, поэтому запрос видит свои записи.
+ * Идентификаторы сессий заранее выбираются блоками из последовательности {@code refresh_tokens.id}.
+ * <p>
+ * Гарантии: при падении процесса теряются изменения последнего интервала (и все, что не удалось
+ * записать при недоступной базе) — такие пользователи входят заново. Удаления при
+ * {@code sync-deletes=true} сбрасываются до ответа, чтобы выход и отзыв сессии не терялись.
+ * При {@code max-pending} несброшенных изменений запись выполняется в потоке запроса.
+ */
+@Slf4j
+public class WriteBehindRefreshTokenStore implements RefreshTokenStore, AutoCloseable {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO refresh_tokens
+            (id, user_id, token_hash, expiry_date, device_name, user_agent, ip_address, created_at, last_used_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    private static final String DELETE_SQL = "DELETE FROM refresh_tokens WHERE id = ?";
+    private static final String EVICT_SQL = """
+        DELETE FROM refresh_tokens WHERE id IN (
+            SELECT id FROM refresh_tokens
+            WHERE user_id = ?
+            ORDER BY created_at DESC, id DESC
+            OFFSET ?)
+        """;
+    private static final String NEXT_IDS_SQL =
+        "SELECT nextval(pg_get_serial_sequence('refresh_tokens', 'id')) FROM generate_series(1, ?)";
+
+    private static final Comparator<RefreshToken> NEWEST_FIRST = Comparator
+        .comparing(RefreshToken::getCreatedAt)
+        .thenComparingLong(RefreshToken::getId)
+        .reversed();
+
+    private final RefreshTokenStore delegate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final int maxPending;
+    private final int idBlockSize;
+    private final boolean syncDeletes;
+
+    /** Несброшенные изменения по id сессии; защищены {@code this} */
+    private final Map<Long, Pending> pending = new LinkedHashMap<>();
+    private final Map<ByteBuffer, Long> pendingHashes = new HashMap<>();
+    private final Map<Long, Integer> pendingEvictions = new HashMap<>();
+    private long version;
+
+    private final Deque<Long> ids = new ArrayDeque<>();
+    private final ReentrantLock idLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter failureCounter;
+
+    public WriteBehindRefreshTokenStore(RefreshTokenStore delegate, JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate, Duration flushInterval, int maxBatchSize, int maxPending,
+            int idBlockSize, boolean syncDeletes, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPending = maxPending;
+        this.idBlockSize = idBlockSize;
+        this.syncDeletes = syncDeletes;
+
+        this.flushTimer = Timer.builder("refresh-tokens.write-behind.flush")
+            .description("Duration of one write-behind flush transaction")
+            .register(meterRegistry);
+        this.flushedCounter = Counter.builder("refresh-tokens.write-behind.flushed")
+            .description("Refresh token changes written by write-behind flushes")
+            .register(meterRegistry);
+        this.failureCounter = Counter.builder("refresh-tokens.write-behind.failures")
+            .description("Write-behind flushes that failed and will be retried")
+            .register(meterRegistry);
+        Gauge.builder("refresh-tokens.write-behind.pending", this, WriteBehindRefreshTokenStore::pendingCount)
+            .description("Refresh token changes not yet written to the database")
+            .register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-token-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public RefreshToken insert(RefreshToken token, int maxSessionsPerUser) {
+        token.setId(nextId());
+        synchronized (this) {
+            put(token.getId(), new Pending(copy(token)));
+            pendingEvictions.merge(token.getUserId(), maxSessionsPerUser, Math::min);
+        }
+        afterWrite();
+        return token;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(byte[] tokenHash) {
+        // Сначала несброшенные изменения, затем база: сброс фиксирует транзакцию до того,
+        // как убрать изменение из памяти, поэтому запись не теряется между двумя проверками
+        synchronized (this) {
+            Long id = pendingHashes.get(ByteBuffer.wrap(tokenHash));
+            if (id != null) {
+                return Optional.of(copy(pending.get(id).state));
+            }
+        }
+        return delegate.findByTokenHash(tokenHash).flatMap(token -> overlay(token, tokenHash));
+    }
+
+    @Override
+    public Optional<RefreshToken> findById(long id) {
+        synchronized (this) {
+            Pending change = pending.get(id);
+            if (change != null) {
+                return Optional.ofNullable(change.state).map(WriteBehindRefreshTokenStore::copy);
+            }
+        }
+        return delegate.findById(id).flatMap(token -> overlay(token, token.getTokenHash()));
+    }
+
+    @Override
+    public boolean rotate(long id, byte[] oldHash, byte[] newHash, Instant expiryDate, Instant lastUsedAt) {
+        boolean pendingInsert;
+        synchronized (this) {
+            Pending change = pending.get(id);
+            if (change != null && change.state == null) {
+                return false;
+            }
+            pendingInsert = change != null;
+        }
+        if (!pendingInsert) {
+            // Сессия уже в базе: повтор токена отклоняет условный UPDATE, на каком бы узле ни была первая замена
+            return delegate.rotate(id, oldHash, newHash, expiryDate, lastUsedAt);
+        }
+        // Несброшенная вставка меняется в памяти; flushLock не дает сбросу записать старый токен в это время
+        flushLock.lock();
+        try {
+            synchronized (this) {
+                Pending change = pending.get(id);
+                if (change != null) {
+                    if (change.state == null || !Arrays.equals(change.state.getTokenHash(), oldHash)) {
+                        return false;
+                    }
+                    put(id, new Pending(rotated(change.state, newHash, expiryDate, lastUsedAt)));
+                    return true;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        // Вставку успели записать, пока ждали flushLock
+        return delegate.rotate(id, oldHash, newHash, expiryDate, lastUsedAt);
+    }
+
+    @Override
+    public List<RefreshToken> findSessions(Long userId, SessionCursor after, int limit) {
+        Map<Long, RefreshToken> overlaid = new HashMap<>();
+        synchronized (this) {
+            pending.forEach((id, change) -> {
+                if (change.userId == userId.longValue()) {
+                    overlaid.put(id, change.state == null ? null : copy(change.state));
+                }
+            });
+        }
+        // Удаленные и измененные в памяти строки заменяются, поэтому из базы читается с запасом
+        List<RefreshToken> merged = new ArrayList<>();
+        for (RefreshToken token : delegate.findSessions(userId, after, limit + overlaid.size())) {
+            if (!overlaid.containsKey(token.getId())) {
+                merged.add(token);
+            }
+        }
+        overlaid.values().stream()
+            .filter(token -> token != null && isAfter(token, after))
+            .forEach(merged::add);
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    @Override
+    public boolean deleteSession(long id, Long userId) {
+        Optional<RefreshToken> current = findById(id);
+        if (current.isEmpty() || !current.get().getUserId().equals(userId)) {
+            return false;
+        }
+        synchronized (this) {
+            Pending change = pending.get(id);
+            if (change == null) {
+                put(id, new Pending(userId));
+            } else {
+                put(id, change.deleted());
+            }
+        }
+        afterDelete();
+        return true;
+    }
+
+    @Override
+    public int deleteByUserId(Long userId) {
+        // Под flushLock: параллельный сброс не вернет в базу только что удаленные сессии
+        flushLock.lock();
+        try {
+            int pendingOnly = 0;
+            synchronized (this) {
+                for (Map.Entry<Long, Pending> entry : new ArrayList<>(pending.entrySet())) {
+                    Pending change = entry.getValue();
+                    if (change.userId == userId.longValue()) {
+                        if (change.state != null && !change.inDatabase) {
+                            pendingOnly++;
+                        }
+                        remove(entry.getKey());
+                    }
+                }
+                pendingEvictions.remove(userId);
+            }
+            return delegate.deleteByUserId(userId) + pendingOnly;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public int deleteExpired(Instant now, int limit) {
+        return delegate.deleteExpired(now, limit);
+    }
+
+    @Override
+    public long countExpired(Instant now) {
+        return delegate.countExpired(now);
+    }
+
+    /**
+     * Записывает все несброшенные изменения одной транзакцией.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Snapshot> batch = new ArrayList<>();
+            Map<Long, Integer> evictions;
+            synchronized (this) {
+                if (pending.isEmpty() && pendingEvictions.isEmpty()) {
+                    return;
+                }
+                pending.forEach((id, change) -> batch.add(new Snapshot(id, change)));
+                evictions = new HashMap<>(pendingEvictions);
+                pendingEvictions.clear();
+            }
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> write(batch, evictions)));
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                synchronized (this) {
+                    evictions.forEach((userId, keep) -> pendingEvictions.merge(userId, keep, Math::min));
+                }
+                throw e;
+            }
+            flushedCounter.increment(batch.size());
+            synchronized (this) {
+                for (Snapshot snapshot : batch) {
+                    Pending change = pending.get(snapshot.id());
+                    if (change == null) {
+                        continue;
+                    }
+                    if (change.version == snapshot.change().version) {
+                        remove(snapshot.id());
+                    } else {
+                        // Удалено во время сброса: вставка уже записана, следующий сброс удалит строку
+                        change.inDatabase = change.inDatabase || snapshot.change().state != null;
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    private void write(List<Snapshot> batch, Map<Long, Integer> evictions) {
+        List<RefreshToken> inserts = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        for (Snapshot snapshot : batch) {
+            Pending change = snapshot.change();
+            if (change.state != null) {
+                inserts.add(change.state);
+            } else if (change.inDatabase) {
+                deletes.add(snapshot.id());
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (statement, token) -> {
+            statement.setLong(1, token.getId());
+            statement.setLong(2, token.getUserId());
+            statement.setBytes(3, token.getTokenHash());
+            setInstant(statement, 4, token.getExpiryDate());
+            statement.setString(5, token.getDeviceName());
+            statement.setString(6, token.getUserAgent());
+            statement.setString(7, token.getIpAddress());
+            setInstant(statement, 8, token.getCreatedAt());
+            setInstant(statement, 9, token.getLastUsedAt());
+        });
+        jdbcTemplate.batchUpdate(DELETE_SQL, deletes, deletes.size(),
+            (statement, id) -> statement.setLong(1, id));
+        List<Map.Entry<Long, Integer>> evicted = new ArrayList<>(evictions.entrySet());
+        jdbcTemplate.batchUpdate(EVICT_SQL, evicted, evicted.size(), (statement, eviction) -> {
+            statement.setLong(1, eviction.getKey());
+            statement.setInt(2, eviction.getValue());
+        });
+    }
+
+    private void afterWrite() {
+        int size = pendingCount();
+        if (size >= maxPending) {
+            // Обратное давление: база не успевает, запрос ждет сброса
+            flush();
+        } else if (size >= maxBatchSize && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void afterDelete() {
+        if (syncDeletes) {
+            flush();
+        } else {
+            afterWrite();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} refresh token changes, will retry: {}", pendingCount(), e.getMessage());
+        }
+    }
+
+    private long nextId() {
+        idLock.lock();
+        try {
+            if (ids.isEmpty()) {
+                ids.addAll(jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, idBlockSize));
+            }
+            return ids.poll();
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    private synchronized Optional<RefreshToken> overlay(RefreshToken fromDatabase, byte[] tokenHash) {
+        Pending change = pending.get(fromDatabase.getId());
+        if (change == null) {
+            return Optional.of(fromDatabase);
+        }
+        if (change.state == null || !Arrays.equals(change.state.getTokenHash(), tokenHash)) {
+            return Optional.empty();
+        }
+        return Optional.of(copy(change.state));
+    }
+
+    private void put(long id, Pending change) {
+        Pending previous = pending.put(id, change);
+        if (previous != null && previous.state != null) {
+            pendingHashes.remove(ByteBuffer.wrap(previous.state.getTokenHash()));
+        }
+        if (change.state != null) {
+            pendingHashes.put(ByteBuffer.wrap(change.state.getTokenHash()), id);
+        }
+        change.version = ++version;
+    }
+
+    private void remove(long id) {
+        Pending removed = pending.remove(id);
+        if (removed != null && removed.state != null) {
+            pendingHashes.remove(ByteBuffer.wrap(removed.state.getTokenHash()));
+        }
+    }
+
+    private static boolean isAfter(RefreshToken token, SessionCursor after) {
+        if (after == null) {
+            return true;
+        }
+        int byTime = token.getCreatedAt().compareTo(after.createdAt());
+        return byTime < 0 || (byTime == 0 && token.getId() < after.id());
+    }
+
+    private static RefreshToken rotated(RefreshToken token, byte[] newHash, Instant expiryDate, Instant lastUsedAt) {
+        RefreshToken rotated = copy(token);
+        rotated.setTokenHash(newHash);
+        rotated.setExpiryDate(expiryDate);
+        rotated.setLastUsedAt(lastUsedAt);
+        return rotated;
+    }
+
+    private static RefreshToken copy(RefreshToken token) {
+        return RefreshToken.builder()
+            .id(token.getId())
+            .userId(token.getUserId())
+            .tokenHash(token.getTokenHash())
+            .expiryDate(token.getExpiryDate())
+            .deviceName(token.getDeviceName())
+            .userAgent(token.getUserAgent())
+            .ipAddress(token.getIpAddress())
+            .createdAt(token.getCreatedAt())
+            .lastUsedAt(token.getLastUsedAt())
+            .build();
+    }
+
+    private static void setInstant(PreparedStatement statement, int index, Instant instant) throws SQLException {
+        if (instant == null) {
+            statement.setNull(index, Types.TIMESTAMP_WITH_TIMEZONE);
+        } else {
+            statement.setObject(index, instant.atOffset(ZoneOffset.UTC));
+        }
+    }
+
+    /**
+     * Несброшенное состояние сессии: еще не записанная вставка или удаление ({@code state == null}).
+     * {@code inDatabase} — строка уже есть в базе, и удаление нужно записать.
+     */
+    private static final class Pending {
+        final long userId;
+        final RefreshToken state;
+        boolean inDatabase;
+        long version;
+
+        Pending(RefreshToken state) {
+            this.userId = state.getUserId();
+            this.state = state;
+        }
+
+        Pending(long userId) {
+            this.userId = userId;
+            this.state = null;
+            this.inDatabase = true;
+        }
+
+        Pending deleted() {
+            Pending deleted = new Pending(userId);
+            deleted.inDatabase = inDatabase;
+            return deleted;
+        }
+    }
+
+    private record Snapshot(long id, Pending change) { }
+}
@@ -0,0 +1,60 @@
+package com.reactiverates.auth.infrastructure.persistance.embedded;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import com.reactiverates.auth.domain.service.RevokedTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.entity.RevokedAccessToken;
+
+/**
+ * Отозванные access токены в памяти процесса для {@code refresh-tokens.store: embedded}.
+ * Отзывы не переживают перезапуск: после него отозванный токен снова действует до своего
+ * {@code exp}, то есть не дольше срока жизни access токена.
+ */
+@Repository
+@Profile("!reactive")
+@ConditionalOnProperty(name = "refresh-tokens.store", havingValue = "embedded")
+public class InMemoryRevokedTokenStore implements RevokedTokenStore {
+
+    private final Map<ByteBuffer, RevokedAccessToken> revoked = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean revoke(byte[] tokenHash, Instant expiresAt, Instant revokedAt) {
+        RevokedAccessToken token = new RevokedAccessToken(tokenHash.clone(), expiresAt, revokedAt);
+        return revoked.putIfAbsent(ByteBuffer.wrap(token.getTokenHash()), token) == null;
+    }
+
+    @Override
+    public boolean isRevoked(byte[] tokenHash, Instant now) {
+        RevokedAccessToken token = revoked.get(ByteBuffer.wrap(tokenHash));
+        return token != null && token.getExpiresAt().isAfter(now);
+    }
+
+    @Override
+    public List<RevokedAccessToken> findRevokedSince(Instant revokedSince, Instant now) {
+        return revoked.values().stream()
+            .filter(token -> !token.getRevokedAt().isBefore(revokedSince) && token.getExpiresAt().isAfter(now))
+            .toList();
+    }
+
+    @Override
+    public int deleteExpired(Instant now, int limit) {
+        int deleted = 0;
+        Iterator<RevokedAccessToken> iterator = revoked.values().iterator();
+        while (iterator.hasNext() && deleted < limit) {
+            if (iterator.next().getExpiresAt().isBefore(now)) {
+                iterator.remove();
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,172 @@
+package com.reactiverates.auth.infrastructure.persistance.embedded;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Файл журнала фиксированного размера, целиком отображенный в память.
+ * Запись: {@code int длина тела, int CRC32C тела, тело}. Файл создается разреженным и заполнен нулями,
+ * поэтому нулевая длина означает конец записанных данных.
+ */
+final class LogSegment {
+
+    static final int HEADER_BYTES = 8;
+
+    private final int sequence;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+
+    private LogSegment(int sequence, Path path, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static Path pathFor(Path directory, int sequence) {
+        return directory.resolve(String.format("segment-%010d.log", sequence));
+    }
+
+    static LogSegment open(Path directory, int sequence, int size) {
+        Path path = pathFor(directory, sequence);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long length = Math.max(channel.size(), size);
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Segment is too large: " + path);
+            }
+            // Отображение остается действительным после закрытия канала
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            return new LogSegment(sequence, path, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map segment " + path, e);
+        }
+    }
+
+    int sequence() {
+        return sequence;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    boolean hasRoomFor(int bodyLength) {
+        return writePosition + HEADER_BYTES + bodyLength <= buffer.capacity();
+    }
+
+    /**
+     * Дописывает запись в конец сегмента.
+     *
+     * @return смещение записи
+     */
+    int append(byte[] body) {
+        int offset = writePosition;
+        buffer.put(offset + HEADER_BYTES, body);
+        buffer.putInt(offset + 4, crc(body));
+        // Длина пишется последней: до этого момента запись при восстановлении не видна
+        buffer.putInt(offset, body.length);
+        writePosition = offset + HEADER_BYTES + body.length;
+        return offset;
+    }
+
+    /**
+     * Копирует запись вместе с заголовком, не пересчитывая CRC.
+     */
+    int appendRaw(byte[] record) {
+        int offset = writePosition;
+        buffer.put(offset + 4, record, 4, record.length - 4);
+        buffer.putInt(offset, record.length - HEADER_BYTES);
+        writePosition = offset + record.length;
+        return offset;
+    }
+
+    byte[] readBody(int offset) {
+        byte[] body = new byte[buffer.getInt(offset)];
+        buffer.get(offset + HEADER_BYTES, body);
+        return body;
+    }
+
+    byte[] readRecord(int offset) {
+        byte[] record = new byte[HEADER_BYTES + buffer.getInt(offset)];
+        buffer.get(offset, record);
+        return record;
+    }
+
+    int recordSize(int offset) {
+        return HEADER_BYTES + buffer.getInt(offset);
+    }
+
+    long readLong(int offset, int bodyOffset) {
+        return buffer.getLong(offset + HEADER_BYTES + bodyOffset);
+    }
+
+    int readInt(int offset, int bodyOffset) {
+        return buffer.getInt(offset + HEADER_BYTES + bodyOffset);
+    }
+
+    /**
+     * Проверяет запись по смещению при восстановлении.
+     *
+     * @return длина тела; {@code 0} — конец данных; {@code -1} — оборванная или поврежденная запись
+     */
+    int validate(int offset) {
+        if (offset + HEADER_BYTES > buffer.capacity()) {
+            return 0;
+        }
+        int length = buffer.getInt(offset);
+        if (length == 0) {
+            return 0;
+        }
+        if (length < 0 || offset + HEADER_BYTES + length > buffer.capacity()) {
+            return -1;
+        }
+        byte[] body = new byte[length];
+        buffer.get(offset + HEADER_BYTES, body);
+        return crc(body) == buffer.getInt(offset + 4) ? length : -1;
+    }
+
+    /**
+     * Обрезает журнал после оборванной записи: хвост заполняется нулями.
+     */
+    void truncate(int offset) {
+        for (int i = offset; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        writePosition = offset;
+    }
+
+    void setWritePosition(int writePosition) {
+        this.writePosition = writePosition;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete segment " + path, e);
+        }
+    }
+
+    private static int crc(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,560 @@
+package com.reactiverates.auth.infrastructure.persistance.embedded;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import com.reactiverates.auth.application.service.TokenIdGenerator;
+import com.reactiverates.auth.domain.model.SessionCursor;
+import com.reactiverates.auth.domain.service.RefreshTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Встроенное хранилище refresh токенов без базы данных.
+ * <p>
+ * Состояние — журнал только на добавление из сегментов фиксированного размера, отображенных в память:
+ * каждая выдача и замена токена дописывает полную запись сессии, удаление — короткую запись-надгробие.
+ * Индексы «id → позиция записи» и «ключ токена → позиция записи» хранятся вне кучи ({@link OffHeapIndex}),
+ * в куче остаются только упорядоченный список сессий каждого пользователя и очередь сессий по сроку истечения,
+ * по которой истекшие сессии находятся без обхода всего индекса.
+ * <p>
+ * При открытии журнал проигрывается заново; запись с неверной длиной или CRC считается оборванной,
+ * и хвост сегмента обнуляется. Когда доля устаревших записей превышает порог, живые записи
+ * копируются в новые сегменты, а старые удаляются; прерванное уплотнение при повторном
+ * проигрывании дает то же состояние.
+ * <p>
+ * Записи видны другим процессам и переживают падение JVM сразу; переживают падение ОС —
+ * после {@code force}, то есть при {@code sync-on-write} или закрытии хранилища.
+ */
+@Slf4j
+public class MappedRefreshTokenStore implements RefreshTokenStore, AutoCloseable {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    /** Следующий id; пишется в начало сегмента, чтобы id удаленных сессий не выдавались повторно */
+    private static final byte NEXT_ID = 3;
+
+    /** Записи DELETE и NEXT_ID: тип и {@code long} */
+    private static final int SHORT_RECORD_BYTES = 9;
+
+    private static final int ID_OFFSET = 1;
+    private static final int USER_ID_OFFSET = 9;
+    private static final int HASH_OFFSET = 17;
+    private static final int EXPIRY_OFFSET = HASH_OFFSET + TokenIdGenerator.STORAGE_KEY_BYTES;
+    private static final long NULL_INSTANT = Long.MIN_VALUE;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+
+    private static final Comparator<SessionKey> NEWEST_FIRST = Comparator
+        .comparing(SessionKey::createdAt)
+        .thenComparingLong(SessionKey::id)
+        .reversed();
+
+    private static final Comparator<ExpiryKey> EARLIEST_EXPIRY_FIRST = Comparator
+        .comparing(ExpiryKey::expiryDate)
+        .thenComparingLong(ExpiryKey::id);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final double compactionThreshold;
+    private final boolean syncOnWrite;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Integer, LogSegment> segments = new TreeMap<>();
+    private final OffHeapIndex byId;
+    private final OffHeapIndex byHash;
+    private final Map<Long, NavigableSet<SessionKey>> sessionsByUser = new HashMap<>();
+    private final NavigableSet<ExpiryKey> byExpiry = new TreeSet<>(EARLIEST_EXPIRY_FIRST);
+
+    private LogSegment active;
+    private long nextId = 1;
+    private long totalBytes;
+    private long deadBytes;
+
+    public MappedRefreshTokenStore(Path directory, int segmentSize, int initialCapacity,
+            double compactionThreshold, boolean syncOnWrite) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        this.syncOnWrite = syncOnWrite;
+        this.byId = new OffHeapIndex(initialCapacity);
+        this.byHash = new OffHeapIndex(initialCapacity);
+        recover();
+    }
+
+    @Override
+    public RefreshToken insert(RefreshToken token, int maxSessionsPerUser) {
+        byte[] hash = token.getTokenHash();
+        if (hash == null || hash.length != TokenIdGenerator.STORAGE_KEY_BYTES) {
+            throw new IllegalArgumentException("Token hash must be " + TokenIdGenerator.STORAGE_KEY_BYTES + " bytes");
+        }
+        return write(() -> {
+            if (byHash.get(high(hash), low(hash)) != OffHeapIndex.MISSING) {
+                throw new IllegalStateException("Duplicate refresh token key");
+            }
+            token.setId(nextId++);
+            applyPut(token, append(encodePut(token)));
+
+            // Новая сессия уже записана, поэтому лимит вытесняет только более старые
+            NavigableSet<SessionKey> sessions = sessionsByUser.get(token.getUserId());
+            while (sessions.size() > maxSessionsPerUser) {
+                deleteLive(sessions.last().id());
+            }
+            return token;
+        });
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(byte[] tokenHash) {
+        if (tokenHash.length != TokenIdGenerator.STORAGE_KEY_BYTES) {
+            return Optional.empty();
+        }
+        return read(() -> {
+            long location = byHash.get(high(tokenHash), low(tokenHash));
+            return location == OffHeapIndex.MISSING ? Optional.empty() : Optional.of(decode(bodyAt(location)));
+        });
+    }
+
+    @Override
+    public Optional<RefreshToken> findById(long id) {
+        return read(() -> {
+            long location = byId.get(id, 0);
+            return location == OffHeapIndex.MISSING ? Optional.empty() : Optional.of(decode(bodyAt(location)));
+        });
+    }
+
+    @Override
+    public boolean rotate(long id, byte[] oldHash, byte[] newHash, Instant expiryDate, Instant lastUsedAt) {
+        return write(() -> {
+            long location = byId.get(id, 0);
+            if (location == OffHeapIndex.MISSING) {
+                return false;
+            }
+            RefreshToken token = decode(bodyAt(location));
+            if (!Arrays.equals(token.getTokenHash(), oldHash)) {
+                return false;
+            }
+            token.setTokenHash(newHash);
+            token.setExpiryDate(expiryDate);
+            token.setLastUsedAt(lastUsedAt);
+            applyPut(token, append(encodePut(token)));
+            return true;
+        });
+    }
+
+    @Override
+    public List<RefreshToken> findSessions(Long userId, SessionCursor after, int limit) {
+        return read(() -> {
+            NavigableSet<SessionKey> sessions = sessionsByUser.get(userId);
+            if (sessions == null) {
+                return List.of();
+            }
+            NavigableSet<SessionKey> page = after == null
+                ? sessions
+                : sessions.tailSet(new SessionKey(after.createdAt(), after.id()), false);
+            List<RefreshToken> result = new ArrayList<>(Math.min(limit, page.size()));
+            for (SessionKey key : page) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(decode(bodyAt(byId.get(key.id(), 0))));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean deleteSession(long id, Long userId) {
+        return write(() -> {
+            long location = byId.get(id, 0);
+            if (location == OffHeapIndex.MISSING || segment(location).readLong(offset(location), USER_ID_OFFSET) != userId) {
+                return false;
+            }
+            return deleteLive(id);
+        });
+    }
+
+    @Override
+    public int deleteByUserId(Long userId) {
+        return write(() -> {
+            NavigableSet<SessionKey> sessions = sessionsByUser.get(userId);
+            if (sessions == null) {
+                return 0;
+            }
+            List<SessionKey> keys = new ArrayList<>(sessions);
+            keys.forEach(key -> deleteLive(key.id()));
+            return keys.size();
+        });
+    }
+
+    @Override
+    public int deleteExpired(Instant now, int limit) {
+        return write(() -> {
+            int deleted = 0;
+            while (deleted < limit && !byExpiry.isEmpty() && byExpiry.first().expiryDate().isBefore(now)) {
+                deleteLive(byExpiry.first().id());
+                deleted++;
+            }
+            compactIfNeeded();
+            return deleted;
+        });
+    }
+
+    @Override
+    public long countExpired(Instant now) {
+        // Обходятся только истекшие сессии, а не весь индекс
+        return read(() -> (long) byExpiry.headSet(new ExpiryKey(now, Long.MIN_VALUE)).size());
+    }
+
+    /**
+     * Переписывает живые записи в новые сегменты и удаляет старые.
+     */
+    public void compact() {
+        write(() -> {
+            List<LogSegment> obsolete = new ArrayList<>(segments.values());
+            long before = totalBytes;
+            totalBytes = 0;
+            deadBytes = 0;
+            roll();
+            byId.forEach((id, ignored, location) -> {
+                byte[] record = segment(location).readRecord(offset(location));
+                if (!active.hasRoomFor(record.length - LogSegment.HEADER_BYTES)) {
+                    roll();
+                }
+                long moved = location(active.sequence(), active.appendRaw(record));
+                totalBytes += record.length;
+                // Ключи уже есть в индексах: значения меняются на месте, без перестроения таблиц
+                byId.put(id, 0, moved);
+                byHash.put(readHigh(record), readLow(record), moved);
+            });
+            segments.values().stream().filter(segment -> !obsolete.contains(segment)).forEach(LogSegment::force);
+            for (LogSegment segment : obsolete) {
+                segments.remove(segment.sequence());
+                segment.delete();
+            }
+            log.info("Compacted refresh token log: {} -> {} bytes, {} live sessions", before, totalBytes, byId.size());
+            return null;
+        });
+    }
+
+    public long size() {
+        return read(() -> (long) byId.size());
+    }
+
+    public long totalBytes() {
+        return read(() -> totalBytes);
+    }
+
+    public long deadBytes() {
+        return read(() -> deadBytes);
+    }
+
+    @Override
+    public void close() {
+        write(() -> {
+            segments.values().forEach(LogSegment::force);
+            return null;
+        });
+    }
+
+    private void recover() {
+        try {
+            Files.createDirectories(directory);
+            List<Integer> sequences;
+            try (Stream<Path> files = Files.list(directory)) {
+                sequences = files
+                    .map(path -> SEGMENT_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Integer.parseInt(matcher.group(1)))
+                    .sorted()
+                    .toList();
+            }
+            for (int sequence : sequences) {
+                LogSegment segment = LogSegment.open(directory, sequence, segmentSize);
+                segments.put(sequence, segment);
+                replay(segment);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open refresh token log in " + directory, e);
+        }
+        if (segments.isEmpty()) {
+            roll();
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        log.info("Opened refresh token log {}: {} segments, {} live sessions, {} of {} bytes obsolete",
+            directory, segments.size(), byId.size(), deadBytes, totalBytes);
+    }
+
+    private void replay(LogSegment segment) {
+        int offset = 0;
+        while (true) {
+            int length = segment.validate(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0) {
+                log.warn("Truncating refresh token segment {} at offset {}: torn or corrupted record",
+                    segment.sequence(), offset);
+                segment.truncate(offset);
+                break;
+            }
+            byte[] body = segment.readBody(offset);
+            int size = LogSegment.HEADER_BYTES + length;
+            totalBytes += size;
+            switch (body[0]) {
+                case PUT -> applyPut(decode(body), location(segment.sequence(), offset));
+                case DELETE -> {
+                    removeLive(ByteBuffer.wrap(body).getLong(ID_OFFSET));
+                    deadBytes += size;
+                }
+                case NEXT_ID -> {
+                    nextId = Math.max(nextId, ByteBuffer.wrap(body).getLong(ID_OFFSET));
+                    deadBytes += size;
+                }
+                default -> throw new IllegalStateException("Unknown record type " + body[0] + " in segment " + segment.sequence());
+            }
+            offset += size;
+        }
+        segment.setWritePosition(offset);
+    }
+
+    private void applyPut(RefreshToken token, long location) {
+        long previous = byId.put(token.getId(), 0, location);
+        if (previous == OffHeapIndex.MISSING) {
+            sessionsByUser.computeIfAbsent(token.getUserId(), userId -> new TreeSet<>(NEWEST_FIRST))
+                .add(new SessionKey(token.getCreatedAt(), token.getId()));
+        } else {
+            byExpiry.remove(new ExpiryKey(expiryAt(previous), token.getId()));
+            LogSegment segment = segment(previous);
+            byte[] previousRecord = segment.readRecord(offset(previous));
+            byHash.remove(readHigh(previousRecord), readLow(previousRecord));
+            deadBytes += previousRecord.length;
+        }
+        byExpiry.add(new ExpiryKey(token.getExpiryDate(), token.getId()));
+        byte[] hash = token.getTokenHash();
+        byHash.put(high(hash), low(hash), location);
+        nextId = Math.max(nextId, token.getId() + 1);
+    }
+
+    private boolean deleteLive(long id) {
+        if (byId.get(id, 0) == OffHeapIndex.MISSING) {
+            return false;
+        }
+        byte[] tombstone = ByteBuffer.allocate(SHORT_RECORD_BYTES).put(DELETE).putLong(id).array();
+        append(tombstone);
+        deadBytes += LogSegment.HEADER_BYTES + tombstone.length;
+        return removeLive(id);
+    }
+
+    private boolean removeLive(long id) {
+        long location = byId.remove(id, 0);
+        if (location == OffHeapIndex.MISSING) {
+            return false;
+        }
+        RefreshToken token = decode(bodyAt(location));
+        byte[] hash = token.getTokenHash();
+        byHash.remove(high(hash), low(hash));
+        byExpiry.remove(new ExpiryKey(token.getExpiryDate(), id));
+        NavigableSet<SessionKey> sessions = sessionsByUser.get(token.getUserId());
+        sessions.remove(new SessionKey(token.getCreatedAt(), id));
+        if (sessions.isEmpty()) {
+            sessionsByUser.remove(token.getUserId());
+        }
+        deadBytes += segment(location).recordSize(offset(location));
+        return true;
+    }
+
+    /**
+     * Дописывает запись в активный сегмент, при необходимости открывая следующий.
+     *
+     * @return позиция записи
+     */
+    private long append(byte[] body) {
+        // Запись должна поместиться в новый сегмент после записи NEXT_ID
+        if (2 * LogSegment.HEADER_BYTES + SHORT_RECORD_BYTES + body.length > segmentSize) {
+            throw new IllegalArgumentException("Record of " + body.length + " bytes does not fit a segment");
+        }
+        if (!active.hasRoomFor(body.length)) {
+            roll();
+        }
+        int offset = active.append(body);
+        totalBytes += LogSegment.HEADER_BYTES + body.length;
+        if (syncOnWrite) {
+            active.force();
+        }
+        return location(active.sequence(), offset);
+    }
+
+    private void roll() {
+        int sequence = active == null ? 1 : active.sequence() + 1;
+        if (active != null) {
+            active.force();
+        }
+        active = LogSegment.open(directory, sequence, segmentSize);
+        segments.put(sequence, active);
+        append(ByteBuffer.allocate(SHORT_RECORD_BYTES).put(NEXT_ID).putLong(nextId).array());
+        deadBytes += LogSegment.HEADER_BYTES + SHORT_RECORD_BYTES;
+    }
+
+    private void compactIfNeeded() {
+        if (totalBytes > segmentSize && deadBytes >= totalBytes * compactionThreshold) {
+            compact();
+        }
+    }
+
+    private Instant expiryAt(long location) {
+        LogSegment segment = segment(location);
+        int offset = offset(location);
+        return Instant.ofEpochSecond(segment.readLong(offset, EXPIRY_OFFSET), segment.readInt(offset, EXPIRY_OFFSET + 8));
+    }
+
+    private byte[] bodyAt(long location) {
+        return segment(location).readBody(offset(location));
+    }
+
+    private LogSegment segment(long location) {
+        return segments.get((int) (location >>> 32));
+    }
+
+    private static int offset(long location) {
+        return (int) location;
+    }
+
+    private static long location(int sequence, int offset) {
+        return ((long) sequence << 32) | offset;
+    }
+
+    private static byte[] encodePut(RefreshToken token) {
+        byte[] deviceName = utf8(token.getDeviceName());
+        byte[] userAgent = utf8(token.getUserAgent());
+        byte[] ipAddress = utf8(token.getIpAddress());
+        ByteBuffer buffer = ByteBuffer.allocate(EXPIRY_OFFSET + 3 * 12 + 3 * 2
+            + length(deviceName) + length(userAgent) + length(ipAddress));
+        buffer.put(PUT)
+            .putLong(token.getId())
+            .putLong(token.getUserId())
+            .put(token.getTokenHash());
+        putInstant(buffer, token.getExpiryDate());
+        putInstant(buffer, token.getCreatedAt());
+        putInstant(buffer, token.getLastUsedAt());
+        putString(buffer, deviceName);
+        putString(buffer, userAgent);
+        putString(buffer, ipAddress);
+        return buffer.array();
+    }
+
+    private static RefreshToken decode(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body, ID_OFFSET, body.length - ID_OFFSET);
+        long id = buffer.getLong();
+        long userId = buffer.getLong();
+        byte[] hash = new byte[TokenIdGenerator.STORAGE_KEY_BYTES];
+        buffer.get(hash);
+        return RefreshToken.builder()
+            .id(id)
+            .userId(userId)
+            .tokenHash(hash)
+            .expiryDate(getInstant(buffer))
+            .createdAt(getInstant(buffer))
+            .lastUsedAt(getInstant(buffer))
+            .deviceName(getString(buffer))
+            .userAgent(getString(buffer))
+            .ipAddress(getString(buffer))
+            .build();
+    }
+
+    private static void putInstant(ByteBuffer buffer, Instant instant) {
+        buffer.putLong(instant == null ? NULL_INSTANT : instant.getEpochSecond())
+            .putInt(instant == null ? 0 : instant.getNano());
+    }
+
+    private static Instant getInstant(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == NULL_INSTANT ? null : Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        buffer.putShort((short) (value == null ? -1 : value.length));
+        if (value != null) {
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static long high(byte[] hash) {
+        return ByteBuffer.wrap(hash).getLong(0);
+    }
+
+    private static long low(byte[] hash) {
+        return ByteBuffer.wrap(hash).getLong(8);
+    }
+
+    private static long readHigh(byte[] record) {
+        return ByteBuffer.wrap(record).getLong(LogSegment.HEADER_BYTES + HASH_OFFSET);
+    }
+
+    private static long readLow(byte[] record) {
+        return ByteBuffer.wrap(record).getLong(LogSegment.HEADER_BYTES + HASH_OFFSET + 8);
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record SessionKey(Instant createdAt, long id) { }
+
+    private record ExpiryKey(Instant expiryDate, long id) { }
+}
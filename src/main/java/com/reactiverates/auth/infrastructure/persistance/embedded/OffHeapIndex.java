@@ -0,0 +1,163 @@
+package com.reactiverates.auth.infrastructure.persistance.embedded;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Хеш-таблица с открытой адресацией вне кучи: 128-битный ключ (два {@code long}) → неотрицательный {@code long}.
+ * Слот занимает 32 байта (состояние, две половины ключа, значение); удаление оставляет tombstone,
+ * которые убираются при перестроении таблицы. Не потокобезопасна, синхронизацию обеспечивает владелец.
+ */
+final class OffHeapIndex {
+
+    static final long MISSING = -1L;
+
+    private static final int SLOT_BYTES = 32;
+    private static final long EMPTY = 0;
+    private static final long USED = 1;
+    private static final long DELETED = 2;
+    private static final double MAX_LOAD = 0.7;
+
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+    private int tombstones;
+
+    OffHeapIndex(int initialCapacity) {
+        allocate(Integer.highestOneBit(Math.max(16, initialCapacity - 1) << 1));
+    }
+
+    long get(long k1, long k2) {
+        int slot = find(k1, k2);
+        return slot >= 0 ? slots.getLong(slot * SLOT_BYTES + 24) : MISSING;
+    }
+
+    /**
+     * @return предыдущее значение или {@link #MISSING}
+     */
+    long put(long k1, long k2, long value) {
+        int slot = find(k1, k2);
+        if (slot >= 0) {
+            // Замена значения не меняет раскладку: безопасна во время forEach
+            long previous = slots.getLong(slot * SLOT_BYTES + 24);
+            slots.putLong(slot * SLOT_BYTES + 24, value);
+            return previous;
+        }
+        if (size + tombstones + 1 > capacity * MAX_LOAD) {
+            // Если место заняли tombstones, перестраиваем таблицу того же размера
+            rehash(size + 1 > capacity * MAX_LOAD / 2 ? capacity << 1 : capacity);
+        }
+        insertNew(k1, k2, value);
+        return MISSING;
+    }
+
+    /**
+     * @return удаленное значение или {@link #MISSING}
+     */
+    long remove(long k1, long k2) {
+        int slot = find(k1, k2);
+        if (slot < 0) {
+            return MISSING;
+        }
+        long previous = slots.getLong(slot * SLOT_BYTES + 24);
+        slots.putLong(slot * SLOT_BYTES, DELETED);
+        size--;
+        tombstones++;
+        return previous;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = slot * SLOT_BYTES;
+            if (slots.getLong(base) == USED) {
+                consumer.accept(slots.getLong(base + 8), slots.getLong(base + 16), slots.getLong(base + 24));
+            }
+        }
+    }
+
+    private int find(long k1, long k2) {
+        int mask = capacity - 1;
+        for (int slot = index(k1, k2), probes = 0; probes < capacity; slot = (slot + 1) & mask, probes++) {
+            int base = slot * SLOT_BYTES;
+            long state = slots.getLong(base);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == USED && slots.getLong(base + 8) == k1 && slots.getLong(base + 16) == k2) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insertNew(long k1, long k2, long value) {
+        int mask = capacity - 1;
+        int slot = index(k1, k2);
+        while (true) {
+            int base = slot * SLOT_BYTES;
+            long state = slots.getLong(base);
+            if (state != USED) {
+                if (state == DELETED) {
+                    tombstones--;
+                }
+                slots.putLong(base, USED);
+                slots.putLong(base + 8, k1);
+                slots.putLong(base + 16, k2);
+                slots.putLong(base + 24, value);
+                size++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        ByteBuffer old = slots;
+        int oldCapacity = capacity;
+        allocate(newCapacity);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int base = slot * SLOT_BYTES;
+            if (old.getLong(base) == USED) {
+                insertNew(old.getLong(base + 8), old.getLong(base + 16), old.getLong(base + 24));
+            }
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        if ((long) newCapacity * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap index capacity exceeded: " + newCapacity);
+        }
+        // allocateDirect заполняет память нулями, то есть всеми слотами EMPTY
+        slots = ByteBuffer.allocateDirect(newCapacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        capacity = newCapacity;
+        size = 0;
+        tombstones = 0;
+    }
+
+    private int index(long k1, long k2) {
+        return (int) mix(k1 ^ Long.rotateLeft(k2, 32)) & (capacity - 1);
+    }
+
+    /** Финализатор MurmurHash3 */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long k1, long k2, long value);
+    }
+}
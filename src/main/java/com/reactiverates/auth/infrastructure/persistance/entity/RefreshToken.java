@@ -7,7 +7,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,14 +21,28 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens",
+    uniqueConstraints = @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = "token_hash"),
+    indexes = {
+        @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date"),
+        // Список сессий пользователя (keyset по created_at, id) и вытеснение самых старых
+        @Index(name = "idx_refresh_tokens_user_sessions", columnList = "user_id, created_at, id")
+    })
 public class RefreshToken {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
     
-    @Column(nullable = false, unique = true)
+    /**
+     * Ключ хранения идентификатора токена, см. {@code TokenIdGenerator#storageKey}.
+     * Сам идентификатор в базу не попадает.
+     */
+    @Column(name = "token_hash", nullable = false, length = 16)
+    private byte[] tokenHash;
+
+    /** Идентификатор токена из JWT; известен только в пределах запроса */
+    @Transient
     private String token;
     
     @Column(nullable = false)
@@ -33,4 +50,19 @@ public class RefreshToken {
     
     @Column(name = "user_id", nullable = false)
     private Long userId; // Храним только ID пользователя вместо связи
+
+    @Column(name = "device_name", length = 100)
+    private String deviceName;
+
+    @Column(name = "user_agent", length = 512)
+    private String userAgent;
+
+    @Column(name = "ip_address", length = 45)
+    private String ipAddress;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "last_used_at")
+    private Instant lastUsedAt;
 } 
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.reactiverates.auth.infrastructure.persistance.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Отозванный до истечения access токен. Строка нужна только до {@code expiresAt}:
+ * после этого токен отклоняется по сроку действия и строка удаляется очисткой.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revoked_access_tokens",
+    indexes = {
+        @Index(name = "idx_revoked_access_tokens_expires_at", columnList = "expires_at"),
+        // Догрузка отзывов с других узлов по времени отзыва
+        @Index(name = "idx_revoked_access_tokens_revoked_at", columnList = "revoked_at")
+    })
+public class RevokedAccessToken {
+
+    /**
+     * Ключ хранения {@code jti} или отозванной сессии,
+     * см. {@code TokenIdGenerator#storageKey} и {@code TokenIdGenerator#sessionKey}
+     */
+    @Id
+    @Column(name = "token_hash", length = 16)
+    private byte[] tokenHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
@@ -0,0 +1,168 @@
+package com.reactiverates.auth.infrastructure.persistance.reactive;
+
+import java.time.Instant;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.reactiverates.auth.domain.model.SessionCursor;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Хранилище refresh токенов на R2DBC для реактивного профиля.
+ * Работает с той же таблицей {@code refresh_tokens}, что и JPA репозиторий.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class R2dbcRefreshTokenStore {
+
+    private final DatabaseClient databaseClient;
+
+    private static final String COLUMNS =
+        "id, token_hash, expiry_date, user_id, device_name, user_agent, ip_address, created_at, last_used_at";
+
+    /**
+     * Вставляет новую сессию и удаляет сессии пользователя сверх {@code keep} самых новых.
+     */
+    public Mono<RefreshToken> insert(RefreshToken refreshToken, int keep) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient
+            .sql("""
+                INSERT INTO refresh_tokens
+                    (user_id, token_hash, expiry_date, device_name, user_agent, ip_address, created_at, last_used_at)
+                VALUES (:userId, :tokenHash, :expiryDate, :deviceName, :userAgent, :ipAddress, :createdAt, :lastUsedAt)
+                RETURNING id
+                """)
+            .bind("userId", refreshToken.getUserId())
+            .bind("tokenHash", refreshToken.getTokenHash())
+            .bind("expiryDate", refreshToken.getExpiryDate())
+            .bind("createdAt", refreshToken.getCreatedAt())
+            .bind("lastUsedAt", refreshToken.getLastUsedAt());
+        insert = bindNullable(insert, "deviceName", refreshToken.getDeviceName());
+        insert = bindNullable(insert, "userAgent", refreshToken.getUserAgent());
+        insert = bindNullable(insert, "ipAddress", refreshToken.getIpAddress());
+        return insert
+            .map(row -> row.get("id", Long.class))
+            .one()
+            .doOnNext(refreshToken::setId)
+            .then(deleteOldestSessions(refreshToken.getUserId(), keep))
+            .thenReturn(refreshToken);
+    }
+
+    public Mono<Long> deleteOldestSessions(Long userId, int keep) {
+        return databaseClient
+            .sql("""
+                DELETE FROM refresh_tokens WHERE id IN (
+                    SELECT id FROM refresh_tokens
+                    WHERE user_id = :userId
+                    ORDER BY created_at DESC, id DESC
+                    OFFSET :keep)
+                """)
+            .bind("userId", userId)
+            .bind("keep", keep)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Заменяет ключ хранения токена сессии, если он еще не был заменен.
+     *
+     * @return число обновленных строк: {@code 0}, если токен уже использован
+     */
+    public Mono<Long> rotate(long id, byte[] oldHash, byte[] newHash, Instant expiryDate, Instant now) {
+        return databaseClient
+            .sql("""
+                UPDATE refresh_tokens SET token_hash = :newHash, expiry_date = :expiryDate, last_used_at = :now
+                WHERE id = :id AND token_hash = :oldHash
+                """)
+            .bind("id", id)
+            .bind("oldHash", oldHash)
+            .bind("newHash", newHash)
+            .bind("expiryDate", expiryDate)
+            .bind("now", now)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Страница сессий пользователя от новых к старым; {@code after} — курсор keyset пагинации или {@code null}.
+     */
+    public Flux<RefreshToken> findSessions(Long userId, SessionCursor after, int limit) {
+        if (after == null) {
+            return databaseClient
+                .sql("SELECT " + COLUMNS + " FROM refresh_tokens WHERE user_id = :userId "
+                    + "ORDER BY created_at DESC, id DESC LIMIT :limit")
+                .bind("userId", userId)
+                .bind("limit", limit)
+                .map(R2dbcRefreshTokenStore::toRefreshToken)
+                .all();
+        }
+        return databaseClient
+            .sql("SELECT " + COLUMNS + " FROM refresh_tokens WHERE user_id = :userId "
+                + "AND (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit")
+            .bind("userId", userId)
+            .bind("createdAt", after.createdAt())
+            .bind("id", after.id())
+            .bind("limit", limit)
+            .map(R2dbcRefreshTokenStore::toRefreshToken)
+            .all();
+    }
+
+    public Mono<RefreshToken> findByTokenHash(byte[] tokenHash) {
+        return databaseClient
+            .sql("SELECT " + COLUMNS + " FROM refresh_tokens WHERE token_hash = :tokenHash")
+            .bind("tokenHash", tokenHash)
+            .map(R2dbcRefreshTokenStore::toRefreshToken)
+            .one();
+    }
+
+    public Mono<Long> deleteByUserId(Long userId) {
+        return databaseClient
+            .sql("DELETE FROM refresh_tokens WHERE user_id = :userId")
+            .bind("userId", userId)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(long id) {
+        return databaseClient
+            .sql("DELETE FROM refresh_tokens WHERE id = :id")
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByIdAndUserId(long id, Long userId) {
+        return databaseClient
+            .sql("DELETE FROM refresh_tokens WHERE id = :id AND user_id = :userId")
+            .bind("id", id)
+            .bind("userId", userId)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+            String name, String value) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, String.class);
+    }
+
+    private static RefreshToken toRefreshToken(Readable row) {
+        return RefreshToken.builder()
+            .id(row.get("id", Long.class))
+            .tokenHash(row.get("token_hash", byte[].class))
+            .expiryDate(row.get("expiry_date", Instant.class))
+            .userId(row.get("user_id", Long.class))
+            .deviceName(row.get("device_name", String.class))
+            .userAgent(row.get("user_agent", String.class))
+            .ipAddress(row.get("ip_address", String.class))
+            .createdAt(row.get("created_at", Instant.class))
+            .lastUsedAt(row.get("last_used_at", Instant.class))
+            .build();
+    }
+}
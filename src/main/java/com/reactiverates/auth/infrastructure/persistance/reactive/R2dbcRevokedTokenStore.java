@@ -0,0 +1,85 @@
+package com.reactiverates.auth.infrastructure.persistance.reactive;
+
+import java.time.Instant;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.reactiverates.auth.infrastructure.persistance.entity.RevokedAccessToken;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Отозванные access токены на R2DBC для реактивного профиля, таблица {@code revoked_access_tokens}.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class R2dbcRevokedTokenStore {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Long> revoke(byte[] tokenHash, Instant expiresAt, Instant revokedAt) {
+        return databaseClient
+            .sql("""
+                INSERT INTO revoked_access_tokens (token_hash, expires_at, revoked_at)
+                VALUES (:tokenHash, :expiresAt, :revokedAt)
+                ON CONFLICT (token_hash) DO NOTHING
+                """)
+            .bind("tokenHash", tokenHash)
+            .bind("expiresAt", expiresAt)
+            .bind("revokedAt", revokedAt)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    public Mono<Boolean> isRevoked(byte[] tokenHash, Instant now) {
+        return databaseClient
+            .sql("SELECT 1 FROM revoked_access_tokens WHERE token_hash = :tokenHash AND expires_at > :now")
+            .bind("tokenHash", tokenHash)
+            .bind("now", now)
+            .map(row -> Boolean.TRUE)
+            .first()
+            .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    public Flux<RevokedAccessToken> findRevokedSince(Instant revokedSince, Instant now) {
+        return databaseClient
+            .sql("""
+                SELECT token_hash, expires_at, revoked_at FROM revoked_access_tokens
+                WHERE revoked_at >= :revokedSince AND expires_at > :now
+                """)
+            .bind("revokedSince", revokedSince)
+            .bind("now", now)
+            .map(R2dbcRevokedTokenStore::toRevokedAccessToken)
+            .all();
+    }
+
+    public Mono<Long> deleteExpired(Instant now, int limit) {
+        return databaseClient
+            .sql("""
+                DELETE FROM revoked_access_tokens WHERE token_hash IN (
+                    SELECT token_hash FROM revoked_access_tokens
+                    WHERE expires_at < :now
+                    ORDER BY expires_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED)
+                """)
+            .bind("now", now)
+            .bind("limit", limit)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    private static RevokedAccessToken toRevokedAccessToken(Readable row) {
+        return RevokedAccessToken.builder()
+            .tokenHash(row.get("token_hash", byte[].class))
+            .expiresAt(row.get("expires_at", Instant.class))
+            .revokedAt(row.get("revoked_at", Instant.class))
+            .build();
+    }
+}
@@ -1,5 +1,7 @@
 package com.reactiverates.auth.infrastructure.persistance.repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -7,21 +9,90 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     
-    Optional<RefreshToken> findByToken(String token);
-    
-    Optional<RefreshToken> findByUserId(Long userId);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
     
+    /**
+     * Удаляет сессии пользователя сверх {@code keep} самых новых.
+     * Читает только индекс {@code (user_id, created_at, id)} одного пользователя.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        DELETE FROM refresh_tokens WHERE id IN (
+            SELECT id FROM refresh_tokens
+            WHERE user_id = :userId
+            ORDER BY created_at DESC, id DESC
+            OFFSET :keep)
+        """, nativeQuery = true)
+    int deleteOldestSessions(@Param("userId") Long userId, @Param("keep") int keep);
+
+    /**
+     * Заменяет токен сессии, только если он еще не был заменен: из двух параллельных обновлений
+     * одним refresh токеном успешно только одно.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE RefreshToken rt SET rt.tokenHash = :newHash, rt.expiryDate = :expiryDate, rt.lastUsedAt = :now
+        WHERE rt.id = :id AND rt.tokenHash = :oldHash
+        """)
+    int rotate(@Param("id") long id, @Param("oldHash") byte[] oldHash, @Param("newHash") byte[] newHash,
+            @Param("expiryDate") Instant expiryDate, @Param("now") Instant now);
+
+    @Query(value = """
+        SELECT * FROM refresh_tokens
+        WHERE user_id = :userId
+        ORDER BY created_at DESC, id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<RefreshToken> findSessions(@Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * Следующая страница сессий после курсора {@code (createdAt, id)}; сравнение кортежей
+     * продолжает сканирование индекса с позиции курсора без OFFSET.
+     */
+    @Query(value = """
+        SELECT * FROM refresh_tokens
+        WHERE user_id = :userId AND (created_at, id) < (:createdAt, :id)
+        ORDER BY created_at DESC, id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<RefreshToken> findSessionsAfter(@Param("userId") Long userId, @Param("createdAt") Instant createdAt,
+            @Param("id") long id, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.id = :id AND rt.userId = :userId")
+    int deleteByIdAndUserId(@Param("id") long id, @Param("userId") Long userId);
+
+    @Transactional
     @Modifying
     @Query("DELETE FROM RefreshToken rt WHERE rt.userId = :userId")
-    void deleteByUserId(@Param("userId") Long userId);
+    int deleteByUserId(@Param("userId") Long userId);
     
+    /**
+     * Удаляет порцию истекших токенов по индексу {@code expiry_date}.
+     * Строки, заблокированные другим экземпляром сервиса, пропускаются, поэтому очистку
+     * можно запускать на нескольких подах одновременно.
+     */
+    @Transactional
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :now")
-    void deleteExpiredTokens(java.time.Instant now);
-} 
\ No newline at end of file
+    @Query(value = """
+        DELETE FROM refresh_tokens WHERE id IN (
+            SELECT id FROM refresh_tokens
+            WHERE expiry_date < :now
+            ORDER BY expiry_date
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED)
+        """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    long countByExpiryDateBefore(Instant now);
+} 
@@ -0,0 +1,46 @@
+package com.reactiverates.auth.infrastructure.persistance.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reactiverates.auth.infrastructure.persistance.entity.RevokedAccessToken;
+
+@Repository
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, byte[]> {
+
+    /**
+     * Повторный отзыв того же токена ничего не меняет.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO revoked_access_tokens (token_hash, expires_at, revoked_at)
+        VALUES (:tokenHash, :expiresAt, :revokedAt)
+        ON CONFLICT (token_hash) DO NOTHING
+        """, nativeQuery = true)
+    int insertIfAbsent(@Param("tokenHash") byte[] tokenHash, @Param("expiresAt") Instant expiresAt,
+            @Param("revokedAt") Instant revokedAt);
+
+    boolean existsByTokenHashAndExpiresAtAfter(byte[] tokenHash, Instant now);
+
+    List<RevokedAccessToken> findByRevokedAtGreaterThanEqualAndExpiresAtAfter(Instant revokedSince, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        DELETE FROM revoked_access_tokens WHERE token_hash IN (
+            SELECT token_hash FROM revoked_access_tokens
+            WHERE expires_at < :now
+            ORDER BY expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED)
+        """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("limit") int limit);
+}
@@ -0,0 +1,157 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.reactiverates.auth.domain.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Выполняет хеширование и проверку паролей на выделенном пуле фиксированного размера с ограниченной очередью,
+ * чтобы всплеск логинов не занимал все ядра и потоки запросов.
+ * Если задача не начала выполняться за {@code queueTimeout} или очередь заполнена,
+ * вызов отклоняется с {@link ServiceOverloadedException}.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int CANCELLED = 2;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration queueTimeout;
+    private final Duration retryAfter;
+
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Timer queueWaitTimer;
+    private Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity,
+            Duration queueTimeout, Duration retryAfter) {
+        this.delegate = delegate;
+        this.queueTimeout = queueTimeout;
+        this.retryAfter = retryAfter;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-encoder-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public void bindMetrics(MeterRegistry registry) {
+        // executor.pool.size, executor.active, executor.queued, executor.queue.remaining, executor.completed
+        new ExecutorServiceMetrics(executor, "password-encoder", List.of()).bindTo(registry);
+        encodeTimer = Timer.builder("password.encoder.hash")
+            .description("Password hashing time on the worker pool")
+            .tag("operation", "encode")
+            .register(registry);
+        matchesTimer = Timer.builder("password.encoder.hash")
+            .description("Password hashing time on the worker pool")
+            .tag("operation", "matches")
+            .register(registry);
+        queueWaitTimer = Timer.builder("password.encoder.queue.wait")
+            .description("Time a password task waited for a worker")
+            .register(registry);
+        rejectedCounter = Counter.builder("password.encoder.rejected")
+            .description("Password tasks rejected because the pool was saturated")
+            .tags(List.of(Tag.of("executor", "password-encoder")))
+            .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> operation, Timer timer) {
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        CountDownLatch started = new CountDownLatch(1);
+        long enqueuedAt = System.nanoTime();
+        FutureTask<T> task = new FutureTask<>(() -> {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return null;
+            }
+            started.countDown();
+            record(queueWaitTimer, System.nanoTime() - enqueuedAt);
+            long start = System.nanoTime();
+            try {
+                return operation.call();
+            } finally {
+                record(timer, System.nanoTime() - start);
+            }
+        });
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            throw rejected("queue is full");
+        }
+
+        try {
+            if (!started.await(queueTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    && state.compareAndSet(QUEUED, CANCELLED)) {
+                executor.remove(task);
+                throw rejected("task did not start within " + queueTimeout);
+            }
+            return task.get();
+        } catch (InterruptedException e) {
+            state.compareAndSet(QUEUED, CANCELLED);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password encoder", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password encoder failed", e.getCause());
+        }
+    }
+
+    private ServiceOverloadedException rejected(String reason) {
+        if (rejectedCounter != null) {
+            rejectedCounter.increment();
+        }
+        log.warn("Password encoder rejected a task: {} (active={}, queued={})",
+            reason, executor.getActiveCount(), executor.getQueue().size());
+        return new ServiceOverloadedException("Authentication is temporarily overloaded", retryAfter);
+    }
+
+    private static void record(Timer timer, long nanos) {
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,680 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import com.reactiverates.auth.domain.model.ParsedToken;
+
+import io.jsonwebtoken.security.MacAlgorithm;
+
+/**
+ * Подпись и проверка токенов HMAC без jjwt для нашего фиксированного набора claims.
+ * <p>
+ * Заголовок одинаков у всех токенов ключа и кодируется один раз; claims пишутся в байты напрямую,
+ * {@link Mac} и буферы берутся из небольшого пула кодека. Пул, а не {@link ThreadLocal}: у виртуальных
+ * потоков, живущих один запрос, {@link ThreadLocal} создавал бы {@link Mac} и буферы на каждый вызов
+ * и держал их до конца потока. Формат совпадает с jjwt: заголовок
+ * {@code {"kid":..,"alg":..}}, claims в JSON, base64url без выравнивания, поэтому токены проверяются
+ * любой библиотекой JWT, а токены jjwt с тем же заголовком — этим классом.
+ * <p>
+ * {@link #verify} разбирает только то, что умеет разобрать точно, и возвращает {@code null} во всех
+ * остальных случаях: чужой заголовок, неверная подпись, истекший срок, {@code nbf}, экранированные
+ * строки, вложенные объекты. Тогда токен проверяет jjwt и сам решает, что с ним делать.
+ */
+public final class HmacJwtCodec {
+
+    /** Длиннее наши токены не бывают; такие отдаются jjwt, чтобы не раздувать буферы пула */
+    private static final int MAX_TOKEN_LENGTH = 8192;
+
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+        .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BASE64URL_VALUES = new byte[128];
+
+    private static final byte[] TYPE = bytes("type");
+    private static final byte[] SUB = bytes("sub");
+    private static final byte[] JTI = bytes("jti");
+    private static final byte[] TOKEN_ID = bytes("tokenId");
+    private static final byte[] SID = bytes("sid");
+    private static final byte[] ROLES = bytes("roles");
+    private static final byte[] EXP = bytes("exp");
+    private static final byte[] NBF = bytes("nbf");
+
+    static {
+        Arrays.fill(BASE64URL_VALUES, (byte) -1);
+        for (int i = 0; i < BASE64URL.length; i++) {
+            BASE64URL_VALUES[BASE64URL[i]] = (byte) i;
+        }
+    }
+
+    private final MacAlgorithm algorithm;
+    private final SecretKey key;
+    private final String headerSegment;
+    private final byte[] headerBytes;
+    private final int macLength;
+    private final Mac prototype;
+    /**
+     * Свободные {@link Workspace}: операция забирает случайный слот, а возвращает в случайный пустой.
+     * Если пустого нет, {@link Workspace} отбрасывается, так что пул не растет больше числа слотов.
+     */
+    private final AtomicReferenceArray<Workspace> pool;
+
+    HmacJwtCodec(String kid, MacAlgorithm algorithm, SecretKey key) {
+        this.algorithm = algorithm;
+        this.key = key;
+        Buffers buffers = new Buffers();
+        if (kid != null) {
+            buffers.raw(0, 8).put("{\"kid\":").putString(kid).put(",");
+        } else {
+            buffers.raw(0, 8).put("{");
+        }
+        buffers.put("\"alg\":").putString(algorithm.getId()).put("}");
+        byte[] header = new byte[base64Length(buffers.rawLength)];
+        encode(buffers.raw, 0, buffers.rawLength, header, 0);
+        this.headerBytes = header;
+        this.headerSegment = new String(header, StandardCharsets.US_ASCII);
+        this.prototype = newMac();
+        this.macLength = prototype.getMacLength();
+        // Операции не блокируются, поэтому одновременно их не больше, чем ядер
+        this.pool = new AtomicReferenceArray<>(
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2));
+    }
+
+    /**
+     * Тот же ключ для токенов без {@code kid} в заголовке.
+     */
+    HmacJwtCodec withoutKid() {
+        return new HmacJwtCodec(null, algorithm, key);
+    }
+
+    public String headerSegment() {
+        return headerSegment;
+    }
+
+    /**
+     * Подписывает токен с claims {@code JwtService}; {@code roles}, {@code jti}, {@code tokenId}
+     * и {@code sid} пропускаются, если равны {@code null}. Время в claims — секунды, как у jjwt.
+     */
+    public String sign(String type, String subject, String jti, String tokenId, String sessionId,
+            Collection<? extends GrantedAuthority> roles, long issuedAtMillis, long expiresAtMillis) {
+        Workspace workspace = acquire();
+        String token = sign(workspace, type, subject, jti, tokenId, sessionId, roles, issuedAtMillis, expiresAtMillis);
+        // После исключения Workspace не возвращается: Mac мог остаться с недописанным вводом
+        release(workspace);
+        return token;
+    }
+
+    private String sign(Workspace workspace, String type, String subject, String jti, String tokenId,
+            String sessionId, Collection<? extends GrantedAuthority> roles, long issuedAtMillis,
+            long expiresAtMillis) {
+        Buffers buffers = workspace.buffers();
+        buffers.raw(0, 256).put("{\"type\":").putString(type);
+        if (roles != null) {
+            buffers.put(",\"roles\":[");
+            boolean first = true;
+            for (GrantedAuthority role : roles) {
+                if (!first) {
+                    buffers.put(",");
+                }
+                buffers.putString(role.getAuthority());
+                first = false;
+            }
+            buffers.put("]");
+        }
+        if (jti != null) {
+            buffers.put(",\"jti\":").putString(jti);
+        }
+        if (tokenId != null) {
+            buffers.put(",\"tokenId\":").putString(tokenId);
+        }
+        if (sessionId != null) {
+            buffers.put(",\"sid\":").putString(sessionId);
+        }
+        buffers.put(",\"sub\":").putString(subject)
+            .put(",\"iat\":").putLong(issuedAtMillis / 1000)
+            .put(",\"exp\":").putLong(expiresAtMillis / 1000)
+            .put("}");
+
+        int payloadStart = headerBytes.length + 1;
+        int signatureStart = payloadStart + base64Length(buffers.rawLength) + 1;
+        int length = signatureStart + base64Length(macLength);
+        byte[] out = buffers.out(length);
+        System.arraycopy(headerBytes, 0, out, 0, headerBytes.length);
+        out[headerBytes.length] = '.';
+        encode(buffers.raw, 0, buffers.rawLength, out, payloadStart);
+        out[signatureStart - 1] = '.';
+        byte[] signature = buffers.signature(macLength);
+        computeMac(workspace.mac(), out, signatureStart - 1, signature);
+        encode(signature, 0, macLength, out, signatureStart);
+        // Latin-1: строка хранит байты как есть, без перекодирования
+        return new String(out, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @return разобранный токен или {@code null}, если его должен проверить jjwt
+     */
+    public ParsedToken verify(String token, long nowMillis) {
+        int length = token.length();
+        int headerLength = headerSegment.length();
+        if (length > MAX_TOKEN_LENGTH || length <= headerLength || token.charAt(headerLength) != '.'
+                || !token.startsWith(headerSegment)) {
+            return null;
+        }
+        int signatureDot = token.indexOf('.', headerLength + 1);
+        if (signatureDot < 0 || length - signatureDot - 1 != base64Length(macLength)) {
+            return null;
+        }
+        Workspace workspace = acquire();
+        ParsedToken parsed = verify(workspace, token, signatureDot, nowMillis);
+        release(workspace);
+        return parsed;
+    }
+
+    private ParsedToken verify(Workspace workspace, String token, int signatureDot, long nowMillis) {
+        int length = token.length();
+        int headerLength = headerSegment.length();
+        Buffers buffers = workspace.buffers();
+        byte[] input = buffers.out(length);
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c > 0x7F) {
+                return null;
+            }
+            input[i] = (byte) c;
+        }
+
+        byte[] expected = buffers.signature(macLength * 2);
+        computeMac(workspace.mac(), input, signatureDot, expected);
+        int signatureLength = decode(input, signatureDot + 1, length, expected, macLength);
+        if (signatureLength != macLength || !constantTimeEquals(expected, 0, expected, macLength, macLength)) {
+            return null;
+        }
+
+        byte[] payload = buffers.raw(0, length).raw;
+        int payloadLength = decode(input, headerLength + 1, signatureDot, payload, 0);
+        if (payloadLength < 0) {
+            return null;
+        }
+        return new ClaimsReader(payload, payloadLength).read(nowMillis);
+    }
+
+    private Workspace acquire() {
+        int start = ThreadLocalRandom.current().nextInt(pool.length());
+        for (int i = 0; i < pool.length(); i++) {
+            int slot = (start + i) & (pool.length() - 1);
+            // Чтение перед записью: пустые слоты не перетягивают строку кеша между ядрами
+            if (pool.get(slot) != null) {
+                Workspace workspace = pool.getAndSet(slot, null);
+                if (workspace != null) {
+                    return workspace;
+                }
+            }
+        }
+        return new Workspace(copyMac(), new Buffers());
+    }
+
+    private void release(Workspace workspace) {
+        int start = ThreadLocalRandom.current().nextInt(pool.length());
+        for (int i = 0; i < pool.length(); i++) {
+            if (pool.compareAndSet((start + i) & (pool.length() - 1), null, workspace)) {
+                return;
+            }
+        }
+    }
+
+    /** Копия уже инициализированного {@link Mac} дешевле поиска провайдера и разбора ключа */
+    private Mac copyMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newMac();
+        }
+    }
+
+    private static void computeMac(Mac instance, byte[] input, int length, byte[] output) {
+        instance.update(input, 0, length);
+        try {
+            instance.doFinal(output, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(jcaName(algorithm));
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC " + algorithm.getId() + " is not available", e);
+        }
+    }
+
+    private static String jcaName(MacAlgorithm algorithm) {
+        return switch (algorithm.getId()) {
+            case "HS256" -> "HmacSHA256";
+            case "HS384" -> "HmacSHA384";
+            case "HS512" -> "HmacSHA512";
+            default -> throw new IllegalArgumentException("Unsupported MAC algorithm " + algorithm.getId());
+        };
+    }
+
+    private static boolean constantTimeEquals(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            diff |= a[aOffset + i] ^ b[bOffset + i];
+        }
+        return diff == 0;
+    }
+
+    static int base64Length(int bytes) {
+        return (bytes * 4 + 2) / 3;
+    }
+
+    /** base64url без выравнивания, как в JWT */
+    static void encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int end = offset + length;
+        int i = offset;
+        int d = dstOffset;
+        while (end - i >= 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | src[i + 2] & 0xFF;
+            dst[d++] = BASE64URL[bits >>> 18];
+            dst[d++] = BASE64URL[bits >>> 12 & 0x3F];
+            dst[d++] = BASE64URL[bits >>> 6 & 0x3F];
+            dst[d++] = BASE64URL[bits & 0x3F];
+            i += 3;
+        }
+        if (end - i == 1) {
+            int bits = (src[i] & 0xFF) << 16;
+            dst[d++] = BASE64URL[bits >>> 18];
+            dst[d] = BASE64URL[bits >>> 12 & 0x3F];
+        } else if (end - i == 2) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+            dst[d++] = BASE64URL[bits >>> 18];
+            dst[d++] = BASE64URL[bits >>> 12 & 0x3F];
+            dst[d] = BASE64URL[bits >>> 6 & 0x3F];
+        }
+    }
+
+    /**
+     * @return число байт или -1, если строка не base64url
+     */
+    static int decode(byte[] src, int from, int to, byte[] dst, int dstOffset) {
+        if ((to - from) % 4 == 1) {
+            return -1;
+        }
+        int d = dstOffset;
+        int bits = 0;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int value = BASE64URL_VALUES[src[i]];
+            if (value < 0) {
+                return -1;
+            }
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                dst[d++] = (byte) (bits >>> 16);
+                dst[d++] = (byte) (bits >>> 8);
+                dst[d++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count == 2) {
+            dst[d++] = (byte) (bits >>> 4);
+        } else if (count == 3) {
+            dst[d++] = (byte) (bits >>> 10);
+            dst[d++] = (byte) (bits >>> 2);
+        }
+        return d - dstOffset;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Разбор плоского JSON объекта claims. Ключи сравниваются с байтами констант, строки создаются
+     * только для нужных полей.
+     */
+    private static final class ClaimsReader {
+
+        private final byte[] json;
+        private final int end;
+        private int position;
+
+        ClaimsReader(byte[] json, int length) {
+            this.json = json;
+            this.end = length;
+        }
+
+        ParsedToken read(long nowMillis) {
+            String type = null;
+            String subject = null;
+            String id = null;
+            String tokenId = null;
+            String sessionId = null;
+            List<String> roles = List.of();
+            long expiration = -1;
+
+            skipWhitespace();
+            if (!consume('{')) {
+                return null;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return null;
+            }
+            while (true) {
+                skipWhitespace();
+                int keyStart = position + 1;
+                int keyEnd = stringEnd();
+                if (keyEnd < 0) {
+                    return null;
+                }
+                skipWhitespace();
+                if (!consume(':')) {
+                    return null;
+                }
+                skipWhitespace();
+                if (position >= end) {
+                    return null;
+                }
+                byte first = json[position];
+                if (keyEquals(keyStart, keyEnd, NBF)) {
+                    // Проверку "не раньше" оставляем jjwt
+                    return null;
+                } else if (keyEquals(keyStart, keyEnd, ROLES)) {
+                    roles = stringArray();
+                    if (roles == null) {
+                        return null;
+                    }
+                } else if (keyEquals(keyStart, keyEnd, EXP)) {
+                    expiration = number();
+                    if (expiration < 0) {
+                        return null;
+                    }
+                } else if (first == '"') {
+                    int valueStart = position + 1;
+                    int valueEnd = stringEnd();
+                    if (valueEnd < 0) {
+                        return null;
+                    }
+                    String value = new String(json, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8);
+                    if (keyEquals(keyStart, keyEnd, TYPE)) {
+                        type = value;
+                    } else if (keyEquals(keyStart, keyEnd, SUB)) {
+                        subject = value;
+                    } else if (keyEquals(keyStart, keyEnd, JTI)) {
+                        id = value;
+                    } else if (keyEquals(keyStart, keyEnd, TOKEN_ID)) {
+                        tokenId = value;
+                    } else if (keyEquals(keyStart, keyEnd, SID)) {
+                        sessionId = value;
+                    }
+                } else if (isStringClaim(keyStart, keyEnd) || !skipScalar()) {
+                    return null;
+                }
+                skipWhitespace();
+                if (consume('}')) {
+                    break;
+                }
+                if (!consume(',')) {
+                    return null;
+                }
+            }
+            skipWhitespace();
+            // jjwt считает токен истекшим, если now > exp; такие токены, как и токены без exp, разбирает он
+            if (position != end || expiration < 0 || nowMillis > expiration * 1000) {
+                return null;
+            }
+            return new ParsedToken(type, subject, id, tokenId, sessionId, roles, Instant.ofEpochSecond(expiration));
+        }
+
+        private List<String> stringArray() {
+            if (!consume('[')) {
+                return null;
+            }
+            List<String> values = new ArrayList<>(2);
+            skipWhitespace();
+            if (consume(']')) {
+                return List.of();
+            }
+            while (true) {
+                skipWhitespace();
+                int valueStart = position + 1;
+                int valueEnd = stringEnd();
+                if (valueEnd < 0) {
+                    return null;
+                }
+                values.add(new String(json, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8));
+                skipWhitespace();
+                if (consume(']')) {
+                    return Collections.unmodifiableList(values);
+                }
+                if (!consume(',')) {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Пропускает строку без экранирования, стоящую в текущей позиции.
+         *
+         * @return позиция закрывающей кавычки или -1
+         */
+        private int stringEnd() {
+            if (!consume('"')) {
+                return -1;
+            }
+            for (int i = position; i < end; i++) {
+                byte b = json[i];
+                if (b == '"') {
+                    position = i + 1;
+                    return i;
+                }
+                if (b == '\\' || (b >= 0 && b < 0x20)) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+
+        /** Неотрицательное целое; дробные и отрицательные числа разбирает jjwt */
+        private long number() {
+            long value = 0;
+            int start = position;
+            while (position < end && json[position] >= '0' && json[position] <= '9') {
+                if (position - start >= 18) {
+                    return -1;
+                }
+                value = value * 10 + (json[position++] - '0');
+            }
+            if (position == start || (position < end && (json[position] == '.' || json[position] == 'e'
+                    || json[position] == 'E'))) {
+                return -1;
+            }
+            return value;
+        }
+
+        private boolean skipScalar() {
+            byte first = json[position];
+            if (first >= '0' && first <= '9') {
+                return number() >= 0;
+            }
+            return skipLiteral("true") || skipLiteral("false") || skipLiteral("null");
+        }
+
+        private boolean skipLiteral(String literal) {
+            int length = literal.length();
+            if (end - position < length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (json[position + i] != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            position += length;
+            return true;
+        }
+
+        private boolean isStringClaim(int start, int end) {
+            return keyEquals(start, end, TYPE) || keyEquals(start, end, SUB) || keyEquals(start, end, JTI)
+                || keyEquals(start, end, TOKEN_ID) || keyEquals(start, end, SID);
+        }
+
+        private boolean keyEquals(int start, int end, byte[] key) {
+            return Arrays.equals(json, start, end, key, 0, key.length);
+        }
+
+        private boolean consume(char expected) {
+            if (position < end && json[position] == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < end) {
+                byte b = json[position];
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                    return;
+                }
+                position++;
+            }
+        }
+    }
+
+    /**
+     * {@link Mac} и буферы одной операции. Принадлежат вызывающему от {@link #acquire()} до {@link #release}.
+     */
+    private record Workspace(Mac mac, Buffers buffers) {
+    }
+
+    /**
+     * Буферы одной операции: {@code raw} — JSON заголовка или claims, {@code out} — токен,
+     * {@code signature} — подпись. Растут по необходимости и не уменьшаются.
+     */
+    private static final class Buffers {
+
+        private byte[] raw = new byte[512];
+        private byte[] out = new byte[1024];
+        private byte[] signature = new byte[128];
+        private int rawLength;
+
+        Buffers raw(int length, int capacity) {
+            if (raw.length < capacity) {
+                raw = new byte[Math.max(capacity, raw.length * 2)];
+            }
+            rawLength = length;
+            return this;
+        }
+
+        byte[] out(int capacity) {
+            if (out.length < capacity) {
+                out = new byte[Math.max(capacity, out.length * 2)];
+            }
+            return out;
+        }
+
+        byte[] signature(int capacity) {
+            if (signature.length < capacity) {
+                signature = new byte[capacity];
+            }
+            return signature;
+        }
+
+        /** ASCII без экранирования: только литералы этого класса */
+        Buffers put(String literal) {
+            int length = literal.length();
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                raw[rawLength++] = (byte) literal.charAt(i);
+            }
+            return this;
+        }
+
+        Buffers putLong(long value) {
+            ensure(20);
+            if (value == 0) {
+                raw[rawLength++] = '0';
+                return this;
+            }
+            int start = rawLength;
+            for (long v = value; v > 0; v /= 10) {
+                raw[rawLength++] = (byte) ('0' + v % 10);
+            }
+            for (int i = start, j = rawLength - 1; i < j; i++, j--) {
+                byte tmp = raw[i];
+                raw[i] = raw[j];
+                raw[j] = tmp;
+            }
+            return this;
+        }
+
+        /** Строка JSON в UTF-8 с экранированием кавычек, обратной косой черты и управляющих символов */
+        Buffers putString(String value) {
+            int length = value.length();
+            ensure(length * 6 + 2);
+            raw[rawLength++] = '"';
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    raw[rawLength++] = '\\';
+                    raw[rawLength++] = (byte) c;
+                } else if (c < 0x20) {
+                    raw[rawLength++] = '\\';
+                    raw[rawLength++] = 'u';
+                    raw[rawLength++] = '0';
+                    raw[rawLength++] = '0';
+                    raw[rawLength++] = BASE16[c >>> 4];
+                    raw[rawLength++] = BASE16[c & 0xF];
+                } else if (c < 0x80) {
+                    raw[rawLength++] = (byte) c;
+                } else if (c < 0x800) {
+                    raw[rawLength++] = (byte) (0xC0 | c >>> 6);
+                    raw[rawLength++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    raw[rawLength++] = (byte) (0xF0 | codePoint >>> 18);
+                    raw[rawLength++] = (byte) (0x80 | codePoint >>> 12 & 0x3F);
+                    raw[rawLength++] = (byte) (0x80 | codePoint >>> 6 & 0x3F);
+                    raw[rawLength++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    // Одиночный суррогат в UTF-8 непредставим, как и у String#getBytes
+                    raw[rawLength++] = '?';
+                } else {
+                    raw[rawLength++] = (byte) (0xE0 | c >>> 12);
+                    raw[rawLength++] = (byte) (0x80 | c >>> 6 & 0x3F);
+                    raw[rawLength++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            raw[rawLength++] = '"';
+            return this;
+        }
+
+        private void ensure(int extra) {
+            if (raw.length < rawLength + extra) {
+                raw = Arrays.copyOf(raw, Math.max(rawLength + extra, raw.length * 2));
+            }
+        }
+
+        private static final byte[] BASE16 = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,113 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.reactiverates.auth.domain.model.JwkSet;
+import com.reactiverates.auth.domain.model.ParsedToken;
+
+import io.jsonwebtoken.security.Jwks;
+
+/**
+ * Неизменяемый снимок ключей подписи: активный ключ подписывает новые токены, остальные
+ * только проверяют ранее выданные. Ключ проверки выбирается по {@code kid} одним обращением
+ * к заранее построенной таблице, без перебора ключей. JWKS строится вместе со снимком.
+ */
+public final class JwtKeyRing {
+
+    private final JwtSigningKey active;
+    private final Map<String, JwtSigningKey> byKid;
+    private final JwtSigningKey untagged;
+    private final JwkSet jwkSet;
+    private final HmacJwtCodec[] hmacCodecs;
+
+    /**
+     * @param keys     ключи проверки, включая активный
+     * @param untagged ключ для токенов без kid или {@code null}
+     */
+    public JwtKeyRing(JwtSigningKey active, Collection<JwtSigningKey> keys, JwtSigningKey untagged) {
+        this.active = active;
+        this.untagged = untagged;
+        Map<String, JwtSigningKey> map = new HashMap<>();
+        for (JwtSigningKey key : keys) {
+            if (key.kid() != null) {
+                map.put(key.kid(), key);
+            }
+        }
+        this.byKid = Map.copyOf(map);
+        this.jwkSet = toJwkSet(keys);
+        List<HmacJwtCodec> codecs = new ArrayList<>();
+        for (JwtSigningKey key : byKid.values()) {
+            if (key.hmacCodec() != null) {
+                codecs.add(key.hmacCodec());
+            }
+        }
+        if (untagged != null && untagged.hmacCodec() != null) {
+            codecs.add(untagged.kid() == null ? untagged.hmacCodec() : untagged.hmacCodec().withoutKid());
+        }
+        this.hmacCodecs = codecs.toArray(HmacJwtCodec[]::new);
+    }
+
+    public JwtSigningKey active() {
+        return active;
+    }
+
+    /**
+     * @return ключ проверки или {@code null}, если {@code kid} неизвестен или ключ выведен
+     */
+    public Key verificationKey(String kid) {
+        JwtSigningKey key = kid == null ? untagged : byKid.get(kid);
+        return key != null ? key.verificationKey() : null;
+    }
+
+    /**
+     * Проверяет токен HMAC ключом, заголовок которого совпадает с заголовком токена, без jjwt.
+     * Ключей HMAC в наборе единицы, поэтому они перебираются по сравнению заголовка.
+     *
+     * @return разобранный токен или {@code null}, если токен должен проверить jjwt
+     */
+    public ParsedToken verifyHmac(String token, long nowMillis) {
+        if (token == null) {
+            return null;
+        }
+        for (HmacJwtCodec codec : hmacCodecs) {
+            String header = codec.headerSegment();
+            if (token.length() > header.length() && token.charAt(header.length()) == '.' && token.startsWith(header)) {
+                return codec.verify(token, nowMillis);
+            }
+        }
+        return null;
+    }
+
+    public Set<String> kids() {
+        return byKid.keySet();
+    }
+
+    public JwkSet jwkSet() {
+        return jwkSet;
+    }
+
+    private static JwkSet toJwkSet(Collection<JwtSigningKey> keys) {
+        // Опубликованы все еще действующие открытые ключи: и будущие, и выводимые
+        String json = keys.stream()
+            .filter(JwtSigningKey::isPublishable)
+            .map(key -> Jwks.json(key.jwk()))
+            .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return new JwkSet(json, "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.MacAlgorithm;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Загружает набор ключей подписи из {@code jwt.keys} и подменяет снимок {@link JwtKeyRing}
+ * без перезапуска: по {@link EnvironmentChangeEvent} (обновление конфигурации через config server
+ * и {@code /actuator/refresh}) и по расписанию {@code jwt.keys.retire-check-interval}.
+ * <p>
+ * Ключ, переставший быть активным, еще проверяет токены в течение срока жизни refresh токена,
+ * после чего исключается из проверки и из JWKS, даже если остался в конфигурации.
+ * Момент вывода берется из {@code retired-at} ключа, иначе — время, когда сервис заметил смену
+ * активного ключа или впервые загрузил неактивный ключ.
+ * <p>
+ * Без {@code jwt.keys.ring} используется один ключ из {@code jwt.signing.*} и {@code jwt.secret}.
+ */
+@Slf4j
+@Component
+public class JwtKeyRingManager {
+
+    private final Environment environment;
+    private final ResourceLoader resourceLoader;
+
+    /** Уже загруженные ключи по kid вместе с настройками, из которых они получены */
+    private final Map<String, LoadedKey> loadedKeys = new HashMap<>();
+    private final Map<String, Instant> observedRetirements = new HashMap<>();
+    private volatile JwtKeyRing current;
+
+    @Value("${jwt.access-token.expiration:900000}")
+    private long accessTokenExpiration;
+
+    @Value("${jwt.refresh-token.expiration:604800000}")
+    private long refreshTokenExpiration;
+
+    public JwtKeyRingManager(Environment environment, ResourceLoader resourceLoader) {
+        this.environment = environment;
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    void init() {
+        this.current = build(Instant.now());
+        log.info("JWT signing key {}, verification keys {}", current.active().kid(), current.kids());
+    }
+
+    public JwtKeyRing current() {
+        return current;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith("jwt."))) {
+            reload();
+        }
+    }
+
+    /**
+     * Перечитывает настройки и выводит ключи с истекшими токенами. Ошибка в новых настройках
+     * не останавливает выдачу токенов: остается действующий набор.
+     */
+    @Scheduled(initialDelayString = "${jwt.keys.retire-check-interval:1m}",
+            fixedDelayString = "${jwt.keys.retire-check-interval:1m}")
+    public synchronized void reload() {
+        try {
+            JwtKeyRing previous = current;
+            JwtKeyRing next = build(Instant.now());
+            if (!Objects.equals(next.active().kid(), previous.active().kid()) || !next.kids().equals(previous.kids())) {
+                log.info("JWT key ring changed: signing key {}, verification keys {}", next.active().kid(), next.kids());
+            }
+            current = next;
+        } catch (RuntimeException e) {
+            log.error("Failed to reload JWT key ring, keeping the current one: {}", e.getMessage());
+        }
+    }
+
+    synchronized JwtKeyRing build(Instant now) {
+        JwtKeyRingProperties properties = Binder.get(environment)
+            .bind("jwt.keys", JwtKeyRingProperties.class)
+            .orElseGet(JwtKeyRingProperties::new);
+        if (properties.getRing().isEmpty()) {
+            return legacyRing();
+        }
+        if (properties.getActive() == null) {
+            throw new IllegalStateException("jwt.keys.active is not set");
+        }
+
+        Duration lifetime = Duration.ofMillis(Math.max(accessTokenExpiration, refreshTokenExpiration));
+        JwtSigningKey active = null;
+        List<JwtSigningKey> verificationKeys = new ArrayList<>();
+        Set<String> configured = new HashSet<>();
+        for (JwtKeyRingProperties.Key config : properties.getRing()) {
+            if (config.getKid() == null || config.getKid().isBlank()) {
+                throw new IllegalStateException("Every key in jwt.keys.ring needs a kid");
+            }
+            String kid = config.getKid();
+            configured.add(kid);
+            boolean isActive = kid.equals(properties.getActive());
+            if (isActive) {
+                observedRetirements.remove(kid);
+            } else {
+                Instant retiredAt = config.getRetiredAt() != null
+                    ? config.getRetiredAt()
+                    : observedRetirements.computeIfAbsent(kid, ignored -> now);
+                if (!retiredAt.plus(lifetime).isAfter(now)) {
+                    // Все токены ключа истекли: ключ больше не нужен для проверки
+                    continue;
+                }
+            }
+            JwtSigningKey key = load(config);
+            verificationKeys.add(key);
+            if (isActive) {
+                active = key;
+            }
+        }
+        if (active == null) {
+            throw new IllegalStateException("jwt.keys.active " + properties.getActive() + " is not in jwt.keys.ring");
+        }
+        // Время вывода помним, пока ключ в конфигурации, иначе выведенный ключ вернулся бы при следующей загрузке
+        loadedKeys.keySet().retainAll(verificationKeys.stream().map(JwtSigningKey::kid).toList());
+        observedRetirements.keySet().retainAll(configured);
+
+        JwtSigningKey untagged = verificationKeys.stream()
+            .filter(key -> key.kid().equals(properties.getUntagged()))
+            .findFirst()
+            .orElse(null);
+        return new JwtKeyRing(active, verificationKeys, untagged);
+    }
+
+    private JwtSigningKey load(JwtKeyRingProperties.Key config) {
+        KeyMaterial material = KeyMaterial.of(config);
+        LoadedKey loaded = loadedKeys.get(config.getKid());
+        if (loaded != null && loaded.material().equals(material)) {
+            // Ключ не перечитывается и не генерируется заново, если его настройки не менялись
+            return loaded.key();
+        }
+        JwtSigningKey key = createKey(config.getKid(), material);
+        loadedKeys.put(config.getKid(), new LoadedKey(material, key));
+        return key;
+    }
+
+    /**
+     * Один ключ из {@code jwt.signing.*}: HMAC без kid, как до появления набора ключей.
+     */
+    private JwtKeyRing legacyRing() {
+        KeyMaterial material = new KeyMaterial(
+            environment.getProperty("jwt.signing.algorithm", "HS256"),
+            environment.getProperty("jwt.secret", "mySecretKeymySecretKeymySecretKeymySecretKey"),
+            environment.getProperty("jwt.signing.private-key", ""),
+            environment.getProperty("jwt.signing.public-key", ""));
+        LoadedKey loaded = loadedKeys.get(null);
+        JwtSigningKey key;
+        if (loaded != null && loaded.material().equals(material)) {
+            key = loaded.key();
+        } else {
+            key = createKey(null, material);
+            loadedKeys.clear();
+            loadedKeys.put(null, new LoadedKey(material, key));
+        }
+        return new JwtKeyRing(key, List.of(key), key);
+    }
+
+    private JwtSigningKey createKey(String kid, KeyMaterial material) {
+        String algorithm = material.algorithm();
+        String secret = material.secret();
+        String privateKeyLocation = material.privateKey();
+        String publicKeyLocation = material.publicKey();
+        SecureDigestAlgorithm<?, ?> digestAlgorithm = Jwts.SIG.get().forKey(algorithm);
+        if (digestAlgorithm instanceof MacAlgorithm macAlgorithm) {
+            if (secret == null || secret.isBlank()) {
+                throw new IllegalStateException("JWT key " + kid + " needs a secret for " + algorithm);
+            }
+            return JwtSigningKey.hmac(kid, macAlgorithm, Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
+        }
+        SignatureAlgorithm signatureAlgorithm = (SignatureAlgorithm) digestAlgorithm;
+        try {
+            KeyPair keyPair;
+            if (isBlank(privateKeyLocation) || isBlank(publicKeyLocation)) {
+                log.warn("JWT key {} has no private-key/public-key, generated an ephemeral {} key pair; "
+                    + "tokens will not survive a restart", kid, algorithm);
+                keyPair = generateKeyPair(signatureAlgorithm);
+            } else {
+                keyPair = readKeyPair(signatureAlgorithm, privateKeyLocation, publicKeyLocation);
+            }
+            return JwtSigningKey.asymmetric(kid, signatureAlgorithm, keyPair);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to load JWT key " + kid + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static KeyPair generateKeyPair(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+        if (Jwts.SIG.EdDSA.equals(algorithm)) {
+            // keyPair() у EdDSA выдает Ed448; Ed25519 короче и быстрее
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        }
+        return algorithm.keyPair().build();
+    }
+
+    private KeyPair readKeyPair(SignatureAlgorithm algorithm, String privateKeyLocation, String publicKeyLocation)
+            throws IOException, GeneralSecurityException {
+        KeyFactory keyFactory = KeyFactory.getInstance(keyFamily(algorithm));
+        return new KeyPair(
+            keyFactory.generatePublic(new X509EncodedKeySpec(readPem(publicKeyLocation))),
+            keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readPem(privateKeyLocation))));
+    }
+
+    private static String keyFamily(SignatureAlgorithm algorithm) {
+        String id = algorithm.getId();
+        if (id.startsWith("RS") || id.startsWith("PS")) {
+            return "RSA";
+        }
+        if (id.startsWith("ES")) {
+            return "EC";
+        }
+        return "EdDSA";
+    }
+
+    private byte[] readPem(String location) throws IOException {
+        try (InputStream in = resourceLoader.getResource(location).getInputStream()) {
+            String pem = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            return Base64.getMimeDecoder().decode(pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", ""));
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /** Настройки, от которых зависит сам ключ; {@code retired-at} сюда не входит */
+    private record KeyMaterial(String algorithm, String secret, String privateKey, String publicKey) {
+
+        static KeyMaterial of(JwtKeyRingProperties.Key config) {
+            return new KeyMaterial(config.getAlgorithm(), config.getSecret(), config.getPrivateKey(),
+                config.getPublicKey());
+        }
+    }
+
+    private record LoadedKey(KeyMaterial material, JwtSigningKey key) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Настройки {@code jwt.keys}: набор ключей подписи и {@code kid} того, которым подписываются новые токены.
+ */
+@Data
+public class JwtKeyRingProperties {
+
+    /** {@code kid} ключа для подписи новых токенов */
+    private String active;
+
+    /** {@code kid} ключа для токенов без заголовка kid, выданных до перехода на набор ключей */
+    private String untagged;
+
+    private List<Key> ring = new ArrayList<>();
+
+    @Data
+    public static class Key {
+        private String kid;
+        private String algorithm = "HS256";
+        /** Секрет HMAC */
+        private String secret;
+        /** PEM PKCS#8, {@code file:} или {@code classpath:} */
+        private String privateKey;
+        /** PEM X.509 */
+        private String publicKey;
+        /** Когда ключ перестал подписывать токены; без значения — когда это заметил сервис */
+        private Instant retiredAt;
+    }
+}
@@ -0,0 +1,110 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PublicKey;
+
+import javax.crypto.SecretKey;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParserBuilder;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.MacAlgorithm;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+/**
+ * Ключ подписи JWT вместе с алгоритмом и идентификатором {@code kid}.
+ * <p>
+ * Для HMAC (HS256) подпись и проверка выполняются одним секретом, и ключ не публикуется.
+ * Для RS256, ES256 и EdDSA токены подписываются закрытым ключом, а открытый публикуется
+ * в JWKS ({@link #jwk()}), чтобы другие сервисы проверяли токены сами; {@code kid} — отпечаток
+ * открытого ключа по RFC 7638.
+ */
+public final class JwtSigningKey {
+
+    private final String kid;
+    private final SecureDigestAlgorithm<Key, Key> algorithm;
+    private final Key signingKey;
+    private final Key verificationKey;
+    private final PublicJwk<?> jwk;
+    private final HmacJwtCodec hmacCodec;
+
+    private JwtSigningKey(String kid, SecureDigestAlgorithm<Key, Key> algorithm, Key signingKey,
+            Key verificationKey, PublicJwk<?> jwk, HmacJwtCodec hmacCodec) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.signingKey = signingKey;
+        this.verificationKey = verificationKey;
+        this.jwk = jwk;
+        this.hmacCodec = hmacCodec;
+    }
+
+    public static JwtSigningKey hmac(String kid, MacAlgorithm algorithm, SecretKey secretKey) {
+        return new JwtSigningKey(kid, cast(algorithm), secretKey, secretKey, null,
+            new HmacJwtCodec(kid, algorithm, secretKey));
+    }
+
+    public static JwtSigningKey asymmetric(SignatureAlgorithm algorithm, KeyPair keyPair) {
+        return asymmetric(null, algorithm, keyPair);
+    }
+
+    /**
+     * @param kid идентификатор ключа; {@code null} — отпечаток открытого ключа
+     */
+    public static JwtSigningKey asymmetric(String kid, SignatureAlgorithm algorithm, KeyPair keyPair) {
+        var builder = Jwks.builder()
+            .key(keyPair.getPublic())
+            .algorithm(algorithm.getId())
+            .publicKeyUse("sig");
+        PublicJwk<?> jwk = (kid != null ? builder.id(kid) : builder.idFromThumbprint()).build();
+        return new JwtSigningKey(jwk.getId(), cast(algorithm), keyPair.getPrivate(), keyPair.getPublic(), jwk, null);
+    }
+
+    /** {@code null} у ключа HMAC без явного {@code kid}: заголовок не добавляется */
+    public String kid() {
+        return kid;
+    }
+
+    public String algorithmId() {
+        return algorithm.getId();
+    }
+
+    public Key verificationKey() {
+        return verificationKey;
+    }
+
+    /** Открытый ключ для JWKS; {@code null} у HMAC */
+    public PublicJwk<?> jwk() {
+        return jwk;
+    }
+
+    public boolean isPublishable() {
+        return jwk != null;
+    }
+
+    /** Быстрая подпись и проверка без jjwt; {@code null} у асимметричных ключей */
+    public HmacJwtCodec hmacCodec() {
+        return hmacCodec;
+    }
+
+    public JwtBuilder sign(JwtBuilder builder) {
+        if (kid != null) {
+            builder.header().keyId(kid);
+        }
+        return builder.signWith(signingKey, algorithm);
+    }
+
+    public JwtParserBuilder verify(JwtParserBuilder parser) {
+        return verificationKey instanceof SecretKey secretKey
+            ? parser.verifyWith(secretKey)
+            : parser.verifyWith((PublicKey) verificationKey);
+    }
+
+    /** Алгоритмы типизированы видом ключа; здесь вид ключа проверен при создании */
+    @SuppressWarnings("unchecked")
+    private static SecureDigestAlgorithm<Key, Key> cast(SecureDigestAlgorithm<?, ?> algorithm) {
+        return (SecureDigestAlgorithm<Key, Key>) algorithm;
+    }
+}
@@ -0,0 +1,50 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import java.time.Duration;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Подбирает стоимость BCrypt под текущее железо: наибольшую, при которой хеширование
+ * укладывается в целевое время. Каждая следующая стоимость вдвое дороже предыдущей,
+ * поэтому замер прекращается на первой превысившей цель.
+ */
+@Slf4j
+public final class PasswordHashCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+    private static final int SAMPLES = 3;
+
+    private PasswordHashCalibrator() {
+    }
+
+    public static int calibrate(Duration targetTime, int minStrength, int maxStrength) {
+        // Прогрев JIT, чтобы первый замер не завышал стоимость
+        new BCryptPasswordEncoder(minStrength).encode(SAMPLE_PASSWORD);
+
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            Duration elapsed = measure(strength);
+            log.info("BCrypt strength {} takes {} ms", strength, elapsed.toMillis());
+            if (elapsed.compareTo(targetTime) > 0) {
+                break;
+            }
+            chosen = strength;
+        }
+        log.info("Calibrated BCrypt strength {} for target {} ms", chosen, targetTime.toMillis());
+        return chosen;
+    }
+
+    private static Duration measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Duration.ofNanos(best);
+    }
+}
@@ -0,0 +1,131 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума для ключей с известным сроком действия.
+ * <p>
+ * Ключи раскладываются по окнам шириной {@code window} по времени истечения: проверка смотрит
+ * только в окно своего срока, а окно целиком удаляется, когда истекли все его ключи.
+ * Так фильтр не заполняется со временем, и отозванные токены выпадают из него без перестроения.
+ * Ответ {@code false} точен, {@code true} означает "возможно" и требует проверки по хранилищу.
+ * Ключ — 16 байт {@code TokenIdGenerator#storageKey} или {@code TokenIdGenerator#sessionKey};
+ * хешами служат его случайные байты.
+ */
+public class RotatingBloomFilter {
+
+    private final long windowMillis;
+    private final int bits;
+    private final int hashes;
+    private final Map<Long, AtomicLongArray> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param window            ширина окна, обычно равна сроку жизни access токена
+     * @param expectedKeys      ожидаемое число ключей в одном окне
+     * @param falsePositiveRate доля ложных срабатываний при {@code expectedKeys} ключах
+     */
+    public RotatingBloomFilter(Duration window, int expectedKeys, double falsePositiveRate) {
+        if (window.isNegative() || window.isZero() || expectedKeys <= 0
+                || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter parameters");
+        }
+        this.windowMillis = window.toMillis();
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        // Кратно 64, чтобы биты целиком занимали слова массива
+        this.bits = Math.toIntExact(Math.max(64, (optimalBits + 63) & ~63L));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedKeys * ln2));
+    }
+
+    public void put(byte[] key, Instant expiresAt) {
+        put(key, windowOf(expiresAt));
+    }
+
+    /**
+     * Добавляет ключ во все окна от {@code from} до {@code to}. Нужно для ключей, которые проверяются
+     * вместе с токенами разных сроков: отзыв сессии должен находиться по любому ее access токену,
+     * истекающему между отзывом и {@code to}.
+     */
+    public void put(byte[] key, Instant from, Instant to) {
+        long last = windowOf(to);
+        for (long window = Math.min(windowOf(from), last); window <= last; window++) {
+            put(key, window);
+        }
+    }
+
+    private void put(byte[] key, long window) {
+        AtomicLongArray words = windows.computeIfAbsent(window, ignored -> new AtomicLongArray(bits / 64));
+        long h1 = ByteBuffer.wrap(key).getLong(8);
+        long h2 = secondHash(key, h1);
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) bits);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            while (((current = words.get(word)) & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                // Повтор при гонке с соседним битом того же слова
+            }
+        }
+    }
+
+    public boolean mightContain(byte[] key, Instant expiresAt) {
+        AtomicLongArray words = windows.get(windowOf(expiresAt));
+        if (words == null) {
+            return false;
+        }
+        long h1 = ByteBuffer.wrap(key).getLong(8);
+        long h2 = secondHash(key, h1);
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) bits);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Удаляет окна, все ключи которых истекли к {@code now}.
+     *
+     * @return число удаленных окон
+     */
+    public int expire(Instant now) {
+        long current = windowOf(now);
+        int before = windows.size();
+        windows.keySet().removeIf(window -> window < current);
+        return before - windows.size();
+    }
+
+    public int windowCount() {
+        return windows.size();
+    }
+
+    /** Размер одного окна в байтах */
+    public long windowBytes() {
+        return bits / 8L;
+    }
+
+    int hashes() {
+        return hashes;
+    }
+
+    private long windowOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), windowMillis);
+    }
+
+    /**
+     * Второй хеш для схемы Кирша — Митценмахера: перемешанные оставшиеся байты ключа,
+     * нечетный, чтобы шаг не вырождался.
+     */
+    private static long secondHash(byte[] key, long h1) {
+        long z = ByteBuffer.wrap(key).getLong(0) + h1 * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) | 1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import com.reactiverates.auth.domain.model.CredentialsVerification;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Аутентификация логина и пароля через RPC {@code VerifyCredentials}: один вызов users-service на вход,
+ * хеш пароля не покидает users-service. Principal — {@link com.reactiverates.auth.domain.model.UserDto}.
+ * Недоступность users-service пробрасывается как есть и отдается клиенту как 503.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class UsersServiceAuthenticationProvider implements AuthenticationProvider {
+
+    private final AsyncUsersService usersService;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        String username = authentication.getName();
+        return toAuthentication(username,
+            usersService.verifyCredentials(username, String.valueOf(authentication.getCredentials())));
+    }
+
+    public CompletableFuture<Authentication> authenticateAsync(Authentication authentication) {
+        String username = authentication.getName();
+        return usersService.verifyCredentialsAsync(username, String.valueOf(authentication.getCredentials()))
+            .thenApply(verification -> toAuthentication(username, verification));
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private static Authentication toAuthentication(String username, CredentialsVerification verification) {
+        return switch (verification.status()) {
+            case VALID -> UsernamePasswordAuthenticationToken.authenticated(
+                verification.user(), null, verification.user().getAuthorities());
+            case DISABLED -> {
+                log.warn("User account is disabled: {}", username);
+                throw new DisabledException("User account is disabled");
+            }
+            case INVALID -> {
+                log.warn("Invalid credentials for user: {}", username);
+                throw new BadCredentialsException("Bad credentials");
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+-- Необязательная схема refresh_tokens, секционированная по дням expiry_date.
+-- Применяется вручную вместо схемы Hibernate вместе с настройками
+--   refresh-tokens.storage.layout: partitioned
+--   spring.jpa.hibernate.ddl-auto: none
+-- Дневные секции создает и удаляет RefreshTokenPartitionManager: истекший день удаляется DROP TABLE
+-- вместо построчного DELETE.
+--
+-- Обновление refresh токена сдвигает expiry_date, и строка сессии переносится в другую секцию.
+
+CREATE TABLE refresh_tokens (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    token_hash  BYTEA NOT NULL,
+    expiry_date TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    user_id     BIGINT NOT NULL,
+    device_name  VARCHAR(100),
+    user_agent   VARCHAR(512),
+    ip_address   VARCHAR(45),
+    created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_used_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id, expiry_date)
+) PARTITION BY RANGE (expiry_date);
+
+CREATE INDEX idx_refresh_tokens_token_hash ON refresh_tokens (token_hash);
+CREATE INDEX idx_refresh_tokens_user_sessions ON refresh_tokens (user_id, created_at, id);
+CREATE INDEX idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
+
+-- Токены за пределами созданных дневных секций; истекшие удаляются отсюда порциями
+CREATE TABLE refresh_tokens_default PARTITION OF refresh_tokens DEFAULT;
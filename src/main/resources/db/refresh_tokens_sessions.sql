@@ -0,0 +1,16 @@
+-- Перевод существующей таблицы refresh_tokens на несколько сессий на пользователя.
+-- Выполняется вручную до запуска новой версии: Hibernate (ddl-auto: update) не удаляет ограничения
+-- и не может добавить NOT NULL колонку в заполненную таблицу.
+-- CREATE INDEX CONCURRENTLY нельзя выполнять внутри транзакции: запускайте скрипт через psql без -1.
+
+ALTER TABLE refresh_tokens DROP CONSTRAINT IF EXISTS uk_refresh_tokens_user_id;
+
+ALTER TABLE refresh_tokens
+    ADD COLUMN IF NOT EXISTS device_name  VARCHAR(100),
+    ADD COLUMN IF NOT EXISTS user_agent   VARCHAR(512),
+    ADD COLUMN IF NOT EXISTS ip_address   VARCHAR(45),
+    ADD COLUMN IF NOT EXISTS created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now(),
+    ADD COLUMN IF NOT EXISTS last_used_at TIMESTAMP(6) WITH TIME ZONE;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_user_sessions
+    ON refresh_tokens (user_id, created_at, id);
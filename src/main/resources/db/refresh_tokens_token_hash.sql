@@ -0,0 +1,33 @@
+-- Перевод refresh_tokens с текстового token (UUID, 36 байт) на 16-байтный ключ хранения token_hash.
+-- Ключ старых UUIDv4 токенов: 6 нулевых байт и первые 10 байт SHA-256 от 16 байт UUID —
+-- так же его вычисляет TokenIdGenerator.storageKey, поэтому выданные токены продолжают работать.
+-- Требуется PostgreSQL 11+ (sha256). CREATE INDEX CONCURRENTLY нельзя выполнять внутри транзакции:
+-- запускайте скрипт через psql без -1, до запуска новой версии сервиса.
+
+\set ON_ERROR_STOP on
+
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS token_hash BYTEA;
+
+-- Порции по 10000 строк с фиксацией после каждой, чтобы не держать длинную транзакцию
+DO $$
+DECLARE
+    updated INT;
+BEGIN
+    LOOP
+        UPDATE refresh_tokens
+        SET token_hash = '\x000000000000'::bytea || substring(sha256(uuid_send(token::uuid)) FROM 1 FOR 10)
+        WHERE id IN (SELECT id FROM refresh_tokens WHERE token_hash IS NULL LIMIT 10000);
+        GET DIAGNOSTICS updated = ROW_COUNT;
+        EXIT WHEN updated = 0;
+        COMMIT;
+    END LOOP;
+END $$;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_refresh_tokens_token_hash ON refresh_tokens (token_hash);
+
+ALTER TABLE refresh_tokens
+    ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE USING INDEX uk_refresh_tokens_token_hash;
+
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+
+ALTER TABLE refresh_tokens DROP COLUMN token;
@@ -0,0 +1,12 @@
+-- Список отозванных access токенов. При ddl-auto: update Hibernate создает таблицу сам;
+-- скрипт нужен для установок со схемой под управлением DBA и для реактивного профиля (R2DBC схему не создает).
+-- Строки живут до expires_at, затем удаляются очисткой (jwt.revocation.purge.*).
+
+CREATE TABLE IF NOT EXISTS revoked_access_tokens (
+    token_hash BYTEA                       PRIMARY KEY,  -- ключ хранения jti: 6 байт времени + 10 байт SHA-256
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_access_tokens_expires_at ON revoked_access_tokens (expires_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_access_tokens_revoked_at ON revoked_access_tokens (revoked_at);
@@ -0,0 +1,148 @@
+package com.reactiverates.auth.api.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.reactiverates.auth.application.service.JwtService;
+import com.reactiverates.auth.application.service.TokenIdGenerator;
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.grpc.TokenStatus;
+import com.reactiverates.auth.grpc.TokenValidationServiceGrpc;
+import com.reactiverates.auth.grpc.ValidateTokenRequest;
+import com.reactiverates.auth.grpc.ValidateTokenResponse;
+import com.reactiverates.auth.infrastructure.security.JwtKeyRingManager;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import reactor.core.publisher.Mono;
+
+class TokenValidationGrpcServiceTests {
+
+    private final UserDetails user = User.withUsername("john_doe").password("secret").roles("USER").build();
+    private final Set<String> revokedIds = ConcurrentHashMap.newKeySet();
+    private final JwtService jwtService = jwtService();
+    private Server server;
+    private ManagedChannel channel;
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void validatesSingleToken() {
+        start(token -> Mono.just(revokedIds.contains(token.id())));
+        TokenValidationServiceGrpc.TokenValidationServiceBlockingStub stub =
+            TokenValidationServiceGrpc.newBlockingStub(channel);
+        String active = jwtService.generateAccessToken(user);
+        String revoked = jwtService.generateAccessToken(user);
+        revokedIds.add(jwtService.parse(revoked).id());
+
+        ValidateTokenResponse response = stub.validateToken(request(active, "1"));
+        assertThat(response.getStatus()).isEqualTo(TokenStatus.TOKEN_ACTIVE);
+        assertThat(response.getRequestId()).isEqualTo("1");
+        assertThat(response.getSubject()).isEqualTo("john_doe");
+        assertThat(response.getRolesList()).containsExactly("ROLE_USER");
+        assertThat(response.getExpiresAt()).isPositive();
+
+        assertThat(stub.validateToken(request(revoked, "2")).getStatus()).isEqualTo(TokenStatus.TOKEN_REVOKED);
+        assertThat(stub.validateToken(request("garbage", "3")).getStatus()).isEqualTo(TokenStatus.TOKEN_INVALID);
+        String refresh = jwtService.generateRefreshToken(user, "session");
+        assertThat(stub.validateToken(request(refresh, "4")).getStatus()).isEqualTo(TokenStatus.TOKEN_INVALID);
+    }
+
+    @Test
+    void slowRevocationCheckReturnsUnknown() {
+        start(token -> Mono.never());
+
+        ValidateTokenResponse response = TokenValidationServiceGrpc.newBlockingStub(channel)
+            .validateToken(request(jwtService.generateAccessToken(user), "1"));
+
+        assertThat(response.getStatus()).isEqualTo(TokenStatus.TOKEN_UNKNOWN);
+        assertThat(response.getSubject()).isEmpty();
+    }
+
+    @Test
+    void streamAnswersEveryRequestBeyondFlowControlWindow() throws Exception {
+        start(token -> Mono.just(false));
+        String token = jwtService.generateAccessToken(user);
+        Map<String, TokenStatus> responses = new ConcurrentHashMap<>();
+        CountDownLatch completed = new CountDownLatch(1);
+
+        StreamObserver<ValidateTokenRequest> requests = TokenValidationServiceGrpc.newStub(channel)
+            .validateTokens(new StreamObserver<>() {
+                @Override
+                public void onNext(ValidateTokenResponse response) {
+                    responses.put(response.getRequestId(), response.getStatus());
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    completed.countDown();
+                }
+
+                @Override
+                public void onCompleted() {
+                    completed.countDown();
+                }
+            });
+        for (int i = 0; i < 200; i++) {
+            requests.onNext(request(i % 2 == 0 ? token : "garbage", String.valueOf(i)));
+        }
+        requests.onCompleted();
+
+        assertThat(completed.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(responses).hasSize(200);
+        assertThat(responses.get("0")).isEqualTo(TokenStatus.TOKEN_ACTIVE);
+        assertThat(responses.get("1")).isEqualTo(TokenStatus.TOKEN_INVALID);
+    }
+
+    private void start(Function<ParsedToken, Mono<Boolean>> revocationCheck) {
+        String name = InProcessServerBuilder.generateName();
+        try {
+            server = InProcessServerBuilder.forName(name)
+                .addService(new TokenValidationGrpcService(jwtService, revocationCheck, Duration.ofMillis(100), 8))
+                .build()
+                .start();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    private static ValidateTokenRequest request(String token, String requestId) {
+        return ValidateTokenRequest.newBuilder().setToken(token).setRequestId(requestId).build();
+    }
+
+    private JwtService jwtService() {
+        JwtKeyRingManager keyRing = new JwtKeyRingManager(
+            new MockEnvironment().withProperty("jwt.secret", "mySecretKeymySecretKeymySecretKeymySecretKey"),
+            new DefaultResourceLoader());
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+        JwtService service = new JwtService(username -> user, new TokenIdGenerator(), keyRing);
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(service, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+}
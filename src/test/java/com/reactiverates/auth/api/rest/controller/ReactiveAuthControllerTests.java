@@ -0,0 +1,371 @@
+package com.reactiverates.auth.api.rest.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.grpc.client.ChannelBuilderOptions;
+import org.springframework.grpc.client.GrpcChannelFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.reactiverates.auth.domain.model.AuthResponse;
+import com.reactiverates.auth.domain.model.SessionCursor;
+import com.reactiverates.auth.domain.model.SessionPage;
+import com.reactiverates.auth.infrastructure.grpc.InProcessUsersServer;
+import com.reactiverates.auth.infrastructure.persistance.embedded.InMemoryRevokedTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.embedded.MappedRefreshTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+import com.reactiverates.auth.infrastructure.persistance.entity.RevokedAccessToken;
+import com.reactiverates.auth.infrastructure.persistance.reactive.R2dbcRefreshTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.reactive.R2dbcRevokedTokenStore;
+import com.reactiverates.users.grpc.UserRole;
+
+import io.grpc.ManagedChannel;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Вход, обновление, выход и отзыв токенов в профиле {@code reactive}. users-service работает в памяти
+ * процесса, таблицы R2DBC заменены встроенными хранилищами.
+ */
+@SpringBootTest(properties = {
+    "spring.config.import=",
+    "spring.cloud.config.enabled=false",
+    "eureka.client.enabled=false",
+    "spring.grpc.server.port=0",
+    "users.grpc.warm-up.enabled=false",
+    "users.cache.enabled=false",
+    "refresh-tokens.purge.enabled=false",
+    "jwt.authentication.user-lookup=true"
+})
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+class ReactiveAuthControllerTests {
+
+    private static final InProcessUsersServer USERS = startUsersServer();
+
+    @Autowired
+    private WebTestClient client;
+
+    @AfterAll
+    static void stopUsersServer() {
+        USERS.close();
+    }
+
+    @Test
+    void loginIssuesTokensThatOpenSessions() {
+        USERS.addUser("alice", "secret");
+
+        AuthResponse tokens = login("alice", "secret");
+
+        assertThat(tokens.username()).isEqualTo("alice");
+        SessionPage sessions = sessions(tokens.accessToken())
+            .expectStatus().isOk()
+            .expectBody(SessionPage.class)
+            .returnResult()
+            .getResponseBody();
+        assertThat(sessions.sessions()).hasSize(1);
+    }
+
+    @Test
+    void passwordIsVerifiedLocallyByDefault() {
+        USERS.addUser("judy", "secret");
+        int credentialsCalls = USERS.credentialsCalls();
+
+        login("judy", "secret");
+
+        // users-service пока не реализует VerifyCredentials: вход не должен от него зависеть
+        assertThat(USERS.credentialsCalls()).isEqualTo(credentialsCalls);
+    }
+
+    @Test
+    void wrongPasswordIsRejected() {
+        USERS.addUser("bob", "secret");
+
+        client.post().uri("/api/auth/login")
+            .bodyValue(Map.of("username", "bob", "password", "wrong"))
+            .exchange()
+            .expectStatus().is4xxClientError();
+    }
+
+    @Test
+    void refreshRotatesTokenAndRejectsReplay() {
+        USERS.addUser("carol", "secret");
+        AuthResponse tokens = login("carol", "secret");
+
+        AuthResponse refreshed = refresh(tokens.refreshToken())
+            .expectStatus().isOk()
+            .expectBody(AuthResponse.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(refreshed.refreshToken()).isNotEqualTo(tokens.refreshToken());
+        refresh(tokens.refreshToken()).expectStatus().isUnauthorized();
+        refresh(refreshed.refreshToken()).expectStatus().isOk();
+    }
+
+    @Test
+    void logoutRevokesAccessTokenAndSession() {
+        USERS.addUser("dave", "secret");
+        AuthResponse tokens = login("dave", "secret");
+
+        client.method(HttpMethod.DELETE).uri("/api/auth/logout")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.accessToken())
+            .bodyValue(Map.of("refreshToken", tokens.refreshToken()))
+            .exchange()
+            .expectStatus().isOk();
+
+        sessions(tokens.accessToken()).expectStatus().isUnauthorized();
+        refresh(tokens.refreshToken()).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void revokeAllRejectsAccessTokensOfOtherSessions() {
+        USERS.addUser("grace", "secret");
+        AuthResponse laptop = login("grace", "secret");
+        AuthResponse phone = login("grace", "secret");
+        AuthResponse refreshedPhone = refresh(phone.refreshToken())
+            .expectStatus().isOk()
+            .expectBody(AuthResponse.class)
+            .returnResult()
+            .getResponseBody();
+
+        client.delete().uri("/api/auth/sessions")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + laptop.accessToken())
+            .exchange()
+            .expectStatus().isOk();
+
+        sessions(laptop.accessToken()).expectStatus().isUnauthorized();
+        sessions(phone.accessToken()).expectStatus().isUnauthorized();
+        sessions(refreshedPhone.accessToken()).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void deletedSessionRejectsItsAccessTokens() {
+        USERS.addUser("heidi", "secret");
+        AuthResponse laptop = login("heidi", "secret");
+        AuthResponse phone = login("heidi", "secret");
+        SessionPage sessions = sessions(laptop.accessToken())
+            .expectStatus().isOk()
+            .expectBody(SessionPage.class)
+            .returnResult()
+            .getResponseBody();
+        // Страница идет от новых сессий к старым
+        long phoneSession = sessions.sessions().get(0).id();
+
+        client.delete().uri("/api/auth/sessions/{id}", phoneSession)
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + laptop.accessToken())
+            .exchange()
+            .expectStatus().isNoContent();
+
+        sessions(phone.accessToken()).expectStatus().isUnauthorized();
+        sessions(laptop.accessToken()).expectStatus().isOk();
+    }
+
+    @Test
+    void introspectionRequiresServiceRole() {
+        USERS.addUser("ivan", "secret");
+        USERS.addUser("gateway", "secret", UserRole.ADMIN);
+        AuthResponse user = login("ivan", "secret");
+        AuthResponse gateway = login("gateway", "secret");
+        Map<String, Object> request = Map.of("tokens", List.of(user.accessToken()));
+
+        client.post().uri("/api/auth/introspect")
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isUnauthorized();
+        client.post().uri("/api/auth/introspect")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.accessToken())
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isForbidden();
+        client.post().uri("/api/auth/introspect")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + gateway.accessToken())
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.results[0].active").isEqualTo(true)
+            .jsonPath("$.results[0].subject").isEqualTo("ivan");
+    }
+
+    @Test
+    void malformedSessionCursorIsBadRequest() {
+        USERS.addUser("frank", "secret");
+        AuthResponse tokens = login("frank", "secret");
+
+        client.get().uri("/api/auth/sessions?cursor={cursor}", "bm90LWEtY3Vyc29y")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.accessToken())
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void userLookupRejectsTokenOfRemovedUser() {
+        USERS.addUser("erin", "secret");
+        AuthResponse tokens = login("erin", "secret");
+        sessions(tokens.accessToken()).expectStatus().isOk();
+
+        USERS.removeUser("erin");
+
+        // С jwt.authentication.user-lookup=true подписи и срока недостаточно
+        sessions(tokens.accessToken()).expectStatus().isUnauthorized();
+    }
+
+    private AuthResponse login(String username, String password) {
+        return client.post().uri("/api/auth/login")
+            .bodyValue(Map.of("username", username, "password", password))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(AuthResponse.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private WebTestClient.ResponseSpec refresh(String refreshToken) {
+        return client.post().uri("/api/auth/refresh")
+            .bodyValue(Map.of("refreshToken", refreshToken))
+            .exchange();
+    }
+
+    private WebTestClient.ResponseSpec sessions(String accessToken) {
+        return client.get().uri("/api/auth/sessions")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+            .exchange();
+    }
+
+    private static InProcessUsersServer startUsersServer() {
+        try {
+            return new InProcessUsersServer().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TestConfiguration
+    static class EmbeddedInfrastructure {
+
+        @Bean
+        @Primary
+        GrpcChannelFactory inProcessChannelFactory() {
+            return new GrpcChannelFactory() {
+                @Override
+                public boolean supports(String target) {
+                    return true;
+                }
+
+                @Override
+                public ManagedChannel createChannel(String target, ChannelBuilderOptions options) {
+                    return InProcessChannelBuilder.forName(USERS.name()).build();
+                }
+            };
+        }
+
+        @Bean
+        @Primary
+        R2dbcRefreshTokenStore embeddedRefreshTokenStore() throws IOException {
+            return new EmbeddedRefreshTokenStore(new MappedRefreshTokenStore(
+                Files.createTempDirectory("refresh-tokens"), 1 << 20, 64, 0.5, false));
+        }
+
+        @Bean
+        @Primary
+        R2dbcRevokedTokenStore embeddedRevokedTokenStore() {
+            return new EmbeddedRevokedTokenStore(new InMemoryRevokedTokenStore());
+        }
+    }
+
+    private static class EmbeddedRefreshTokenStore extends R2dbcRefreshTokenStore {
+
+        private final MappedRefreshTokenStore store;
+
+        EmbeddedRefreshTokenStore(MappedRefreshTokenStore store) {
+            super(null);
+            this.store = store;
+        }
+
+        @Override
+        public Mono<RefreshToken> insert(RefreshToken refreshToken, int keep) {
+            return Mono.fromCallable(() -> store.insert(refreshToken, keep));
+        }
+
+        @Override
+        public Mono<Long> rotate(long id, byte[] oldHash, byte[] newHash, Instant expiryDate, Instant now) {
+            return Mono.fromCallable(() -> store.rotate(id, oldHash, newHash, expiryDate, now) ? 1L : 0L);
+        }
+
+        @Override
+        public Flux<RefreshToken> findSessions(Long userId, SessionCursor after, int limit) {
+            return Flux.defer(() -> Flux.fromIterable(store.findSessions(userId, after, limit)));
+        }
+
+        @Override
+        public Mono<RefreshToken> findByTokenHash(byte[] tokenHash) {
+            return Mono.defer(() -> Mono.justOrEmpty(store.findByTokenHash(tokenHash)));
+        }
+
+        @Override
+        public Mono<Long> deleteByUserId(Long userId) {
+            return Mono.fromCallable(() -> (long) store.deleteByUserId(userId));
+        }
+
+        @Override
+        public Mono<Long> deleteById(long id) {
+            return Mono.fromCallable(() -> store.findById(id)
+                .map(token -> store.deleteSession(id, token.getUserId()) ? 1L : 0L)
+                .orElse(0L));
+        }
+
+        @Override
+        public Mono<Long> deleteByIdAndUserId(long id, Long userId) {
+            return Mono.fromCallable(() -> store.deleteSession(id, userId) ? 1L : 0L);
+        }
+    }
+
+    private static class EmbeddedRevokedTokenStore extends R2dbcRevokedTokenStore {
+
+        private final InMemoryRevokedTokenStore store;
+
+        EmbeddedRevokedTokenStore(InMemoryRevokedTokenStore store) {
+            super(null);
+            this.store = store;
+        }
+
+        @Override
+        public Mono<Long> revoke(byte[] tokenHash, Instant expiresAt, Instant revokedAt) {
+            return Mono.fromCallable(() -> store.revoke(tokenHash, expiresAt, revokedAt) ? 1L : 0L);
+        }
+
+        @Override
+        public Mono<Boolean> isRevoked(byte[] tokenHash, Instant now) {
+            return Mono.fromCallable(() -> store.isRevoked(tokenHash, now));
+        }
+
+        @Override
+        public Flux<RevokedAccessToken> findRevokedSince(Instant revokedSince, Instant now) {
+            return Flux.defer(() -> Flux.fromIterable(store.findRevokedSince(revokedSince, now)));
+        }
+
+        @Override
+        public Mono<Long> deleteExpired(Instant now, int limit) {
+            return Mono.fromCallable(() -> (long) store.deleteExpired(now, limit));
+        }
+    }
+}
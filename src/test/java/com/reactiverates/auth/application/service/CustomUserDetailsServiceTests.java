@@ -0,0 +1,151 @@
+package com.reactiverates.auth.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.reactiverates.auth.domain.model.CredentialsVerification;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+import com.reactiverates.auth.infrastructure.config.PasswordEncoderConfig;
+import com.reactiverates.auth.infrastructure.security.BoundedPasswordEncoder;
+import com.reactiverates.users.grpc.UserResponse;
+import com.reactiverates.users.grpc.UserRole;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CustomUserDetailsServiceTests {
+
+    private static final int STRENGTH = 6;
+
+    private final FakeUsersService usersService = new FakeUsersService();
+    private PasswordEncoder passwordEncoder;
+    private DaoAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        PasswordEncoderConfig config = new PasswordEncoderConfig();
+        ReflectionTestUtils.setField(config, "poolSize", 1);
+        ReflectionTestUtils.setField(config, "queueCapacity", 4);
+        ReflectionTestUtils.setField(config, "queueTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(config, "retryAfter", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(config, "strength", STRENGTH);
+        ReflectionTestUtils.setField(config, "calibrationEnabled", false);
+        passwordEncoder = config.passwordEncoder(new SimpleMeterRegistry());
+
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(usersService);
+        provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((BoundedPasswordEncoder) passwordEncoder).close();
+    }
+
+    @Test
+    void cheaperHashIsUpgradedInUsersServiceFormat() {
+        usersService.user = user(new BCryptPasswordEncoder(4).encode("secret"));
+
+        login("secret");
+
+        String upgraded = usersService.updatedHash.get();
+        assertThat(upgraded).startsWith("$2a$0" + STRENGTH + "$").doesNotContain("{bcrypt}");
+        assertThat(new BCryptPasswordEncoder().matches("secret", upgraded)).isTrue();
+    }
+
+    @Test
+    void hashWithCurrentOrHigherStrengthIsKept() {
+        usersService.user = user(new BCryptPasswordEncoder(STRENGTH).encode("secret"));
+        login("secret");
+
+        usersService.user = user(new BCryptPasswordEncoder(STRENGTH + 1).encode("secret"));
+        login("secret");
+
+        assertThat(usersService.updatedHash.get()).isNull();
+    }
+
+    private void login(String password) {
+        var authentication = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", password));
+        assertThat(authentication.isAuthenticated()).isTrue();
+    }
+
+    private static UserDto user(String passwordHash) {
+        return new UserDto(UserResponse.newBuilder()
+            .setId(1)
+            .setUsername("alice")
+            .setPasswordHash(passwordHash)
+            .setRole(UserRole.USER)
+            .setIsActive(true)
+            .setFound(true)
+            .build());
+    }
+
+    private static class FakeUsersService implements AsyncUsersService {
+
+        private final AtomicReference<String> updatedHash = new AtomicReference<>();
+        private volatile UserDto user;
+
+        @Override
+        public UserDto createUser(String username, String email, String password,
+                String firstName, String lastName, String phoneNumber) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<UserDto> getUserById(Long userId) {
+            return Optional.ofNullable(user);
+        }
+
+        @Override
+        public Optional<UserDto> getUserByUsername(String username) {
+            return Optional.ofNullable(user);
+        }
+
+        @Override
+        public CredentialsVerification verifyCredentials(String username, String rawPassword) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<UserDto> createUserAsync(String username, String email, String password,
+                String firstName, String lastName, String phoneNumber) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Optional<UserDto>> getUserByIdAsync(Long userId) {
+            return CompletableFuture.completedFuture(getUserById(userId));
+        }
+
+        @Override
+        public CompletableFuture<Optional<UserDto>> getUserByUsernameAsync(String username) {
+            return CompletableFuture.completedFuture(getUserByUsername(username));
+        }
+
+        @Override
+        public CompletableFuture<CredentialsVerification> verifyCredentialsAsync(String username,
+                String rawPassword) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> updatePasswordHashAsync(UserDto user, String newPasswordHash) {
+            updatedHash.set(newPasswordHash);
+            return CompletableFuture.completedFuture(true);
+        }
+    }
+}
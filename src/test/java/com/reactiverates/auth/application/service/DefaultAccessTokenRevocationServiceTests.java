@@ -0,0 +1,121 @@
+package com.reactiverates.auth.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.infrastructure.persistance.embedded.InMemoryRevokedTokenStore;
+import com.reactiverates.auth.infrastructure.security.RotatingBloomFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DefaultAccessTokenRevocationServiceTests {
+
+    private static final Duration ACCESS_TOKEN_TTL = Duration.ofMinutes(15);
+
+    private final TokenIdGenerator generator = new TokenIdGenerator();
+    private final CountingStore store = new CountingStore();
+    private final RotatingBloomFilter bloomFilter = new RotatingBloomFilter(Duration.ofMinutes(15), 1000, 0.001);
+    private final DefaultAccessTokenRevocationService service =
+        new DefaultAccessTokenRevocationService(store, bloomFilter, new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", ACCESS_TOKEN_TTL.toMillis());
+    }
+
+    @Test
+    void checksNonRevokedTokensWithoutStore() {
+        service.revoke(accessToken());
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(service.isRevoked(accessToken())).isFalse();
+        }
+        assertThat(store.lookups.get()).isLessThan(5);
+    }
+
+    @Test
+    void rejectsRevokedToken() {
+        ParsedToken token = accessToken();
+
+        assertThat(service.revoke(token)).isTrue();
+        assertThat(service.revoke(token)).isFalse();
+        assertThat(service.isRevoked(token)).isTrue();
+    }
+
+    @Test
+    void loadsRevocationsMadeByOtherNodes() {
+        ParsedToken token = accessToken();
+        store.revoke(TokenIdGenerator.storageKey(token.id()), token.expiration(), Instant.now());
+        assertThat(service.isRevoked(token)).isFalse();
+
+        service.syncRevocations();
+
+        assertThat(service.isRevoked(token)).isTrue();
+    }
+
+    @Test
+    void revokedSessionRejectsEveryTokenOfSession() {
+        Instant now = Instant.now();
+        ParsedToken beforeRefresh = sessionToken("7", now.plusSeconds(60));
+        ParsedToken afterRefresh = sessionToken("7", now.plus(ACCESS_TOKEN_TTL));
+
+        assertThat(service.revokeSession(7)).isTrue();
+
+        assertThat(service.isRevoked(beforeRefresh)).isTrue();
+        assertThat(service.isRevoked(afterRefresh)).isTrue();
+        assertThat(service.isRevoked(sessionToken("8", now.plusSeconds(60)))).isFalse();
+    }
+
+    @Test
+    void loadsSessionRevocationsMadeByOtherNodes() {
+        Instant now = Instant.now();
+        // Срок токена и время отзыва могут попасть в разные окна фильтра
+        ParsedToken token = sessionToken("9", now.plus(ACCESS_TOKEN_TTL).minusSeconds(1));
+        store.revoke(TokenIdGenerator.sessionKey("9"),
+            DefaultAccessTokenRevocationService.sessionRevocationExpiry(now, ACCESS_TOKEN_TTL.toMillis()), now);
+        assertThat(service.isRevoked(token)).isFalse();
+
+        service.syncRevocations();
+
+        assertThat(service.isRevoked(token)).isTrue();
+    }
+
+    @Test
+    void ignoresTokensWithoutJti() {
+        ParsedToken legacy = new ParsedToken(ParsedToken.ACCESS_TYPE, "john", null, null, null, List.of(),
+            Instant.now().plusSeconds(60));
+
+        assertThat(service.revoke(legacy)).isFalse();
+        assertThat(service.isRevoked(legacy)).isFalse();
+    }
+
+    private ParsedToken accessToken() {
+        return new ParsedToken(ParsedToken.ACCESS_TYPE, "john", generator.newTokenId(), null, null, List.of(),
+            Instant.now().plusSeconds(600));
+    }
+
+    private ParsedToken sessionToken(String sessionId, Instant expiration) {
+        return new ParsedToken(ParsedToken.ACCESS_TYPE, "john", generator.newTokenId(), null, sessionId, List.of(),
+            expiration);
+    }
+
+    private static final class CountingStore extends InMemoryRevokedTokenStore {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public boolean isRevoked(byte[] tokenHash, Instant now) {
+            lookups.incrementAndGet();
+            return super.isRevoked(tokenHash, now);
+        }
+    }
+}
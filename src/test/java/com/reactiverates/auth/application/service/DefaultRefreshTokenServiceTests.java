@@ -0,0 +1,191 @@
+package com.reactiverates.auth.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.reactiverates.auth.domain.exception.TokenException;
+import com.reactiverates.auth.domain.model.SessionCursor;
+import com.reactiverates.auth.domain.model.SessionInfo;
+import com.reactiverates.auth.domain.model.SessionMetadata;
+import com.reactiverates.auth.domain.model.SessionPage;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.infrastructure.persistance.embedded.MappedRefreshTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+import com.reactiverates.users.grpc.UserResponse;
+import com.reactiverates.users.grpc.UserRole;
+
+class DefaultRefreshTokenServiceTests {
+
+    private static final int MAX_SESSIONS = 3;
+    private static final Instant NOW = Instant.parse("2025-01-10T08:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private final UserDto alice = user(1, "alice");
+    private MappedRefreshTokenStore store;
+    private DefaultRefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new MappedRefreshTokenStore(directory, 1 << 16, 64, 0.5, false);
+        service = new DefaultRefreshTokenService(store, null, new TokenIdGenerator());
+        ReflectionTestUtils.setField(service, "refreshTokenExpiration", 60_000L);
+        ReflectionTestUtils.setField(service, "maxSessionsPerUser", MAX_SESSIONS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void fullPageWithoutExtraRowIsLast() {
+        SessionPage page = DefaultRefreshTokenService.toSessionPage(rows(2), 2);
+
+        assertThat(page.sessions()).extracting(SessionInfo::id).containsExactly(1L, 2L);
+        assertThat(page.nextCursor()).isNull();
+        assertThat(DefaultRefreshTokenService.toSessionPage(List.of(), 2).sessions()).isEmpty();
+    }
+
+    @Test
+    void extraRowIsDroppedAndLastRowBecomesCursor() {
+        SessionPage page = DefaultRefreshTokenService.toSessionPage(rows(3), 2);
+
+        assertThat(page.sessions()).extracting(SessionInfo::id).containsExactly(1L, 2L);
+        assertThat(SessionCursor.decode(page.nextCursor())).isEqualTo(new SessionCursor(NOW.minusSeconds(2), 2L));
+    }
+
+    @Test
+    void pagesWalkAllSessionsNewestFirst() {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < MAX_SESSIONS; i++) {
+            created.add(0, service.createRefreshToken(alice, SessionMetadata.UNKNOWN).getId());
+        }
+
+        List<Long> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            SessionPage page = service.listSessions(alice, cursor, 2);
+            page.sessions().forEach(session -> listed.add(session.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(listed).containsExactlyElementsOf(created);
+    }
+
+    @Test
+    void sessionIdsCoverEveryPage() {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < MAX_SESSIONS; i++) {
+            created.add(service.createRefreshToken(alice, SessionMetadata.UNKNOWN).getId());
+        }
+        service.createRefreshToken(user(2, "bob"), SessionMetadata.UNKNOWN);
+        // Лимит уменьшен после входа: сессий больше одной страницы
+        ReflectionTestUtils.setField(service, "maxSessionsPerUser", 2);
+
+        assertThat(service.findSessionIds(alice)).containsExactlyInAnyOrderElementsOf(created);
+    }
+
+    @Test
+    void oldestSessionsBeyondCapAreEvicted() {
+        RefreshToken oldest = service.createRefreshToken(alice, SessionMetadata.UNKNOWN);
+        String oldestTokenId = oldest.getToken();
+        for (int i = 0; i < MAX_SESSIONS; i++) {
+            service.createRefreshToken(alice, SessionMetadata.UNKNOWN);
+        }
+        service.createRefreshToken(user(2, "bob"), SessionMetadata.UNKNOWN);
+
+        SessionPage page = service.listSessions(alice, null, 10);
+
+        assertThat(page.sessions()).hasSize(MAX_SESSIONS)
+            .extracting(SessionInfo::id)
+            .doesNotContain(oldest.getId());
+        assertThat(service.findByTokenId(oldestTokenId)).isEmpty();
+    }
+
+    @Test
+    void replayedRefreshTokenIsRejected() {
+        String tokenId = service.createRefreshToken(alice, SessionMetadata.UNKNOWN).getToken();
+        RefreshToken first = service.findByTokenId(tokenId).orElseThrow();
+        RefreshToken replayed = service.findByTokenId(tokenId).orElseThrow();
+
+        service.rotate(first);
+
+        assertThatThrownBy(() -> service.rotate(replayed))
+            .isInstanceOf(TokenException.class)
+            .hasMessage("Refresh token has already been used");
+        assertThat(service.findByTokenId(tokenId)).isEmpty();
+        assertThat(service.findByTokenId(first.getToken())).isPresent();
+    }
+
+    @Test
+    void onlyOneConcurrentRotationWins() throws Exception {
+        String tokenId = service.createRefreshToken(alice, SessionMetadata.UNKNOWN).getToken();
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                RefreshToken copy = service.findByTokenId(tokenId).orElseThrow();
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        service.rotate(copy);
+                        return true;
+                    } catch (TokenException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int rotated = 0;
+            for (Future<Boolean> result : results) {
+                rotated += result.get() ? 1 : 0;
+            }
+            assertThat(rotated).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<RefreshToken> rows(int count) {
+        return IntStream.rangeClosed(1, count)
+            .mapToObj(id -> RefreshToken.builder()
+                .id((long) id)
+                .userId(1L)
+                .createdAt(NOW.minusSeconds(id))
+                .lastUsedAt(NOW)
+                .expiryDate(NOW.plusSeconds(60))
+                .build())
+            .toList();
+    }
+
+    private static UserDto user(long id, String username) {
+        return new UserDto(UserResponse.newBuilder()
+            .setId(id)
+            .setUsername(username)
+            .setRole(UserRole.USER)
+            .setIsActive(true)
+            .setFound(true)
+            .build());
+    }
+}
@@ -0,0 +1,93 @@
+package com.reactiverates.auth.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.reactiverates.auth.domain.model.IntrospectionResponse;
+import com.reactiverates.auth.domain.model.TokenIntrospection;
+import com.reactiverates.auth.infrastructure.persistance.embedded.InMemoryRevokedTokenStore;
+import com.reactiverates.auth.infrastructure.security.JwtKeyRingManager;
+import com.reactiverates.auth.infrastructure.security.RotatingBloomFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DefaultTokenIntrospectionServiceTests {
+
+    private final UserDetails user = User.withUsername("john_doe").password("secret").roles("USER").build();
+
+    private JwtService jwtService;
+    private DefaultAccessTokenRevocationService revocationService;
+    private DefaultTokenIntrospectionService service;
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyRingManager keyRing = new JwtKeyRingManager(
+            new MockEnvironment().withProperty("jwt.secret", "mySecretKeymySecretKeymySecretKeymySecretKey"),
+            new DefaultResourceLoader());
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+        jwtService = new JwtService(username -> user, new TokenIdGenerator(), keyRing);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "fastPath", true);
+        jwtService.init();
+
+        revocationService = new DefaultAccessTokenRevocationService(new InMemoryRevokedTokenStore(),
+            new RotatingBloomFilter(Duration.ofMinutes(15), 1000, 0.001), new SimpleMeterRegistry());
+        service = new DefaultTokenIntrospectionService(jwtService, revocationService, new SimpleMeterRegistry(), 4);
+        ReflectionTestUtils.setField(service, "parallelThreshold", 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void reportsEachTokenInRequestOrder() {
+        String active = jwtService.generateAccessToken(user);
+        String revoked = jwtService.generateAccessToken(user);
+        revocationService.revoke(jwtService.parse(revoked));
+        String refresh = jwtService.generateRefreshToken(user, "session");
+
+        IntrospectionResponse response = service.introspect(List.of(active, revoked, "garbage", refresh));
+
+        assertThat(response.results()).hasSize(4);
+        TokenIntrospection first = response.results().get(0);
+        assertThat(first.active()).isTrue();
+        assertThat(first.subject()).isEqualTo("john_doe");
+        assertThat(first.roles()).containsExactly("ROLE_USER");
+        assertThat(first.expiresAt()).isNotNull();
+        assertThat(response.results().get(1)).isEqualTo(new TokenIntrospection(false, true, null, null, null));
+        assertThat(response.results().get(2)).isEqualTo(TokenIntrospection.inactive());
+        // Refresh токен не дает доступа к API и не считается действующим
+        assertThat(response.results().get(3)).isEqualTo(TokenIntrospection.inactive());
+        assertThat(response.elapsedMicros()).isNotNegative();
+    }
+
+    @Test
+    void largeBatchKeepsOrderWhenProcessedInParallel() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tokens.add(i % 3 == 0 ? "garbage-" + i : jwtService.generateAccessToken(user));
+        }
+
+        List<TokenIntrospection> results = service.introspect(tokens).results();
+
+        assertThat(results).hasSize(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            assertThat(results.get(i).active()).as("token %d", i).isEqualTo(i % 3 != 0);
+        }
+    }
+}
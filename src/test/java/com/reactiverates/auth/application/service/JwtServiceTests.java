@@ -0,0 +1,179 @@
+package com.reactiverates.auth.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.reactiverates.auth.domain.model.ParsedToken;
+import com.reactiverates.auth.infrastructure.security.JwtKeyRingManager;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+
+/**
+ * Разбор токенов через {@link JwtService}: быстрый путь HMAC и jjwt дают одинаковый результат.
+ */
+class JwtServiceTests {
+
+    private static final Duration ACCESS_TOKEN_TTL = Duration.ofMinutes(15);
+
+    private final UserDetails user = User.withUsername("john_doe").password("secret").roles("USER").build();
+    private final JwtKeyRingManager keyRing = keyRing("mySecretKeymySecretKeymySecretKeymySecretKey");
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void accessTokenClaimsAreExtracted(boolean fastPath) {
+        JwtService service = jwtService(keyRing, fastPath);
+        Instant issuedAt = Instant.now();
+
+        ParsedToken token = service.parse(service.generateAccessToken(user, 42L));
+
+        assertThat(token.type()).isEqualTo(ParsedToken.ACCESS_TYPE);
+        assertThat(token.subject()).isEqualTo("john_doe");
+        assertThat(token.id()).isNotBlank();
+        assertThat(token.tokenId()).isNull();
+        assertThat(token.sessionId()).isEqualTo("42");
+        assertThat(token.roles()).containsExactly("ROLE_USER");
+        // В токене секунды: срок округляется вниз
+        assertThat(token.expiration()).isBetween(issuedAt.plus(ACCESS_TOKEN_TTL).minusSeconds(1),
+            Instant.now().plus(ACCESS_TOKEN_TTL));
+        assertThat(token.isAccessToken()).isTrue();
+        assertThat(token.isRefreshToken()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void refreshTokenClaimsAreExtracted(boolean fastPath) {
+        JwtService service = jwtService(keyRing, fastPath);
+
+        ParsedToken token = service.parse(service.generateRefreshToken(user, "token-1"));
+
+        assertThat(token.type()).isEqualTo(ParsedToken.REFRESH_TYPE);
+        assertThat(token.subject()).isEqualTo("john_doe");
+        assertThat(token.tokenId()).isEqualTo("token-1");
+        assertThat(token.roles()).isEmpty();
+        assertThat(token.isRefreshToken()).isTrue();
+        assertThat(token.isAccessToken()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void typeChecksSeparateAccessAndRefreshTokens(boolean fastPath) {
+        JwtService service = jwtService(keyRing, fastPath);
+        String access = service.generateAccessToken(user);
+        String refresh = service.generateRefreshToken(user, "token-1");
+
+        // DefaultAuthService.parseRefreshToken принимает только refresh токены
+        assertThat(service.tryParse(access).filter(ParsedToken::isRefreshToken)).isEmpty();
+        assertThat(service.tryParse(refresh).filter(ParsedToken::isRefreshToken)).isPresent();
+        assertThat(service.isAccessToken(access)).isTrue();
+        assertThat(service.isRefreshToken(access)).isFalse();
+        assertThat(service.isAccessToken(refresh)).isFalse();
+        assertThat(service.isRefreshToken(refresh)).isTrue();
+        assertThat(service.isAccessToken("garbage")).isFalse();
+        assertThat(service.isRefreshToken("garbage")).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void tokenSignedWithAnotherKeyIsRejected(boolean fastPath) {
+        JwtService service = jwtService(keyRing, fastPath);
+        JwtService foreign = jwtService(keyRing("anotherSecretanotherSecretanotherSecretKey"), fastPath);
+        String token = foreign.generateAccessToken(user);
+
+        assertThat(service.tryParse(token)).isEmpty();
+        String[] parts = service.generateAccessToken(user).split("\\.");
+        assertThat(service.tryParse(parts[0] + "." + parts[1] + "." + token.split("\\.")[2])).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void malformedInputIsRejected(boolean fastPath) {
+        JwtService service = jwtService(keyRing, fastPath);
+        String[] parts = service.generateAccessToken(user).split("\\.");
+
+        assertThat(service.tryParse(null)).isEmpty();
+        assertThat(service.tryParse("")).isEmpty();
+        assertThat(service.tryParse("garbage")).isEmpty();
+        assertThat(service.tryParse("a.b.c")).isEmpty();
+        assertThat(service.tryParse(parts[0] + "." + parts[1])).isEmpty();
+        assertThat(service.tryParse(parts[0] + ".!!!." + parts[2])).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void expiredTokenIsRejected(boolean fastPath) {
+        JwtService service = jwtService(keyRing, fastPath);
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", -1_000L);
+        String token = service.generateAccessToken(user);
+
+        assertThatThrownBy(() -> service.parse(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(service.tryParse(token)).isEmpty();
+    }
+
+    @Test
+    void fastPathFallsBackToJjwtForTokensItDoesNotRecognize() {
+        JwtService fast = jwtService(keyRing, true);
+        long now = System.currentTimeMillis();
+        // Лишний параметр заголовка: быстрый путь такой токен не распознает, и разбор уходит в jjwt
+        String foreignHeader = keyRing.current().active().sign(Jwts.builder()
+                .header().type("JWT").and()
+                .claim("type", ParsedToken.ACCESS_TYPE)
+                .claim("roles", List.of("ROLE_USER"))
+                .claim("sid", "7")
+                .id("jti-1")
+                .subject("john_doe")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + ACCESS_TOKEN_TTL.toMillis())))
+            .compact();
+        assertThat(keyRing.current().verifyHmac(foreignHeader, now)).isNull();
+
+        ParsedToken parsed = fast.parse(foreignHeader);
+
+        assertThat(parsed.subject()).isEqualTo("john_doe");
+        assertThat(parsed.id()).isEqualTo("jti-1");
+        assertThat(parsed.sessionId()).isEqualTo("7");
+        assertThat(parsed.roles()).containsExactly("ROLE_USER");
+        assertThat(parsed.isAccessToken()).isTrue();
+    }
+
+    @Test
+    void fastPathAndJjwtAgreeOnEachOthersTokens() {
+        JwtService fast = jwtService(keyRing, true);
+        JwtService jjwt = jwtService(keyRing, false);
+        String fromFastPath = fast.generateAccessToken(user, 7L);
+        String fromJjwt = jjwt.generateAccessToken(user, 7L);
+
+        assertThat(jjwt.parse(fromFastPath)).isEqualTo(fast.parse(fromFastPath));
+        assertThat(fast.parse(fromJjwt)).isEqualTo(jjwt.parse(fromJjwt));
+    }
+
+    private JwtService jwtService(JwtKeyRingManager keyRing, boolean fastPath) {
+        JwtService service = new JwtService(username -> user, new TokenIdGenerator(), keyRing);
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", ACCESS_TOKEN_TTL.toMillis());
+        ReflectionTestUtils.setField(service, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(service, "fastPath", fastPath);
+        service.init();
+        return service;
+    }
+
+    private static JwtKeyRingManager keyRing(String secret) {
+        JwtKeyRingManager keyRing = new JwtKeyRingManager(
+            new MockEnvironment().withProperty("jwt.secret", secret), new DefaultResourceLoader());
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+        return keyRing;
+    }
+}
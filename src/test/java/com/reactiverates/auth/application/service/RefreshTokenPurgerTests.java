@@ -0,0 +1,155 @@
+package com.reactiverates.auth.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.reactiverates.auth.domain.model.SessionMetadata;
+import com.reactiverates.auth.domain.model.SessionPage;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.domain.service.RefreshTokenService;
+import com.reactiverates.auth.infrastructure.persistance.RefreshTokenPartitionManager;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RefreshTokenPurgerTests {
+
+    private static final int BATCH_SIZE = 10;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FakeRefreshTokenService refreshTokenService = new FakeRefreshTokenService();
+    private final RefreshTokenPurger purger = new RefreshTokenPurger(refreshTokenService,
+        new StaticListableBeanFactory(Map.of()).getBeanProvider(RefreshTokenPartitionManager.class), registry);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(purger, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(purger, "maxBatchesPerRun", 3);
+        ReflectionTestUtils.setField(purger, "pauseBetweenBatches", Duration.ZERO);
+    }
+
+    @Test
+    void deletesInBatchesUntilShortBatch() {
+        refreshTokenService.expired = 25;
+
+        purger.purgeExpiredTokens();
+
+        assertThat(refreshTokenService.limits).containsExactly(BATCH_SIZE, BATCH_SIZE, BATCH_SIZE);
+        assertThat(refreshTokenService.expired).isZero();
+        assertThat(deleted()).isEqualTo(25);
+        assertThat(backlog()).isZero();
+    }
+
+    @Test
+    void stopsAfterShortBatch() {
+        refreshTokenService.expired = 12;
+
+        purger.purgeExpiredTokens();
+
+        assertThat(refreshTokenService.limits).hasSize(2);
+        assertThat(deleted()).isEqualTo(12);
+    }
+
+    @Test
+    void stopsAtMaxBatchesAndReportsBacklog() {
+        refreshTokenService.expired = 45;
+
+        purger.purgeExpiredTokens();
+
+        assertThat(refreshTokenService.limits).hasSize(3);
+        assertThat(deleted()).isEqualTo(30);
+        assertThat(backlog()).isEqualTo(15);
+    }
+
+    @Test
+    void exactlyFullBatchesNeedOneMoreEmptyBatch() {
+        refreshTokenService.expired = 20;
+
+        purger.purgeExpiredTokens();
+
+        assertThat(refreshTokenService.limits).hasSize(3);
+        assertThat(deleted()).isEqualTo(20);
+    }
+
+    private double deleted() {
+        return registry.get("refresh-tokens.purge.deleted").counter().count();
+    }
+
+    private double backlog() {
+        return registry.get("refresh-tokens.purge.backlog").gauge().value();
+    }
+
+    private static class FakeRefreshTokenService implements RefreshTokenService {
+
+        private final List<Integer> limits = new ArrayList<>();
+        private int expired;
+
+        @Override
+        public int deleteExpiredTokens(int limit) {
+            limits.add(limit);
+            int deleted = Math.min(limit, expired);
+            expired -= deleted;
+            return deleted;
+        }
+
+        @Override
+        public long countExpiredTokens() {
+            return expired;
+        }
+
+        @Override
+        public RefreshToken createRefreshToken(UserDto userDto, SessionMetadata metadata) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RefreshToken rotate(RefreshToken token) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String generateRefreshTokenJwt(UserDto userDto, String tokenId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<RefreshToken> findByTokenId(String tokenId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RefreshToken verifyExpiration(RefreshToken token) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SessionPage listSessions(UserDto userDto, String cursor, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean deleteSession(UserDto userDto, long sessionId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean deleteByUser(UserDto userDto) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Long> findSessionIds(UserDto userDto) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.reactiverates.auth.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class TokenIdGeneratorTests {
+
+    private final TokenIdGenerator generator = new TokenIdGenerator();
+
+    @Test
+    void generatesVersion7IdsCarryingTimestamp() {
+        long now = 1_736_500_000_123L;
+
+        UUID uuid = UUID.fromString(generator.newTokenId(now));
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(now);
+    }
+
+    @Test
+    void storageKeysAreOrderedByIssueTime() {
+        byte[] earlier = TokenIdGenerator.storageKey(generator.newTokenId(1_000L));
+        byte[] later = TokenIdGenerator.storageKey(generator.newTokenId(2_000L));
+
+        assertThat(earlier).hasSize(TokenIdGenerator.STORAGE_KEY_BYTES);
+        assertThat(Arrays.compareUnsigned(earlier, later)).isNegative();
+    }
+
+    @Test
+    void storageKeyDoesNotContainRandomPartOfId() {
+        String tokenId = generator.newTokenId();
+        byte[] key = TokenIdGenerator.storageKey(tokenId);
+        byte[] uuidBytes = uuidBytes(UUID.fromString(tokenId));
+
+        assertThat(Arrays.copyOfRange(key, TokenIdGenerator.TIMESTAMP_BYTES, key.length))
+            .isNotEqualTo(Arrays.copyOfRange(uuidBytes, TokenIdGenerator.TIMESTAMP_BYTES, uuidBytes.length));
+        assertThat(TokenIdGenerator.storageKey(tokenId)).isEqualTo(key);
+    }
+
+    @Test
+    void legacyKeyMatchesMigrationScript() throws Exception {
+        // '\x000000000000' || substring(sha256(uuid_send(token::uuid)) FROM 1 FOR 10)
+        String legacyId = "550e8400-e29b-41d4-a716-446655440000";
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(uuidBytes(UUID.fromString(legacyId)));
+
+        String expected = "000000000000" + HexFormat.of().formatHex(digest, 0, 10);
+
+        assertThat(HexFormat.of().formatHex(TokenIdGenerator.storageKey(legacyId))).isEqualTo(expected);
+    }
+
+    private static byte[] uuidBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
+    }
+}
@@ -0,0 +1,165 @@
+package com.reactiverates.auth.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.reactiverates.auth.infrastructure.security.HmacJwtCodec;
+import com.reactiverates.auth.infrastructure.security.JwtSigningKey;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Подпись и проверка access токена HS256 через jjwt и через {@link HmacJwtCodec}: пропускная способность
+ * и байты, выделенные в куче на операцию (по {@code ThreadMXBean#getThreadAllocatedBytes}), в одном потоке
+ * с прогревом. Claims совпадают с {@code JwtService#generateAccessToken}.
+ * <p>
+ * Затем те же операции {@link HmacJwtCodec} идут короткими задачами по {@value #TASK_OPERATIONS} операций,
+ * как запросы: на пуле платформенных потоков по числу ядер и на виртуальном потоке на задачу (Java 21+).
+ * Второй режим проверяет пул {@code Mac} и буферов кодека там, где {@link ThreadLocal} не переживает задачу.
+ *
+ * Запуск:
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.reactiverates.auth.benchmark.HmacJwtCodecBenchmark \
+ *     -Dexec.args="200000"
+ * </pre>
+ * Аргумент: число операций в каждом замере.
+ */
+public class HmacJwtCodecBenchmark {
+
+    private static final List<GrantedAuthority> ROLES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    private static final String JTI = "0192b3c4-d5e6-7f80-91a2-b3c4d5e6f708";
+
+    private static final int TASK_OPERATIONS = 10;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        JwtSigningKey key = JwtSigningKey.hmac("2026-10", Jwts.SIG.HS256,
+            Keys.hmacShaKeyFor("mySecretKeymySecretKeymySecretKeymySecretKey".getBytes(StandardCharsets.UTF_8)));
+        HmacJwtCodec codec = key.hmacCodec();
+        JwtParser parser = key.verify(Jwts.parser()).build();
+        String token = codec.sign("access", "john_doe", JTI, null, null, ROLES, System.currentTimeMillis(),
+            System.currentTimeMillis() + 900_000);
+        long now = System.currentTimeMillis();
+
+        Map<String, Supplier<Object>> cases = new LinkedHashMap<>();
+        cases.put("jjwt sign", () -> jjwtSign(key));
+        cases.put("fast sign", () -> codec.sign("access", "john_doe", JTI, null, null, ROLES, now, now + 900_000));
+        cases.put("jjwt verify", () -> parser.parseSignedClaims(token).getPayload());
+        cases.put("fast verify", () -> codec.verify(token, now));
+
+        System.out.printf("%-12s %12s %12s%n", "case", "ops/s", "bytes/op");
+        for (Map.Entry<String, Supplier<Object>> entry : cases.entrySet()) {
+            // Прогрев JIT
+            measure(entry.getValue(), operations);
+            Result result = measure(entry.getValue(), operations);
+            System.out.printf("%-12s %12.0f %12d%n", entry.getKey(), result.opsPerSecond(), result.bytesPerOp());
+        }
+
+        Map<String, Supplier<Object>> fastCases = new LinkedHashMap<>();
+        fastCases.put("fast sign", cases.get("fast sign"));
+        fastCases.put("fast verify", cases.get("fast verify"));
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService platform = Executors.newFixedThreadPool(cores);
+        try {
+            measureConcurrent("platform(" + cores + ")", platform, fastCases, operations);
+        } finally {
+            platform.shutdownNow();
+        }
+        TaskExecutor virtual;
+        try {
+            virtual = new VirtualThreadTaskExecutor("jwt-");
+        } catch (UnsupportedOperationException | IllegalStateException e) {
+            System.out.println("virtual: skipped, virtual threads require Java 21+");
+            return;
+        }
+        measureConcurrent("virtual", virtual, fastCases, operations);
+    }
+
+    private static void measureConcurrent(String mode, Executor executor, Map<String, Supplier<Object>> cases,
+            int operations) throws InterruptedException {
+        for (Map.Entry<String, Supplier<Object>> entry : cases.entrySet()) {
+            // Прогрев JIT
+            measureConcurrent(executor, entry.getValue(), operations);
+            double opsPerSecond = measureConcurrent(executor, entry.getValue(), operations);
+            System.out.printf("%-12s %12.0f %12s  %s%n", entry.getKey(), opsPerSecond, "-", mode);
+        }
+    }
+
+    private static double measureConcurrent(Executor executor, Supplier<Object> operation, int operations)
+            throws InterruptedException {
+        int tasks = Math.max(1, operations / TASK_OPERATIONS);
+        CountDownLatch done = new CountDownLatch(tasks);
+        long start = System.nanoTime();
+        for (int t = 0; t < tasks; t++) {
+            executor.execute(() -> {
+                try {
+                    for (int i = 0; i < TASK_OPERATIONS; i++) {
+                        if (operation.get() == null) {
+                            throw new IllegalStateException("Operation returned null");
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return tasks * TASK_OPERATIONS * 1_000_000_000.0 / (System.nanoTime() - start);
+    }
+
+    private static String jjwtSign(JwtSigningKey key) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("type", "access");
+        claims.put("roles", ROLES.stream().map(GrantedAuthority::getAuthority).toList());
+        claims.put(Claims.ID, JTI);
+        long now = System.currentTimeMillis();
+        return key.sign(Jwts.builder()
+                .claims(claims)
+                .subject("john_doe")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + 900_000)))
+            .compact();
+    }
+
+    private static Result measure(Supplier<Object> operation, int operations) {
+        long threadId = Thread.currentThread().getId();
+        Object sink = null;
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            sink = operation.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        if (sink == null) {
+            throw new IllegalStateException("Operation returned null");
+        }
+        return new Result(operations * 1_000_000_000.0 / elapsed, allocated / operations);
+    }
+
+    private record Result(double opsPerSecond, long bytesPerOp) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.reactiverates.auth.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.reactiverates.auth.infrastructure.security.JwtSigningKey;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Стоимость подписи и проверки access токена для HS256, RS256, ES256 и EdDSA (Ed25519)
+ * в одном потоке, с прогревом. Claims совпадают с {@code JwtService#generateAccessToken}.
+ *
+ * Запуск:
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.reactiverates.auth.benchmark.JwtSigningBenchmark \
+ *     -Dexec.args="20000"
+ * </pre>
+ * Аргумент: число операций в каждом замере.
+ */
+public class JwtSigningBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        Map<String, JwtSigningKey> keys = new LinkedHashMap<>();
+        keys.put("HS256", JwtSigningKey.hmac(null, Jwts.SIG.HS256,
+            Keys.hmacShaKeyFor("mySecretKeymySecretKeymySecretKeymySecretKey".getBytes(StandardCharsets.UTF_8))));
+        keys.put("RS256", JwtSigningKey.asymmetric(Jwts.SIG.RS256, Jwts.SIG.RS256.keyPair().build()));
+        keys.put("ES256", JwtSigningKey.asymmetric(Jwts.SIG.ES256, Jwts.SIG.ES256.keyPair().build()));
+        keys.put("EdDSA", JwtSigningKey.asymmetric(Jwts.SIG.EdDSA,
+            KeyPairGenerator.getInstance("Ed25519").generateKeyPair()));
+
+        System.out.printf("%-6s %12s %12s %10s%n", "alg", "sign us/op", "verify us/op", "length");
+        for (Map.Entry<String, JwtSigningKey> entry : keys.entrySet()) {
+            JwtSigningKey key = entry.getValue();
+            JwtParser parser = key.verify(Jwts.parser()).build();
+            String token = sign(key);
+            // Прогрев JIT
+            measure(() -> sign(key), operations);
+            measure(() -> parser.parseSignedClaims(token), operations);
+
+            double signMicros = measure(() -> sign(key), operations);
+            double verifyMicros = measure(() -> parser.parseSignedClaims(token), operations);
+            System.out.printf("%-6s %12.2f %12.2f %10d%n", entry.getKey(), signMicros, verifyMicros, token.length());
+        }
+    }
+
+    private static String sign(JwtSigningKey key) {
+        long now = System.currentTimeMillis();
+        return key.sign(Jwts.builder()
+                .claim("type", "access")
+                .claim("roles", List.of("ROLE_USER"))
+                .id(UUID.randomUUID().toString())
+                .subject("john_doe")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + 900_000)))
+            .compact();
+    }
+
+    private static double measure(Runnable operation, int operations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / operations;
+    }
+}
@@ -0,0 +1,105 @@
+package com.reactiverates.auth.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Сравнение максимального числа одновременных логинов на пуле платформенных потоков
+ * (по умолчанию Tomcat: 200) и на виртуальных потоках.
+ * Логин моделируется как проверка BCrypt плюс блокирующие вызовы gRPC и JDBC.
+ *
+ * Запуск (Java 21+):
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.reactiverates.auth.benchmark.LoginConcurrencyBenchmark \
+ *     -Dexec.args="5000 20 10"
+ * </pre>
+ * Аргументы: число логинов, задержка ввода-вывода на логин (мс), стоимость BCrypt.
+ */
+public class LoginConcurrencyBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int logins = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        Duration ioLatency = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 20);
+        int bcryptStrength = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(bcryptStrength);
+        String hash = encoder.encode("password123");
+
+        ExecutorService platform = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        try {
+            report("platform(" + TOMCAT_MAX_THREADS + ")", run(platform::submit, logins, ioLatency, encoder, hash));
+        } finally {
+            platform.shutdownNow();
+        }
+
+        TaskExecutor virtual;
+        try {
+            virtual = new VirtualThreadTaskExecutor("login-");
+        } catch (UnsupportedOperationException | IllegalStateException e) {
+            System.out.println("virtual: skipped, virtual threads require Java 21+");
+            return;
+        }
+        report("virtual", run(task -> submit(virtual, task), logins, ioLatency, encoder, hash));
+    }
+
+    private static Result run(Submitter submitter, int logins, Duration ioLatency,
+            BCryptPasswordEncoder encoder, String hash) throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(logins);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < logins; i++) {
+            futures.add(submitter.submit(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    // users-service: загрузка пользователя
+                    Thread.sleep(ioLatency.toMillis() / 2);
+                    encoder.matches("password123", hash);
+                    // PostgreSQL: запись refresh токена
+                    Thread.sleep(ioLatency.toMillis() / 2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return new Result(logins, System.nanoTime() - start, maxInFlight.get());
+    }
+
+    private static Future<?> submit(TaskExecutor executor, Runnable task) {
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        executor.execute(future);
+        return future;
+    }
+
+    private static void report(String mode, Result result) {
+        double seconds = result.elapsedNanos() / 1_000_000_000.0;
+        System.out.printf("%-14s logins=%d time=%.2fs throughput=%.0f/s maxConcurrent=%d%n",
+            mode, result.logins(), seconds, result.logins() / seconds, result.maxInFlight());
+    }
+
+    @FunctionalInterface
+    private interface Submitter {
+        Future<?> submit(Runnable task);
+    }
+
+    private record Result(int logins, long elapsedNanos, int maxInFlight) {}
+}
@@ -0,0 +1,131 @@
+package com.reactiverates.auth.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.reactiverates.auth.application.service.TokenIdGenerator;
+
+/**
+ * Сравнение хранения refresh токенов: {@code varchar} со строкой UUIDv4 против {@code bytea}
+ * с ключом {@link TokenIdGenerator#storageKey}.
+ * Без JDBC URL измеряется только генерация идентификаторов; с URL — скорость вставки
+ * и размер уникального индекса во временных таблицах PostgreSQL.
+ *
+ * Запуск:
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.reactiverates.auth.benchmark.RefreshTokenStorageBenchmark \
+ *     -Dexec.args="1000000 8 jdbc:postgresql://localhost:5432/auth_db postgres postgres"
+ * </pre>
+ * Аргументы: число токенов, число потоков генерации, JDBC URL, пользователь, пароль.
+ */
+public class RefreshTokenStorageBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int tokens = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        TokenIdGenerator generator = new TokenIdGenerator();
+        Supplier<Object> uuidV4 = () -> UUID.randomUUID().toString();
+        Supplier<Object> uuidV7 = () -> TokenIdGenerator.storageKey(generator.newTokenId());
+        // Прогрев JIT и DRBG
+        generate(uuidV4, tokens, threads);
+        generate(uuidV7, tokens, threads);
+        reportGeneration("uuid-v4", generate(uuidV4, tokens, threads), tokens);
+        reportGeneration("uuid-v7+key", generate(uuidV7, tokens, threads), tokens);
+
+        if (args.length < 3) {
+            System.out.println("database: skipped, pass JDBC URL, user and password");
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(args[2],
+                args.length > 3 ? args[3] : null, args.length > 4 ? args[4] : null)) {
+            connection.setAutoCommit(false);
+            insert(connection, "varchar", "VARCHAR(255)", tokens,
+                (statement, i) -> statement.setString(1, UUID.randomUUID().toString()));
+            insert(connection, "bytea", "BYTEA", tokens,
+                (statement, i) -> statement.setBytes(1, TokenIdGenerator.storageKey(generator.newTokenId())));
+        }
+    }
+
+    private static long generate(Supplier<Object> idSupplier, int tokens, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < tokens / threads; i++) {
+                        idSupplier.get();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void insert(Connection connection, String name, String columnType, int tokens,
+            Binder binder) throws Exception {
+        String table = "bench_refresh_tokens_" + name;
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TEMPORARY TABLE " + table
+                + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, token " + columnType + " NOT NULL UNIQUE)");
+        }
+        connection.commit();
+
+        long start = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + table + " (token) VALUES (?)")) {
+            for (int i = 0; i < tokens; i++) {
+                binder.bind(statement, i);
+                statement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        try (Statement query = connection.createStatement();
+                ResultSet rs = query.executeQuery("SELECT pg_relation_size(indexrelid) FROM pg_index "
+                    + "WHERE indrelid = '" + table + "'::regclass AND indisunique AND NOT indisprimary")) {
+            rs.next();
+            double seconds = elapsed / 1_000_000_000.0;
+            System.out.printf("%-12s rows=%d insert=%.2fs throughput=%.0f/s uniqueIndex=%.1fMB%n",
+                name, tokens, seconds, tokens / seconds, rs.getLong(1) / (1024.0 * 1024.0));
+        }
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE " + table);
+        }
+        connection.commit();
+    }
+
+    private static void reportGeneration(String mode, long elapsedNanos, int tokens) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%-12s ids=%d time=%.2fs throughput=%.0f/s%n", mode, tokens, seconds, tokens / seconds);
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement statement, int index) throws Exception;
+    }
+}
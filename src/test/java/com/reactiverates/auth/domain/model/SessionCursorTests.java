@@ -0,0 +1,37 @@
+package com.reactiverates.auth.domain.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class SessionCursorTests {
+
+    @Test
+    void decodesWhatItEncodes() {
+        SessionCursor cursor = new SessionCursor(Instant.parse("2025-01-10T08:00:00.123456Z"), 42);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).doesNotContain("=", "+", "/");
+        assertThat(SessionCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        for (String cursor : new String[] { "not base64!", encode("no-separator"), encode("yesterday|1"),
+                encode("2025-01-10T08:00:00Z|x") }) {
+            assertThatThrownBy(() -> SessionCursor.decode(cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid session cursor");
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,173 @@
+package com.reactiverates.auth.infrastructure.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.reactiverates.auth.domain.model.CredentialsVerification;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.domain.service.AsyncUsersService;
+import com.reactiverates.users.grpc.UserResponse;
+import com.reactiverates.users.grpc.UserRole;
+
+class CachingUsersServiceTests {
+
+    private static final Duration TTL = Duration.ofSeconds(30);
+    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(5);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final FakeUsersService delegate = new FakeUsersService();
+    private final CachingUsersService service =
+        new CachingUsersService(delegate, 100, TTL, NEGATIVE_TTL, Duration.ofMinutes(10), nanos::get);
+
+    @Test
+    void foundUserLivesForTtl() {
+        delegate.add("alice");
+
+        service.getUserByUsername("alice");
+        advance(TTL.minusSeconds(1));
+        assertThat(service.getUserByUsername("alice")).isPresent();
+        // Поиск по имени заполняет и кэш по id
+        assertThat(service.getUserById(delegate.users.get("alice").getId())).isPresent();
+        assertThat(delegate.lookups.get()).isEqualTo(1);
+
+        advance(Duration.ofSeconds(1));
+        assertThat(service.getUserByUsername("alice")).isPresent();
+        assertThat(delegate.lookups.get()).isEqualTo(2);
+    }
+
+    @Test
+    void missingUserIsCachedForNegativeTtl() {
+        assertThat(service.getUserByUsername("bob")).isEmpty();
+        advance(NEGATIVE_TTL.minusSeconds(1));
+        assertThat(service.getUserByUsername("bob")).isEmpty();
+        assertThat(delegate.lookups.get()).isEqualTo(1);
+
+        advance(Duration.ofSeconds(1));
+        service.getUserByUsername("bob");
+        assertThat(delegate.lookups.get()).isEqualTo(2);
+    }
+
+    @Test
+    void createUserDropsCachedMiss() {
+        assertThat(service.getUserByUsername("bob")).isEmpty();
+
+        service.createUser("bob", "bob@example.com", "secret", null, null, null);
+
+        assertThat(service.getUserByUsername("bob")).isPresent();
+    }
+
+    @Test
+    void updatePasswordDropsCachedUser() {
+        UserDto alice = delegate.add("alice");
+        service.getUserByUsername("alice");
+
+        service.updatePasswordHashAsync(alice, "$2a$12$new").join();
+        service.getUserById(alice.getId());
+        assertThat(delegate.lookups.get()).isEqualTo(2);
+        service.getUserByUsername("alice");
+        assertThat(delegate.lookups.get()).isEqualTo(2);
+    }
+
+    @Test
+    void lookupStartedBeforeCreateDoesNotCacheItsMiss() {
+        CompletableFuture<Optional<UserDto>> pending = new CompletableFuture<>();
+        delegate.nextAsyncLookup = pending;
+        CompletableFuture<Optional<UserDto>> lookup = service.getUserByUsernameAsync("bob");
+
+        service.createUser("bob", "bob@example.com", "secret", null, null, null);
+        // Ответ на поиск, отправленный до регистрации, приходит после нее
+        pending.complete(Optional.empty());
+
+        assertThat(lookup.join()).isEmpty();
+        assertThat(service.getUserByUsername("bob")).isPresent();
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static class FakeUsersService implements AsyncUsersService {
+
+        private final Map<String, UserDto> users = new ConcurrentHashMap<>();
+        private final AtomicInteger ids = new AtomicInteger();
+        private final AtomicInteger lookups = new AtomicInteger();
+        private volatile CompletableFuture<Optional<UserDto>> nextAsyncLookup;
+
+        UserDto add(String username) {
+            UserDto user = new UserDto(UserResponse.newBuilder()
+                .setId(ids.incrementAndGet())
+                .setUsername(username)
+                .setRole(UserRole.USER)
+                .setIsActive(true)
+                .setFound(true)
+                .build());
+            users.put(username, user);
+            return user;
+        }
+
+        @Override
+        public UserDto createUser(String username, String email, String password,
+                String firstName, String lastName, String phoneNumber) {
+            return add(username);
+        }
+
+        @Override
+        public Optional<UserDto> getUserById(Long userId) {
+            lookups.incrementAndGet();
+            return users.values().stream().filter(user -> user.getId().equals(userId)).findFirst();
+        }
+
+        @Override
+        public Optional<UserDto> getUserByUsername(String username) {
+            lookups.incrementAndGet();
+            return Optional.ofNullable(users.get(username));
+        }
+
+        @Override
+        public CredentialsVerification verifyCredentials(String username, String rawPassword) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<UserDto> createUserAsync(String username, String email, String password,
+                String firstName, String lastName, String phoneNumber) {
+            return CompletableFuture.completedFuture(add(username));
+        }
+
+        @Override
+        public CompletableFuture<Optional<UserDto>> getUserByIdAsync(Long userId) {
+            return CompletableFuture.completedFuture(getUserById(userId));
+        }
+
+        @Override
+        public CompletableFuture<Optional<UserDto>> getUserByUsernameAsync(String username) {
+            CompletableFuture<Optional<UserDto>> pending = nextAsyncLookup;
+            if (pending != null) {
+                nextAsyncLookup = null;
+                lookups.incrementAndGet();
+                return pending;
+            }
+            return CompletableFuture.completedFuture(getUserByUsername(username));
+        }
+
+        @Override
+        public CompletableFuture<CredentialsVerification> verifyCredentialsAsync(String username,
+                String rawPassword) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> updatePasswordHashAsync(UserDto user, String newPasswordHash) {
+            return CompletableFuture.completedFuture(true);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.reactiverates.auth.infrastructure.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.reactiverates.auth.application.service.CustomUserDetailsService;
+import com.reactiverates.auth.application.service.DefaultAccessTokenRevocationService;
+import com.reactiverates.auth.application.service.JwtService;
+import com.reactiverates.auth.application.service.TokenIdGenerator;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.infrastructure.grpc.InProcessUsersServer;
+import com.reactiverates.auth.infrastructure.grpc.UsersGrpcClient;
+import com.reactiverates.auth.infrastructure.persistance.embedded.InMemoryRevokedTokenStore;
+import com.reactiverates.auth.infrastructure.security.JwtKeyRingManager;
+import com.reactiverates.auth.infrastructure.security.RotatingBloomFilter;
+import com.reactiverates.users.grpc.UserRole;
+import com.reactiverates.users.grpc.UsersServiceGrpc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Аутентификация запроса по bearer токену в сервлетном профиле.
+ */
+class JwtAuthenticationFilterTests {
+
+    private InProcessUsersServer server;
+    private UserDto user;
+    private JwtService jwtService;
+    private OncePerRequestFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new InProcessUsersServer().start();
+        user = new UserDto(server.addUser("alice", "secret", UserRole.ADMIN));
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(new UsersGrpcClient(
+            UsersServiceGrpc.newBlockingStub(server.channel()), UsersServiceGrpc.newFutureStub(server.channel())));
+
+        JwtKeyRingManager keyRing = new JwtKeyRingManager(
+            new MockEnvironment().withProperty("jwt.secret", "mySecretKeymySecretKeymySecretKeymySecretKey"),
+            new DefaultResourceLoader());
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+        jwtService = new JwtService(userDetailsService, new TokenIdGenerator(), keyRing);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "fastPath", true);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        DefaultAccessTokenRevocationService revocationService = new DefaultAccessTokenRevocationService(
+            new InMemoryRevokedTokenStore(), new RotatingBloomFilter(Duration.ofMinutes(15), 1000, 0.001),
+            new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocationService, "accessTokenExpiration", 900_000L);
+        filter = new SecurityConfig(userDetailsService, jwtService, userDetailsService, null, null, revocationService)
+            .jwtAuthFilter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        server.close();
+    }
+
+    @Test
+    void accessTokenAuthenticatesWithRolesFromClaims() throws Exception {
+        Authentication authentication = authenticate(jwtService.generateAccessToken(user));
+
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getName()).isEqualTo("alice");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+            .containsExactly("ADMIN");
+        // Роли берутся из claims: users-service не вызывается
+        assertThat(server.singleCalls()).isZero();
+    }
+
+    @Test
+    void refreshTokenIsNotAcceptedAsBearer() throws Exception {
+        assertThat(authenticate(jwtService.generateRefreshToken(user, "session"))).isNull();
+    }
+
+    @Test
+    void expiredTokenIsRejected() throws Exception {
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", -1_000L);
+
+        assertThat(authenticate(jwtService.generateAccessToken(user))).isNull();
+    }
+
+    @Test
+    void tamperedTokenIsRejected() throws Exception {
+        String[] parts = jwtService.generateAccessToken(user).split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        String forged = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(payload.replace("\"alice\"", "\"mallory\"").getBytes(StandardCharsets.UTF_8));
+
+        assertThat(authenticate(parts[0] + "." + forged + "." + parts[2])).isNull();
+        assertThat(authenticate("not-a-token")).isNull();
+    }
+
+    @Test
+    void userLookupLoadsUserFromUsersService() throws Exception {
+        ReflectionTestUtils.setField(jwtService, "userLookup", true);
+
+        Authentication authentication = authenticate(jwtService.generateAccessToken(user));
+
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getPrincipal()).isInstanceOfSatisfying(UserDto.class,
+            principal -> assertThat(principal.getUsername()).isEqualTo("alice"));
+        assertThat(server.singleCalls()).isEqualTo(1);
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/sessions");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
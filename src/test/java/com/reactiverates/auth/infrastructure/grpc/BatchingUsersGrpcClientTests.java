@@ -0,0 +1,87 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.reactiverates.auth.domain.exception.UsersServiceException;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.users.grpc.UsersServiceGrpc;
+
+import io.grpc.Status;
+
+class BatchingUsersGrpcClientTests {
+
+    private InProcessUsersServer server;
+    private BatchingUsersGrpcClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new InProcessUsersServer().start();
+        UsersGrpcClient singleClient = new UsersGrpcClient(
+            UsersServiceGrpc.newBlockingStub(server.channel()), UsersServiceGrpc.newFutureStub(server.channel()));
+        client = new BatchingUsersGrpcClient(UsersServiceGrpc.newFutureStub(server.channel()), singleClient,
+            Duration.ofMillis(50), 100, Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void concurrentLookupsAreSentAsOneBatch() throws Exception {
+        server.addUser("alice");
+        long bobId = server.addUser("bob").getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Optional<UserDto>>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String username = switch (i % 3) {
+                    case 0 -> "alice";
+                    case 1 -> "bob";
+                    default -> "missing";
+                };
+                results.add(executor.submit(() -> client.getUserByUsername(username)));
+            }
+            Future<Optional<UserDto>> byId = executor.submit(() -> client.getUserById(bobId));
+
+            for (int i = 0; i < results.size(); i++) {
+                Optional<UserDto> user = results.get(i).get();
+                switch (i % 3) {
+                    case 0 -> assertThat(user).map(UserDto::getUsername).contains("alice");
+                    case 1 -> assertThat(user).map(UserDto::getUsername).contains("bob");
+                    default -> assertThat(user).isEmpty();
+                }
+            }
+            assertThat(byId.get()).map(UserDto::getUsername).contains("bob");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(server.batchCalls()).isBetween(1, 2);
+        assertThat(server.singleCalls()).isZero();
+    }
+
+    @Test
+    void batchFailureIsDeliveredToEveryCaller() {
+        server.failWith(Status.UNAVAILABLE);
+
+        assertThatThrownBy(() -> client.getUserByUsername("alice"))
+            .isInstanceOf(UsersServiceException.class)
+            .hasMessageContaining("batched gRPC");
+    }
+}
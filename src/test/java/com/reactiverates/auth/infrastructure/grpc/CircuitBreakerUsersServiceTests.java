@@ -0,0 +1,135 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.reactiverates.auth.api.rest.GlobalExceptionHandler;
+import com.reactiverates.auth.api.rest.GlobalExceptionHandler.ErrorResponse;
+import com.reactiverates.auth.domain.exception.UsersServiceException;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.infrastructure.cache.CachingUsersService;
+import com.reactiverates.users.grpc.UsersServiceGrpc;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+class CircuitBreakerUsersServiceTests {
+
+    private static final int WINDOW = 4;
+
+    private InProcessUsersServer server;
+    private CircuitBreaker circuitBreaker;
+    private CircuitBreakerUsersService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new InProcessUsersServer().start();
+        UsersGrpcClient client = new UsersGrpcClient(
+            UsersServiceGrpc.newBlockingStub(server.channel()), UsersServiceGrpc.newFutureStub(server.channel()));
+        ReflectionTestUtils.setField(client, "readDeadline", Duration.ofMillis(250));
+        // Те же правила записи ошибок, что в UsersServiceConfiguration, но с окном в несколько вызовов
+        circuitBreaker = CircuitBreaker.of("users-service", CircuitBreakerConfig.custom()
+            .failureRateThreshold(50)
+            .slidingWindowSize(WINDOW)
+            .minimumNumberOfCalls(WINDOW)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .recordExceptions(UsersServiceException.class)
+            .build());
+        service = new CircuitBreakerUsersService(client, circuitBreaker);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void unavailableOpensBreakerAndRejectsWithoutCallingServer() {
+        server.failWith(Status.UNAVAILABLE);
+
+        failLookups("alice");
+        int calls = server.singleCalls();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> service.getUserByUsername("alice"))
+            .isInstanceOf(UsersServiceException.class)
+            .hasMessageContaining("circuit breaker is open");
+        assertThat(server.singleCalls()).isEqualTo(calls);
+    }
+
+    @Test
+    void deadlineExceededOpensBreaker() {
+        server.addUser("alice");
+        server.delay(Duration.ofSeconds(1));
+
+        for (int i = 0; i < WINDOW; i++) {
+            UsersServiceException error =
+                catchThrowableOfType(UsersServiceException.class, () -> service.getUserByUsername("alice"));
+            assertThat(error.getCause()).isInstanceOf(StatusRuntimeException.class);
+            assertThat(Status.fromThrowable(error.getCause()).getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED);
+        }
+
+        int calls = server.singleCalls();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> service.getUserByUsernameAsync("alice").join())
+            .hasCauseInstanceOf(UsersServiceException.class);
+        assertThat(server.singleCalls()).isEqualTo(calls);
+    }
+
+    @Test
+    void staleEntryIsServedWhileBreakerIsOpen() {
+        // Свежий кэш выключен, чтобы каждый поиск шел через circuit breaker
+        CachingUsersService cachingService =
+            new CachingUsersService(service, 100, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10));
+        server.addUser("alice");
+        assertThat(cachingService.getUserByUsername("alice")).isPresent();
+
+        server.failWith(Status.UNAVAILABLE);
+        failLookups("bob");
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        int calls = server.singleCalls();
+
+        assertThat(cachingService.getUserByUsername("alice")).map(UserDto::getUsername).contains("alice");
+        assertThat(cachingService.getUserByUsernameAsync("alice").join()).isPresent();
+        assertThatThrownBy(() -> cachingService.getUserByUsername("bob")).isInstanceOf(UsersServiceException.class);
+        assertThat(server.singleCalls()).isEqualTo(calls);
+    }
+
+    @Test
+    void openBreakerMapsToServiceUnavailable() {
+        server.failWith(Status.UNAVAILABLE);
+        failLookups("alice");
+        UsersServiceException rejected =
+            catchThrowableOfType(UsersServiceException.class, () -> service.getUserByUsername("alice"));
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+        ResponseEntity<ErrorResponse> direct = handler.handleUsersServiceException(rejected);
+        // Провайдер аутентификации оборачивает ошибку users-service
+        ResponseEntity<ErrorResponse> wrapped = handler.handleInternalAuthenticationServiceException(
+            new InternalAuthenticationServiceException(rejected.getMessage(), rejected));
+
+        assertThat(direct.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(wrapped.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(wrapped.getBody().status()).isEqualTo(503);
+    }
+
+    private void failLookups(String username) {
+        for (int i = 0; i < WINDOW; i++) {
+            assertThatThrownBy(() -> service.getUserByUsername(username)).isInstanceOf(UsersServiceException.class);
+        }
+    }
+}
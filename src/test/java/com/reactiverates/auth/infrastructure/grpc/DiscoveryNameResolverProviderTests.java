@@ -0,0 +1,108 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+
+import com.reactiverates.users.grpc.GetUserByUsernameRequest;
+import com.reactiverates.users.grpc.UsersServiceGrpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.NameResolverRegistry;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessSocketAddress;
+
+class DiscoveryNameResolverProviderTests {
+
+    private final List<InProcessUsersServer> servers = new ArrayList<>();
+    private final SimpleDiscoveryProperties registry = new SimpleDiscoveryProperties();
+    private DiscoveryNameResolverProvider provider;
+    private PooledManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            InProcessUsersServer server = new InProcessUsersServer().start();
+            server.addUser("alice");
+            servers.add(server);
+        }
+        register(servers);
+
+        provider = new DiscoveryNameResolverProvider(new SimpleDiscoveryClient(registry),
+            InProcessSocketAddress.class, instance -> new InProcessSocketAddress(instance.getHost()));
+        NameResolverRegistry.getDefaultRegistry().register(provider);
+
+        List<ManagedChannel> pool = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            pool.add(InProcessChannelBuilder.forTarget("discovery:///users-service")
+                .defaultLoadBalancingPolicy("round_robin")
+                .directExecutor()
+                .build());
+        }
+        channel = new PooledManagedChannel(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        provider.close();
+        servers.forEach(InProcessUsersServer::close);
+    }
+
+    @Test
+    void callsAreSpreadAcrossAllRegisteredInstances() throws Exception {
+        assertThat(channel.warmUp(Duration.ofSeconds(5))).isTrue();
+
+        callUsersService(30);
+
+        assertThat(servers).allSatisfy(server -> assertThat(server.singleCalls()).isPositive());
+        assertThat(servers.stream().mapToInt(InProcessUsersServer::singleCalls).sum()).isEqualTo(30);
+    }
+
+    @Test
+    void deregisteredInstanceStopsReceivingCalls() throws Exception {
+        assertThat(channel.warmUp(Duration.ofSeconds(5))).isTrue();
+        InProcessUsersServer removed = servers.get(0);
+        register(servers.subList(1, servers.size()));
+        provider.refreshAll();
+        // Новый список адресов применяется балансировщиком асинхронно
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            int calls = removed.singleCalls();
+            callUsersService(6);
+            return removed.singleCalls() == calls;
+        });
+        int callsBefore = removed.singleCalls();
+        int remainingBefore = servers.get(1).singleCalls() + servers.get(2).singleCalls();
+
+        callUsersService(20);
+
+        assertThat(removed.singleCalls()).isEqualTo(callsBefore);
+        assertThat(servers.get(1).singleCalls() + servers.get(2).singleCalls()).isEqualTo(remainingBefore + 20);
+    }
+
+    private void register(List<InProcessUsersServer> instances) {
+        List<DefaultServiceInstance> serviceInstances = instances.stream()
+            .map(server -> new DefaultServiceInstance(server.name(), "users-service", server.name(), 0, false))
+            .toList();
+        registry.setInstances(Map.of("users-service", serviceInstances));
+    }
+
+    private void callUsersService(int calls) {
+        UsersServiceGrpc.UsersServiceBlockingStub stub = UsersServiceGrpc.newBlockingStub(channel);
+        for (int i = 0; i < calls; i++) {
+            assertThat(stub.getUserByUsername(GetUserByUsernameRequest.newBuilder().setUsername("alice").build())
+                .getFound()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.reactiverates.users.grpc.BatchGetUsersRequest;
+import com.reactiverates.users.grpc.BatchGetUsersResponse;
+import com.reactiverates.users.grpc.CreateUserRequest;
+import com.reactiverates.users.grpc.CredentialsStatus;
+import com.reactiverates.users.grpc.GetUserByIdRequest;
+import com.reactiverates.users.grpc.GetUserByUsernameRequest;
+import com.reactiverates.users.grpc.UpdatePasswordHashRequest;
+import com.reactiverates.users.grpc.UpdatePasswordHashResponse;
+import com.reactiverates.users.grpc.UserResponse;
+import com.reactiverates.users.grpc.UserRole;
+import com.reactiverates.users.grpc.UsersServiceGrpc;
+import com.reactiverates.users.grpc.VerifyCredentialsRequest;
+import com.reactiverates.users.grpc.VerifyCredentialsResponse;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Заглушка users-service в памяти процесса для тестов gRPC клиентов.
+ */
+public class InProcessUsersServer extends UsersServiceGrpc.UsersServiceImplBase implements AutoCloseable {
+
+    // Минимальная стоимость BCrypt: тестам не нужна стойкость хеша
+    private static final BCryptPasswordEncoder HASHER = new BCryptPasswordEncoder(4);
+
+    private final String name = InProcessServerBuilder.generateName();
+    private final Map<String, UserResponse> users = new ConcurrentHashMap<>();
+    private final Map<String, String> passwords = new ConcurrentHashMap<>();
+    private final AtomicInteger idSequence = new AtomicInteger();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger credentialsCalls = new AtomicInteger();
+    private volatile Status failure;
+    private volatile CompletableFuture<Void> gate = CompletableFuture.completedFuture(null);
+    private volatile Duration delay = Duration.ZERO;
+    private Server server;
+    private ManagedChannel channel;
+
+    public InProcessUsersServer start() throws IOException {
+        server = InProcessServerBuilder.forName(name)
+            .directExecutor()
+            .addService(this)
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        return this;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public ManagedChannel channel() {
+        return channel;
+    }
+
+    public UserResponse addUser(String username) {
+        return addUser(username, UserRole.USER);
+    }
+
+    private UserResponse addUser(String username, UserRole role) {
+        return addUser(username, role, "");
+    }
+
+    private UserResponse addUser(String username, UserRole role, String passwordHash) {
+        UserResponse user = UserResponse.newBuilder()
+            .setId(idSequence.incrementAndGet())
+            .setUsername(username)
+            .setEmail(username + "@example.com")
+            .setRole(role)
+            .setIsActive(true)
+            .setPasswordHash(passwordHash)
+            .setFound(true)
+            .build();
+        users.put(username, user);
+        return user;
+    }
+
+    public UserResponse addUser(String username, String password) {
+        return addUser(username, password, UserRole.USER);
+    }
+
+    /**
+     * Пароль доступен и для {@code VerifyCredentials}, и для локальной проверки по хешу из ответа.
+     */
+    public UserResponse addUser(String username, String password, UserRole role) {
+        passwords.put(username, password);
+        return addUser(username, role, HASHER.encode(password));
+    }
+
+    public void removeUser(String username) {
+        users.remove(username);
+        passwords.remove(username);
+    }
+
+    public void failWith(Status status) {
+        this.failure = status;
+    }
+
+    /**
+     * Ответы на поиск пользователя задерживаются до {@link #release()}; поток вызова не блокируется.
+     */
+    public void hold() {
+        this.gate = new CompletableFuture<>();
+    }
+
+    public void release() {
+        gate.complete(null);
+    }
+
+    /**
+     * Каждый ответ на поиск пользователя отправляется с задержкой.
+     */
+    public void delay(Duration delay) {
+        this.delay = delay;
+    }
+
+    public int singleCalls() {
+        return singleCalls.get();
+    }
+
+    public int batchCalls() {
+        return batchCalls.get();
+    }
+
+    public int credentialsCalls() {
+        return credentialsCalls.get();
+    }
+
+    @Override
+    public void createUser(CreateUserRequest request, StreamObserver<UserResponse> responseObserver) {
+        if (respondWithFailure(responseObserver)) {
+            return;
+        }
+        responseObserver.onNext(addUser(request.getUsername()));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getUserById(GetUserByIdRequest request, StreamObserver<UserResponse> responseObserver) {
+        singleCalls.incrementAndGet();
+        respondLater(responseObserver, () -> findById(request.getUserId()));
+    }
+
+    @Override
+    public void getUserByUsername(GetUserByUsernameRequest request, StreamObserver<UserResponse> responseObserver) {
+        singleCalls.incrementAndGet();
+        respondLater(responseObserver, () -> findByUsername(request.getUsername()));
+    }
+
+    @Override
+    public void batchGetUsers(BatchGetUsersRequest request, StreamObserver<BatchGetUsersResponse> responseObserver) {
+        batchCalls.incrementAndGet();
+        if (respondWithFailure(responseObserver)) {
+            return;
+        }
+        BatchGetUsersResponse.Builder response = BatchGetUsersResponse.newBuilder();
+        request.getUserIdsList().forEach(id -> response.addUsersById(findById(id)));
+        request.getUsernamesList().forEach(username -> response.addUsersByUsername(findByUsername(username)));
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void verifyCredentials(VerifyCredentialsRequest request, StreamObserver<VerifyCredentialsResponse> responseObserver) {
+        credentialsCalls.incrementAndGet();
+        if (respondWithFailure(responseObserver)) {
+            return;
+        }
+        UserResponse user = users.get(request.getUsername());
+        boolean valid = user != null && request.getPassword().equals(passwords.get(request.getUsername()));
+        responseObserver.onNext(valid
+            ? VerifyCredentialsResponse.newBuilder().setStatus(CredentialsStatus.CREDENTIALS_VALID)
+                .setUser(user.toBuilder().clearPasswordHash()).build()
+            : VerifyCredentialsResponse.newBuilder().setStatus(CredentialsStatus.CREDENTIALS_INVALID).build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void updatePasswordHash(UpdatePasswordHashRequest request, StreamObserver<UpdatePasswordHashResponse> responseObserver) {
+        if (respondWithFailure(responseObserver)) {
+            return;
+        }
+        boolean updated = users.values().stream()
+            .filter(user -> user.getId() == request.getUserId())
+            .findFirst()
+            .filter(user -> user.getPasswordHash().equals(request.getExpectedPasswordHash()))
+            .map(user -> users.replace(user.getUsername(), user,
+                user.toBuilder().setPasswordHash(request.getPasswordHash()).build()))
+            .orElse(false);
+        responseObserver.onNext(UpdatePasswordHashResponse.newBuilder().setUpdated(updated).build());
+        responseObserver.onCompleted();
+    }
+
+    private UserResponse findByUsername(String username) {
+        return users.getOrDefault(username, notFound());
+    }
+
+    private UserResponse findById(long id) {
+        return users.values().stream()
+            .filter(user -> user.getId() == id)
+            .findFirst()
+            .orElseGet(InProcessUsersServer::notFound);
+    }
+
+    private static UserResponse notFound() {
+        return UserResponse.newBuilder().setFound(false).setMessage("User not found").build();
+    }
+
+    private <T> void respondLater(StreamObserver<T> responseObserver, Supplier<T> response) {
+        CompletableFuture<Void> ready = gate;
+        if (!delay.isZero()) {
+            ready = ready.thenRunAsync(() -> { },
+                CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS));
+        }
+        ready.thenRun(() -> {
+            if (respondWithFailure(responseObserver)) {
+                return;
+            }
+            responseObserver.onNext(response.get());
+            responseObserver.onCompleted();
+        });
+    }
+
+    private boolean respondWithFailure(StreamObserver<?> responseObserver) {
+        Status status = failure;
+        if (status == null) {
+            return false;
+        }
+        responseObserver.onError(status.asRuntimeException());
+        return true;
+    }
+
+    @Override
+    public void close() {
+        release();
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.reactiverates.auth.domain.exception.UsersServiceException;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.users.grpc.UsersServiceGrpc;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightUsersServiceTests {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private InProcessUsersServer server;
+    private SingleFlightUsersService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new InProcessUsersServer().start();
+        UsersGrpcClient client = new UsersGrpcClient(
+            UsersServiceGrpc.newBlockingStub(server.channel()), UsersServiceGrpc.newFutureStub(server.channel()));
+        service = new SingleFlightUsersService(client, Duration.ofMillis(200));
+        service.bindMetrics(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        server.close();
+    }
+
+    @Test
+    void concurrentLookupsShareOneCall() throws Exception {
+        server.addUser("alice");
+        server.hold();
+
+        List<Future<Optional<UserDto>>> results = lookupConcurrently("alice");
+        awaitUntil(() -> coalesced() == CALLERS - 1);
+        server.release();
+
+        for (Future<Optional<UserDto>> result : results) {
+            assertThat(result.get()).map(UserDto::getUsername).contains("alice");
+        }
+        assertThat(server.singleCalls()).isEqualTo(1);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void failureIsDeliveredToEveryWaiter() throws Exception {
+        server.failWith(Status.UNAVAILABLE);
+        server.hold();
+
+        List<Future<Optional<UserDto>>> results = lookupConcurrently("alice");
+        awaitUntil(() -> coalesced() == CALLERS - 1);
+        server.release();
+
+        for (Future<Optional<UserDto>> result : results) {
+            assertThatThrownBy(result::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(UsersServiceException.class);
+        }
+        assertThat(server.singleCalls()).isEqualTo(1);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void waiterTimesOutAndNextCallStartsNewLoad() throws Exception {
+        server.addUser("alice");
+        server.hold();
+
+        Future<Optional<UserDto>> leader = executor.submit(() -> service.getUserByUsername("alice"));
+        awaitUntil(() -> inFlight() == 1);
+        assertThatThrownBy(() -> service.getUserByUsername("alice"))
+            .isInstanceOf(UsersServiceException.class)
+            .hasMessageContaining("Timed out waiting");
+
+        server.release();
+        assertThat(leader.get()).isPresent();
+        assertThat(inFlight()).isZero();
+
+        assertThat(service.getUserByUsername("alice")).isPresent();
+        assertThat(server.singleCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void asyncLookupsShareOneCallAndClearEntry() {
+        server.addUser("alice");
+        server.hold();
+
+        var first = service.getUserByUsernameAsync("alice");
+        var second = service.getUserByUsernameAsync("alice");
+        assertThat(inFlight()).isEqualTo(1);
+        server.release();
+
+        assertThat(first.join()).isPresent();
+        assertThat(second.join()).isPresent();
+        assertThat(server.singleCalls()).isEqualTo(1);
+        assertThat(inFlight()).isZero();
+    }
+
+    private List<Future<Optional<UserDto>>> lookupConcurrently(String username) {
+        List<Future<Optional<UserDto>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> service.getUserByUsername(username)));
+        }
+        return results;
+    }
+
+    private double coalesced() {
+        return registry.get("users.single-flight.coalesced").tag("key", "username").functionCounter().count();
+    }
+
+    private double inFlight() {
+        return registry.get("users.single-flight.in-flight").tag("key", "username").gauge().value();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
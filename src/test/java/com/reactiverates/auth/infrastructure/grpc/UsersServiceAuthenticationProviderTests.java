@@ -0,0 +1,69 @@
+package com.reactiverates.auth.infrastructure.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import com.reactiverates.auth.domain.exception.UsersServiceException;
+import com.reactiverates.auth.domain.model.UserDto;
+import com.reactiverates.auth.infrastructure.security.UsersServiceAuthenticationProvider;
+import com.reactiverates.users.grpc.UsersServiceGrpc;
+
+import io.grpc.Status;
+
+class UsersServiceAuthenticationProviderTests {
+
+    private InProcessUsersServer server;
+    private UsersServiceAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new InProcessUsersServer().start();
+        server.addUser("alice", "secret");
+        provider = new UsersServiceAuthenticationProvider(new UsersGrpcClient(
+            UsersServiceGrpc.newBlockingStub(server.channel()), UsersServiceGrpc.newFutureStub(server.channel())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void validCredentialsReturnPrincipalWithoutSecondLookup() {
+        Authentication authentication = provider.authenticate(
+            UsernamePasswordAuthenticationToken.unauthenticated("alice", "secret"));
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(authentication.getPrincipal()).isInstanceOfSatisfying(UserDto.class, user -> {
+            assertThat(user.getUsername()).isEqualTo("alice");
+            assertThat(user.getPassword()).isEmpty();
+        });
+        assertThat(server.singleCalls()).isZero();
+    }
+
+    @Test
+    void invalidCredentialsAreRejected() {
+        assertThatThrownBy(() -> provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("alice", "wrong")))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> provider.authenticateAsync(
+                UsernamePasswordAuthenticationToken.unauthenticated("bob", "secret")).join())
+            .hasCauseInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void unavailableUsersServiceIsNotReportedAsBadCredentials() {
+        server.failWith(Status.UNAVAILABLE);
+
+        assertThatThrownBy(() -> provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("alice", "secret")))
+            .isInstanceOf(UsersServiceException.class);
+    }
+}
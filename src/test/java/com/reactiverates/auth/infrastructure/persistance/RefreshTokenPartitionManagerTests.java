@@ -0,0 +1,94 @@
+package com.reactiverates.auth.infrastructure.persistance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RefreshTokenPartitionManagerTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final RefreshTokenPartitionManager manager = new RefreshTokenPartitionManager(jdbcTemplate);
+
+    @Test
+    void dropsOnlyPartitionsBeforeToday() {
+        jdbcTemplate.partitions = List.of(
+            "refresh_tokens_p20260308",
+            "refresh_tokens_p20260309",
+            "refresh_tokens_p20260310",
+            "refresh_tokens_p20260311");
+
+        int dropped = manager.dropExpiredPartitions(TODAY);
+
+        assertThat(dropped).isEqualTo(2);
+        assertThat(jdbcTemplate.statements).containsExactly(
+            "DROP TABLE IF EXISTS refresh_tokens_p20260308",
+            "DROP TABLE IF EXISTS refresh_tokens_p20260309");
+    }
+
+    @Test
+    void ignoresPartitionsWithoutDateSuffix() {
+        jdbcTemplate.partitions = List.of("refresh_tokens_pdefault", "refresh_tokens_p2026");
+
+        assertThat(manager.dropExpiredPartitions(TODAY)).isZero();
+        assertThat(jdbcTemplate.statements).isEmpty();
+    }
+
+    @Test
+    void createsPartitionsFromTodayForDaysAhead() {
+        ReflectionTestUtils.setField(manager, "partitionsAhead", 2);
+
+        manager.createUpcomingPartitions(TODAY);
+
+        assertThat(jdbcTemplate.statements).containsExactly(
+            "CREATE TABLE IF NOT EXISTS refresh_tokens_p20260310 PARTITION OF refresh_tokens"
+                + " FOR VALUES FROM ('2026-03-10') TO ('2026-03-11')",
+            "CREATE TABLE IF NOT EXISTS refresh_tokens_p20260311 PARTITION OF refresh_tokens"
+                + " FOR VALUES FROM ('2026-03-11') TO ('2026-03-12')",
+            "CREATE TABLE IF NOT EXISTS refresh_tokens_p20260312 PARTITION OF refresh_tokens"
+                + " FOR VALUES FROM ('2026-03-12') TO ('2026-03-13')");
+    }
+
+    @Test
+    void failsWhenPartitionOfSomeDayCannotBeCreated() {
+        ReflectionTestUtils.setField(manager, "partitionsAhead", 2);
+        jdbcTemplate.failingFragment = "refresh_tokens_p20260311";
+
+        assertThatThrownBy(() -> manager.createUpcomingPartitions(TODAY))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("[2026-03-11]")
+            .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        // Остальные дни все равно создаются
+        assertThat(jdbcTemplate.statements).hasSize(2);
+    }
+
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<String> statements = new ArrayList<>();
+        private List<String> partitions = List.of();
+        private String failingFragment;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType) {
+            return (List<T>) partitions;
+        }
+
+        @Override
+        public void execute(String sql) {
+            if (failingFragment != null && sql.contains(failingFragment)) {
+                throw new DataIntegrityViolationException("updated partition constraint for default partition would be violated");
+            }
+            statements.add(sql);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.reactiverates.auth.infrastructure.persistance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reactiverates.auth.application.service.TokenIdGenerator;
+import com.reactiverates.auth.infrastructure.persistance.embedded.MappedRefreshTokenStore;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WriteBehindRefreshTokenStoreTests {
+
+    private static final Instant NOW = Instant.parse("2025-01-10T08:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private final TokenIdGenerator generator = new TokenIdGenerator();
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private MappedRefreshTokenStore database;
+    private WriteBehindRefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Встроенное хранилище играет роль уже записанных строк, JDBC только запоминает пакеты
+        database = new MappedRefreshTokenStore(directory, 4096, 16, 0.5, false);
+        store = new WriteBehindRefreshTokenStore(database, jdbcTemplate, new InlineTransactionTemplate(),
+            Duration.ofHours(1), 1000, 1000, 10, true, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        database.close();
+    }
+
+    @Test
+    void readsPendingInsertsBeforeFlush() {
+        RefreshToken first = store.insert(token(1L, NOW), 10);
+        RefreshToken second = store.insert(token(1L, NOW.plusSeconds(1)), 10);
+
+        assertThat(store.findByTokenHash(first.getTokenHash())).hasValueSatisfying(found ->
+            assertThat(found.getId()).isEqualTo(first.getId()));
+        assertThat(store.findSessions(1L, null, 10)).extracting(RefreshToken::getId)
+            .containsExactly(second.getId(), first.getId());
+        assertThat(jdbcTemplate.batches).isEmpty();
+
+        store.flush();
+
+        assertThat(store.pendingCount()).isZero();
+        assertThat(jdbcTemplate.batches).containsEntry("INSERT", 2);
+        assertThat(jdbcTemplate.batches).containsEntry("EVICT", 1);
+    }
+
+    @Test
+    void rotatesPersistedTokenInDatabaseBeforeReturning() {
+        RefreshToken persisted = database.insert(token(1L, NOW), 10);
+        byte[] newHash = newHash();
+
+        assertThat(store.rotate(persisted.getId(), persisted.getTokenHash(), newHash, NOW.plusSeconds(60), NOW))
+            .isTrue();
+        assertThat(store.rotate(persisted.getId(), persisted.getTokenHash(), newHash(), NOW.plusSeconds(60), NOW))
+            .isFalse();
+
+        assertThat(store.pendingCount()).isZero();
+        assertThat(database.findByTokenHash(newHash)).isPresent();
+        assertThat(store.findByTokenHash(persisted.getTokenHash())).isEmpty();
+        assertThat(store.findSessions(1L, null, 10)).singleElement().satisfies(found ->
+            assertThat(found.getTokenHash()).isEqualTo(newHash));
+    }
+
+    @Test
+    void replayOnAnotherInstanceIsRejected() {
+        RefreshToken persisted = database.insert(token(1L, NOW), 10);
+        try (WriteBehindRefreshTokenStore other = new WriteBehindRefreshTokenStore(database, jdbcTemplate,
+                new InlineTransactionTemplate(), Duration.ofHours(1), 1000, 1000, 10, true, new SimpleMeterRegistry())) {
+
+            assertThat(store.rotate(persisted.getId(), persisted.getTokenHash(), newHash(), NOW.plusSeconds(60), NOW))
+                .isTrue();
+            assertThat(other.rotate(persisted.getId(), persisted.getTokenHash(), newHash(), NOW.plusSeconds(60), NOW))
+                .isFalse();
+        }
+    }
+
+    @Test
+    void rotatesPendingInsertInMemory() {
+        RefreshToken issued = store.insert(token(1L, NOW), 10);
+        byte[] newHash = newHash();
+
+        assertThat(store.rotate(issued.getId(), issued.getTokenHash(), newHash, NOW.plusSeconds(60), NOW)).isTrue();
+        assertThat(store.rotate(issued.getId(), issued.getTokenHash(), newHash(), NOW.plusSeconds(60), NOW)).isFalse();
+        assertThat(store.findByTokenHash(newHash)).isPresent();
+
+        store.flush();
+
+        assertThat(jdbcTemplate.inserted).singleElement().satisfies(token ->
+            assertThat(token.getTokenHash()).isEqualTo(newHash));
+        assertThat(jdbcTemplate.batches).doesNotContainKey("UPDATE");
+    }
+
+    @Test
+    void flushesDeletesBeforeReturning() {
+        RefreshToken persisted = database.insert(token(1L, NOW), 10);
+        store.insert(token(1L, NOW.plusSeconds(1)), 10);
+
+        assertThat(store.deleteSession(persisted.getId(), 2L)).isFalse();
+        assertThat(store.deleteSession(persisted.getId(), 1L)).isTrue();
+
+        assertThat(store.pendingCount()).isZero();
+        assertThat(jdbcTemplate.batches).containsEntry("DELETE", 1).containsEntry("INSERT", 1);
+    }
+
+    private RefreshToken token(Long userId, Instant createdAt) {
+        return RefreshToken.builder()
+            .userId(userId)
+            .tokenHash(newHash())
+            .expiryDate(createdAt.plus(7, ChronoUnit.DAYS))
+            .createdAt(createdAt)
+            .lastUsedAt(createdAt)
+            .build();
+    }
+
+    private byte[] newHash() {
+        return TokenIdGenerator.storageKey(generator.newTokenId());
+    }
+
+    /** Выдает id из собственного счетчика и считает строки в пакетах по типу запроса */
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final AtomicLong sequence = new AtomicLong(1_000);
+        private final Map<String, Integer> batches = new LinkedHashMap<>();
+        private final List<RefreshToken> inserted = new ArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            int count = (Integer) args[0];
+            return (List<T>) new ArrayList<>(LongStream.range(0, count).map(i -> sequence.getAndIncrement()).boxed().toList());
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                ParameterizedPreparedStatementSetter<T> setter) {
+            if (!batchArgs.isEmpty()) {
+                String type = sql.strip().startsWith("DELETE FROM refresh_tokens WHERE id IN") ? "EVICT"
+                    : sql.strip().split("\\s+")[0];
+                batches.merge(type, batchArgs.size(), Integer::sum);
+                if (type.equals("INSERT")) {
+                    batchArgs.forEach(token -> inserted.add((RefreshToken) token));
+                }
+            }
+            int[] counts = new int[batchArgs.size()];
+            Arrays.fill(counts, 1);
+            return new int[][] { counts };
+        }
+    }
+
+    private static final class InlineTransactionTemplate extends TransactionTemplate {
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+            return action.doInTransaction(new SimpleTransactionStatus());
+        }
+    }
+}
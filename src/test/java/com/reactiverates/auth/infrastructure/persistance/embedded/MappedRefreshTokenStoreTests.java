@@ -0,0 +1,237 @@
+package com.reactiverates.auth.infrastructure.persistance.embedded;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.reactiverates.auth.application.service.TokenIdGenerator;
+import com.reactiverates.auth.domain.model.SessionCursor;
+import com.reactiverates.auth.infrastructure.persistance.entity.RefreshToken;
+
+class MappedRefreshTokenStoreTests {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final Instant NOW = Instant.parse("2025-01-10T08:00:00.123456Z");
+
+    @TempDir
+    Path directory;
+
+    private final TokenIdGenerator generator = new TokenIdGenerator();
+    private MappedRefreshTokenStore store;
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void rotatesTokenOnlyOnce() {
+        store = open();
+        RefreshToken token = store.insert(token(1L, NOW), 10);
+        byte[] oldHash = token.getTokenHash();
+        byte[] newHash = newHash();
+
+        assertThat(store.rotate(token.getId(), oldHash, newHash, NOW.plusSeconds(60), NOW)).isTrue();
+        assertThat(store.rotate(token.getId(), oldHash, newHash(), NOW.plusSeconds(60), NOW)).isFalse();
+
+        assertThat(store.findByTokenHash(oldHash)).isEmpty();
+        assertThat(store.findByTokenHash(newHash)).hasValueSatisfying(found -> {
+            assertThat(found.getId()).isEqualTo(token.getId());
+            assertThat(found.getExpiryDate()).isEqualTo(NOW.plusSeconds(60));
+            assertThat(found.getDeviceName()).isEqualTo("device-1");
+        });
+    }
+
+    @Test
+    void evictsOldestSessionsAndPagesNewestFirst() {
+        store = open();
+        for (int i = 0; i < 5; i++) {
+            store.insert(token(1L, NOW.plusSeconds(i)), 3);
+        }
+        store.insert(token(2L, NOW), 3);
+
+        List<RefreshToken> firstPage = store.findSessions(1L, null, 2);
+        assertThat(firstPage).extracting(RefreshToken::getCreatedAt)
+            .containsExactly(NOW.plusSeconds(4), NOW.plusSeconds(3));
+
+        RefreshToken last = firstPage.get(1);
+        List<RefreshToken> secondPage = store.findSessions(1L, new SessionCursor(last.getCreatedAt(), last.getId()), 2);
+        assertThat(secondPage).extracting(RefreshToken::getCreatedAt).containsExactly(NOW.plusSeconds(2));
+        assertThat(store.size()).isEqualTo(4);
+    }
+
+    @Test
+    void deletesOnlySessionsOfOwner() {
+        store = open();
+        RefreshToken token = store.insert(token(1L, NOW), 10);
+
+        assertThat(store.deleteSession(token.getId(), 2L)).isFalse();
+        assertThat(store.deleteSession(token.getId(), 1L)).isTrue();
+        assertThat(store.findByTokenHash(token.getTokenHash())).isEmpty();
+        assertThat(store.findSessions(1L, null, 10)).isEmpty();
+    }
+
+    @Test
+    void recoversStateAfterReopen() {
+        store = open();
+        RefreshToken kept = store.insert(token(1L, NOW), 10);
+        RefreshToken rotated = store.insert(token(1L, NOW.plusSeconds(1)), 10);
+        RefreshToken deleted = store.insert(token(2L, NOW), 10);
+        byte[] rotatedHash = newHash();
+        store.rotate(rotated.getId(), rotated.getTokenHash(), rotatedHash, NOW.plusSeconds(120), NOW.plusSeconds(5));
+        store.deleteByUserId(2L);
+        store.close();
+
+        store = open();
+
+        assertThat(store.findByTokenHash(kept.getTokenHash())).isPresent();
+        assertThat(store.findByTokenHash(rotated.getTokenHash())).isEmpty();
+        assertThat(store.findByTokenHash(rotatedHash)).hasValueSatisfying(found ->
+            assertThat(found.getLastUsedAt()).isEqualTo(NOW.plusSeconds(5)));
+        assertThat(store.findByTokenHash(deleted.getTokenHash())).isEmpty();
+        // id удаленной сессии не выдается повторно
+        assertThat(store.insert(token(3L, NOW), 10).getId()).isGreaterThan(deleted.getId());
+    }
+
+    @Test
+    void truncatesTornRecordOnRecovery() throws Exception {
+        store = open();
+        RefreshToken first = store.insert(token(1L, NOW), 10);
+        RefreshToken torn = store.insert(token(1L, NOW.plusSeconds(1)), 10);
+        store.close();
+
+        Path segment = LogSegment.pathFor(directory, 1);
+        byte[] bytes = Files.readAllBytes(segment);
+        int hashPosition = indexOf(bytes, torn.getTokenHash());
+        bytes[hashPosition] ^= 0x5a;
+        Files.write(segment, bytes);
+
+        store = open();
+
+        assertThat(store.findByTokenHash(first.getTokenHash())).isPresent();
+        assertThat(store.findSessions(1L, null, 10)).extracting(RefreshToken::getId).containsExactly(first.getId());
+        RefreshToken next = store.insert(token(1L, NOW.plusSeconds(2)), 10);
+        assertThat(store.findByTokenHash(next.getTokenHash())).isPresent();
+    }
+
+    @Test
+    void compactsObsoleteRecordsAndKeepsLiveOnes() throws Exception {
+        store = open();
+        RefreshToken live = store.insert(token(1L, NOW), 100);
+        for (int i = 0; i < 200; i++) {
+            RefreshToken expired = token(2L, NOW.plusSeconds(i));
+            expired.setExpiryDate(NOW.minusSeconds(1));
+            store.insert(expired, 100);
+        }
+        assertThat(segmentCount()).isGreaterThan(3);
+
+        assertThat(store.countExpired(NOW)).isEqualTo(100);
+        assertThat(store.deleteExpired(NOW, 1000)).isEqualTo(100);
+
+        assertThat(segmentCount()).isEqualTo(1);
+        assertThat(store.deadBytes()).isLessThan(store.totalBytes());
+        store.close();
+
+        store = open();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.findByTokenHash(live.getTokenHash())).isPresent();
+    }
+
+    @Test
+    void deletesEarliestExpiredSessionsUpToLimit() {
+        store = open();
+        RefreshToken live = store.insert(expiringToken(1L, NOW.plusSeconds(60)), 100);
+        RefreshToken latest = store.insert(expiringToken(1L, NOW.minusSeconds(1)), 100);
+        RefreshToken earliest = store.insert(expiringToken(2L, NOW.minusSeconds(30)), 100);
+        RefreshToken middle = store.insert(expiringToken(3L, NOW.minusSeconds(10)), 100);
+
+        assertThat(store.countExpired(NOW)).isEqualTo(3);
+        assertThat(store.deleteExpired(NOW, 2)).isEqualTo(2);
+
+        assertThat(store.findById(earliest.getId())).isEmpty();
+        assertThat(store.findById(middle.getId())).isEmpty();
+        assertThat(store.findById(latest.getId())).isPresent();
+        assertThat(store.countExpired(NOW)).isEqualTo(1);
+        assertThat(store.deleteExpired(NOW, 2)).isEqualTo(1);
+        assertThat(store.findById(live.getId())).isPresent();
+    }
+
+    @Test
+    void rotationMovesSessionInExpiryOrder() {
+        store = open();
+        RefreshToken token = store.insert(expiringToken(1L, NOW.minusSeconds(1)), 10);
+        assertThat(store.countExpired(NOW)).isEqualTo(1);
+
+        store.rotate(token.getId(), token.getTokenHash(), newHash(), NOW.plusSeconds(60), NOW);
+        assertThat(store.countExpired(NOW)).isZero();
+        store.close();
+
+        store = open();
+        assertThat(store.countExpired(NOW)).isZero();
+        assertThat(store.countExpired(NOW.plusSeconds(61))).isEqualTo(1);
+        assertThat(store.deleteExpired(NOW.plusSeconds(61), 10)).isEqualTo(1);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void growsIndexesBeyondInitialCapacity() {
+        store = open();
+        List<RefreshToken> tokens = Stream.generate(() -> store.insert(token(1L, NOW), 1000)).limit(500).toList();
+
+        assertThat(tokens).allSatisfy(token -> assertThat(store.findByTokenHash(token.getTokenHash())).isPresent());
+    }
+
+    private MappedRefreshTokenStore open() {
+        return new MappedRefreshTokenStore(directory, SEGMENT_SIZE, 16, 0.5, false);
+    }
+
+    private RefreshToken token(Long userId, Instant createdAt) {
+        return RefreshToken.builder()
+            .userId(userId)
+            .tokenHash(newHash())
+            .expiryDate(createdAt.plus(7, ChronoUnit.DAYS))
+            .createdAt(createdAt)
+            .lastUsedAt(createdAt)
+            .deviceName("device-" + userId)
+            .userAgent("JUnit")
+            .build();
+    }
+
+    private RefreshToken expiringToken(Long userId, Instant expiryDate) {
+        RefreshToken token = token(userId, NOW);
+        token.setExpiryDate(expiryDate);
+        return token;
+    }
+
+    private byte[] newHash() {
+        return TokenIdGenerator.storageKey(generator.newTokenId());
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new AssertionError("Record not found");
+    }
+}
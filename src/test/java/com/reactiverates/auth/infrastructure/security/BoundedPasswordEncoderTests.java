@@ -0,0 +1,87 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.reactiverates.auth.domain.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BoundedPasswordEncoderTests {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void delegatesOnWorkerPool() {
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(null), 1, 1, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        encoder.bindMetrics(registry);
+
+        assertThat(encoder.matches("secret", encoder.encode("secret"))).isTrue();
+        assertThat(registry.get("password.encoder.hash").tag("operation", "matches").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWhenTaskCannotStartInTime() throws Exception {
+        CountDownLatch busy = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(busy), 1, 1, Duration.ofMillis(50), Duration.ofSeconds(2));
+        encoder.bindMetrics(registry);
+
+        CompletableFuture<String> occupying = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(busy.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> encoder.matches("second", "second"))
+            .isInstanceOfSatisfying(ServiceOverloadedException.class,
+                e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+        assertThat(registry.get("password.encoder.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(occupying.get(1, TimeUnit.SECONDS)).isEqualTo("first");
+    }
+
+    /**
+     * Кодировщик без хеширования; при заданном {@code busy} блокируется до {@code release}.
+     */
+    private class PlainEncoder implements PasswordEncoder {
+
+        private final CountDownLatch busy;
+
+        PlainEncoder(CountDownLatch busy) {
+            this.busy = busy;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (busy != null) {
+                busy.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
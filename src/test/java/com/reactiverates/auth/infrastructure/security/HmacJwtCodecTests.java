@@ -0,0 +1,163 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.reactiverates.auth.domain.model.ParsedToken;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+class HmacJwtCodecTests {
+
+    private static final SecretKey KEY =
+        Keys.hmacShaKeyFor("mySecretKeymySecretKeymySecretKeymySecretKey".getBytes(StandardCharsets.UTF_8));
+    private static final List<SimpleGrantedAuthority> ROLES =
+        List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    private final JwtSigningKey signingKey = JwtSigningKey.hmac("2026-10", Jwts.SIG.HS256, KEY);
+    private final HmacJwtCodec codec = signingKey.hmacCodec();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"john_doe", "Иван \"Ваня\" Петров\\", "emoji 😀 tab\t"})
+    void jjwtReadsFastToken(String subject) {
+        long now = System.currentTimeMillis();
+        String token = codec.sign(ParsedToken.ACCESS_TYPE, subject, "jti-1", null, "42", ROLES, now, now + 900_000);
+
+        var jws = Jwts.parser().verifyWith(KEY).build().parseSignedClaims(token);
+        Claims claims = jws.getPayload();
+        assertThat(jws.getHeader().getKeyId()).isEqualTo("2026-10");
+        assertThat(jws.getHeader().getAlgorithm()).isEqualTo("HS256");
+        assertThat(claims.getSubject()).isEqualTo(subject);
+        assertThat(claims.get("type", String.class)).isEqualTo("access");
+        assertThat(claims.get("roles", List.class)).containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertThat(claims.getId()).isEqualTo("jti-1");
+        assertThat(claims.get("sid", String.class)).isEqualTo("42");
+        assertThat(claims.getIssuedAt()).isEqualTo(new Date(now / 1000 * 1000));
+        assertThat(claims.getExpiration()).isEqualTo(new Date((now + 900_000) / 1000 * 1000));
+    }
+
+    @Test
+    void readsJjwtToken() {
+        long now = System.currentTimeMillis();
+        String token = signingKey.sign(Jwts.builder()
+                .claim("type", "refresh")
+                .claim("tokenId", "session-1")
+                .subject("john_doe")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + 60_000)))
+            .compact();
+
+        ParsedToken parsed = codec.verify(token, now);
+
+        assertThat(parsed).isEqualTo(new ParsedToken("refresh", "john_doe", null, "session-1", null, List.of(),
+            new Date(now + 60_000).toInstant().truncatedTo(ChronoUnit.SECONDS)));
+    }
+
+    @Test
+    void roundTripsOwnToken() {
+        long now = System.currentTimeMillis();
+        String token = codec.sign(ParsedToken.ACCESS_TYPE, "john_doe", "jti-1", null, "42", ROLES, now, now + 900_000);
+
+        ParsedToken parsed = codec.verify(token, now);
+
+        assertThat(parsed.isAccessToken()).isTrue();
+        assertThat(parsed.subject()).isEqualTo("john_doe");
+        assertThat(parsed.id()).isEqualTo("jti-1");
+        assertThat(parsed.sessionId()).isEqualTo("42");
+        assertThat(parsed.roles()).containsExactly("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    void leavesRejectionToJjwt() {
+        long now = System.currentTimeMillis();
+        String token = codec.sign(ParsedToken.ACCESS_TYPE, "john_doe", "jti-1", null, null, ROLES, now, now + 900_000);
+        String[] parts = token.split("\\.");
+        String forged = codec.sign(ParsedToken.ACCESS_TYPE, "admin", "jti-1", null, null, ROLES, now, now + 900_000)
+            .split("\\.")[1];
+        HmacJwtCodec otherKey = JwtSigningKey.hmac("2026-10", Jwts.SIG.HS256,
+            Keys.hmacShaKeyFor("anotherKeyanotherKeyanotherKeyanotherKey".getBytes(StandardCharsets.UTF_8)))
+            .hmacCodec();
+
+        assertThat(codec.verify(parts[0] + "." + forged + "." + parts[2], now)).isNull();
+        int tampered = token.length() - 5;
+        char replacement = token.charAt(tampered) == 'A' ? 'B' : 'A';
+        assertThat(codec.verify(token.substring(0, tampered) + replacement + token.substring(tampered + 1), now))
+            .isNull();
+        assertThat(codec.verify(token, now + 901_000)).isNull();
+        assertThat(otherKey.verify(token, now)).isNull();
+        assertThat(codec.withoutKid().verify(token, now)).isNull();
+        assertThat(codec.verify("garbage", now)).isNull();
+        // Экранированные строки разбирает jjwt
+        String escaped = codec.sign(ParsedToken.ACCESS_TYPE, "a\"b", null, null, null, null, now, now + 900_000);
+        assertThat(codec.verify(escaped, now)).isNull();
+    }
+
+    @Test
+    void concurrentCallersNeverShareWorkspace() throws Exception {
+        // Потоков больше, чем слотов пула: часть операций идет на новых Mac и буферах
+        int threads = Runtime.getRuntime().availableProcessors() * 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String subject = "user-" + t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        long now = System.currentTimeMillis();
+                        String jti = subject + "-" + i;
+                        String token = codec.sign(ParsedToken.ACCESS_TYPE, subject, jti, null, "42", ROLES,
+                            now, now + 900_000);
+                        ParsedToken parsed = codec.verify(token, now);
+                        assertThat(parsed).isNotNull();
+                        assertThat(parsed.subject()).isEqualTo(subject);
+                        assertThat(parsed.id()).isEqualTo(jti);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void base64MatchesJdk() {
+        Random random = new Random(42);
+        for (int length = 0; length < 100; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            String expected = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+            byte[] encoded = new byte[HmacJwtCodec.base64Length(length)];
+
+            HmacJwtCodec.encode(bytes, 0, length, encoded, 0);
+            byte[] decoded = new byte[length];
+            int decodedLength = HmacJwtCodec.decode(encoded, 0, encoded.length, decoded, 0);
+
+            assertThat(new String(encoded, StandardCharsets.US_ASCII)).isEqualTo(expected);
+            assertThat(decodedLength).isEqualTo(length);
+            assertThat(decoded).isEqualTo(bytes);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+
+class JwtKeyRingManagerTests {
+
+    private static final Duration REFRESH_LIFETIME = Duration.ofDays(7);
+
+    private MockEnvironment environment;
+    private JwtKeyRingManager manager;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+            .withProperty("jwt.keys.ring[0].kid", "k1")
+            .withProperty("jwt.keys.ring[0].algorithm", "ES256")
+            .withProperty("jwt.keys.ring[1].kid", "k2")
+            .withProperty("jwt.keys.ring[1].algorithm", "ES256")
+            .withProperty("jwt.keys.active", "k1");
+        manager = new JwtKeyRingManager(environment, new DefaultResourceLoader());
+        ReflectionTestUtils.setField(manager, "accessTokenExpiration", Duration.ofMinutes(15).toMillis());
+        ReflectionTestUtils.setField(manager, "refreshTokenExpiration", REFRESH_LIFETIME.toMillis());
+    }
+
+    @Test
+    void previousKeyStillVerifiesAfterRotation() {
+        Instant now = Instant.now();
+        JwtKeyRing before = manager.build(now);
+        String token = before.active().sign(Jwts.builder().subject("john_doe")).compact();
+
+        environment.setProperty("jwt.keys.active", "k2");
+        JwtKeyRing after = manager.build(now.plusSeconds(1));
+
+        assertThat(after.active().kid()).isEqualTo("k2");
+        // Ключи не генерируются заново при перечитывании: k1 тот же, что подписал токен
+        assertThat(after.verificationKey("k1")).isSameAs(before.verificationKey("k1"));
+        assertThat(parseSubject(after, token)).isEqualTo("john_doe");
+    }
+
+    @Test
+    void retiredKeyIsDroppedAfterTokenLifetime() {
+        Instant now = Instant.now();
+        manager.build(now);
+        environment.setProperty("jwt.keys.active", "k2");
+        manager.build(now);
+
+        assertThat(manager.build(now.plus(REFRESH_LIFETIME).minusSeconds(1)).kids()).containsOnly("k1", "k2");
+        JwtKeyRing expired = manager.build(now.plus(REFRESH_LIFETIME));
+        assertThat(expired.kids()).containsOnly("k2");
+        assertThat(expired.verificationKey("k1")).isNull();
+        // Выведенный ключ не возвращается при следующих загрузках
+        assertThat(manager.build(now.plus(REFRESH_LIFETIME).plusSeconds(60)).kids()).containsOnly("k2");
+    }
+
+    @Test
+    void explicitRetiredAtTakesPrecedence() {
+        environment.setProperty("jwt.keys.ring[0].retired-at", Instant.now().minus(REFRESH_LIFETIME).toString());
+        environment.setProperty("jwt.keys.active", "k2");
+
+        assertThat(manager.build(Instant.now()).kids()).containsOnly("k2");
+    }
+
+    @Test
+    void fallsBackToSingleLegacyKeyWithoutRing() {
+        MockEnvironment legacy = new MockEnvironment()
+            .withProperty("jwt.secret", "mySecretKeymySecretKeymySecretKeymySecretKey");
+        JwtKeyRing ring = new JwtKeyRingManager(legacy, new DefaultResourceLoader()).build(Instant.now());
+        String token = ring.active().sign(Jwts.builder().subject("john_doe")).compact();
+
+        assertThat(ring.active().kid()).isNull();
+        assertThat(parseSubject(ring, token)).isEqualTo("john_doe");
+    }
+
+    private static String parseSubject(JwtKeyRing ring, String token) {
+        return Jwts.parser()
+            .keyLocator(header -> ring.verificationKey(((ProtectedHeader) header).getKeyId()))
+            .build()
+            .parseSignedClaims(token)
+            .getPayload()
+            .getSubject();
+    }
+}
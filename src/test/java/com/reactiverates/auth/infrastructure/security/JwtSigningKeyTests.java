@@ -0,0 +1,53 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.security.KeyPairGenerator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+
+class JwtSigningKeyTests {
+
+    static Stream<JwtSigningKey> asymmetricKeys() throws Exception {
+        return Stream.of(
+            JwtSigningKey.asymmetric(Jwts.SIG.RS256, Jwts.SIG.RS256.keyPair().build()),
+            JwtSigningKey.asymmetric(Jwts.SIG.ES256, Jwts.SIG.ES256.keyPair().build()),
+            JwtSigningKey.asymmetric(Jwts.SIG.EdDSA, KeyPairGenerator.getInstance("Ed25519").generateKeyPair()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("asymmetricKeys")
+    void publishedKeyVerifiesToken(JwtSigningKey key) {
+        String token = key.sign(Jwts.builder().subject("john_doe")).compact();
+
+        // Так проверяет токен сервис, получивший только JWKS
+        Jwk<?> published = Jwks.parser().build().parse(Jwks.json(key.jwk()));
+        assertThat(published.getId()).isEqualTo(key.kid());
+        assertThat(published.getAlgorithm()).isEqualTo(key.algorithmId());
+        assertThat(Jwts.parser()
+                .keyLocator(header -> published.toKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getSubject())
+            .isEqualTo("john_doe");
+    }
+
+    @ParameterizedTest
+    @MethodSource("asymmetricKeys")
+    void rejectsTokenSignedByAnotherKey(JwtSigningKey key) throws Exception {
+        JwtSigningKey other = JwtSigningKey.asymmetric(Jwts.SIG.RS256, Jwts.SIG.RS256.keyPair().build());
+        String token = other.sign(Jwts.builder().subject("john_doe")).compact();
+
+        assertThatThrownBy(() -> key.verify(Jwts.parser()).build().parseSignedClaims(token))
+            .isInstanceOf(JwtException.class);
+    }
+}
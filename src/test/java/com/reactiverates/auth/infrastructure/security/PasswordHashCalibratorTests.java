@@ -0,0 +1,28 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class PasswordHashCalibratorTests {
+
+    @Test
+    void fallsBackToMinimumWhenNothingFitsTarget() {
+        assertThat(PasswordHashCalibrator.calibrate(Duration.ZERO, 4, 6)).isEqualTo(4);
+    }
+
+    @Test
+    void choosesMaximumWhenEveryStrengthFitsTarget() {
+        assertThat(PasswordHashCalibrator.calibrate(Duration.ofMinutes(1), 4, 6)).isEqualTo(6);
+    }
+
+    @Test
+    void stopsAtFirstStrengthOverTarget() {
+        // Стоимость 4 занимает около миллисекунды, 12 — сотни миллисекунд
+        int strength = PasswordHashCalibrator.calibrate(Duration.ofMillis(20), 4, 12);
+
+        assertThat(strength).isBetween(4, 11);
+    }
+}
@@ -0,0 +1,73 @@
+package com.reactiverates.auth.infrastructure.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.reactiverates.auth.application.service.TokenIdGenerator;
+
+class RotatingBloomFilterTests {
+
+    private static final Duration WINDOW = Duration.ofMinutes(15);
+    private static final Instant NOW = Instant.parse("2025-01-10T08:00:00Z");
+
+    private final TokenIdGenerator generator = new TokenIdGenerator();
+
+    @Test
+    void containsEveryAddedKey() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW, 1000, 0.01);
+        List<byte[]> keys = keys(1000);
+        keys.forEach(key -> filter.put(key, NOW));
+
+        assertThat(keys).allMatch(key -> filter.mightContain(key, NOW));
+    }
+
+    @Test
+    void keepsFalsePositiveRateNearConfigured() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW, 10_000, 0.01);
+        keys(10_000).forEach(key -> filter.put(key, NOW));
+
+        long falsePositives = keys(100_000).stream().filter(key -> filter.mightContain(key, NOW)).count();
+
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void dropsWindowOnceAllKeysExpired() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW, 1000, 0.01);
+        byte[] key = keys(1).get(0);
+        Instant expiresAt = NOW.plus(WINDOW);
+        filter.put(key, expiresAt);
+
+        // Тот же ключ с другим сроком — другое окно
+        assertThat(filter.mightContain(key, expiresAt.plus(WINDOW))).isFalse();
+
+        assertThat(filter.expire(expiresAt)).isZero();
+        assertThat(filter.mightContain(key, expiresAt)).isTrue();
+
+        assertThat(filter.expire(expiresAt.plus(WINDOW))).isEqualTo(1);
+        assertThat(filter.windowCount()).isZero();
+        assertThat(filter.mightContain(key, expiresAt)).isFalse();
+    }
+
+    @Test
+    void rangePutCoversEveryWindowUpToEnd() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW, 1000, 0.01);
+        byte[] key = keys(1).get(0);
+        filter.put(key, NOW, NOW.plus(WINDOW));
+
+        assertThat(filter.windowCount()).isEqualTo(2);
+        assertThat(filter.mightContain(key, NOW)).isTrue();
+        assertThat(filter.mightContain(key, NOW.plus(WINDOW))).isTrue();
+        assertThat(filter.mightContain(key, NOW.plus(WINDOW.multipliedBy(2)))).isFalse();
+    }
+
+    private List<byte[]> keys(int count) {
+        return Stream.generate(() -> TokenIdGenerator.storageKey(generator.newTokenId())).limit(count).toList();
+    }
+}